@@ -0,0 +1,180 @@
+package benchmarks;
+
+import actions.CartPageActions;
+import actions.CheckoutPageActions;
+import actions.HomePageActions;
+import actions.ProductPageActions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page action round trips (locator, wait, driver command, parsing) against an in-process HtmlUnit driver on
+ * static copies of the store's pages, so the framework's overhead is measured without a browser or network.
+ * loadPage is the cost of a plain navigation, for comparison with cartTotal, which navigates to the cart.
+ * The page actions swallow their errors and return 0 or an empty result, so every state checks in setup that its
+ * action finds what the fixture holds; a trial that would only time a failure does not run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActionRoundTripBenchmark {
+
+    /**
+     * HtmlUnit session opened on a fixture page for the whole trial
+     */
+    public abstract static class Page {
+        WebDriver driver;
+
+        abstract String page();
+
+        abstract void createActions();
+
+        /**
+         * Run the measured action once and throw if it came back empty
+         */
+        abstract void verify();
+
+        @Setup(Level.Trial)
+        public void open() {
+            // The fixtures have no scripts; page actions only need the DOM
+            driver = new HtmlUnitDriver(false);
+            driver.get(FixtureServer.start() + page());
+            createActions();
+            verify();
+        }
+
+        static void check(boolean found, String what) {
+            if (!found) {
+                throw new IllegalStateException(what + " not found on the fixture; the benchmark would time a failure");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            driver.quit();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class HomePage extends Page {
+        HomePageActions actions;
+
+        @Override
+        String page() {
+            return "home.html";
+        }
+
+        @Override
+        void createActions() {
+            actions = new HomePageActions(driver);
+        }
+
+        @Override
+        void verify() {
+            check(!actions.getAllProductPrices().isEmpty(), "Product prices");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ProductPage extends Page {
+        ProductPageActions actions;
+
+        @Override
+        String page() {
+            return "product.html";
+        }
+
+        @Override
+        void createActions() {
+            actions = new ProductPageActions(driver);
+        }
+
+        @Override
+        void verify() {
+            check(!driver.getTitle().isEmpty(), "Page title");
+            check(actions.getNumericPrice() > 0, "Product price");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CartPage extends Page {
+        CartPageActions actions;
+
+        @Override
+        String page() {
+            return "cart.html";
+        }
+
+        @Override
+        void createActions() {
+            actions = new CartPageActions(driver);
+        }
+
+        @Override
+        void verify() {
+            check(actions.getNumericCartTotal() > 0, "Cart total");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ConfirmationPage extends Page {
+        CheckoutPageActions actions;
+
+        @Override
+        String page() {
+            return "confirmation.html";
+        }
+
+        @Override
+        void createActions() {
+            actions = new CheckoutPageActions(driver);
+        }
+
+        @Override
+        void verify() {
+            check(!actions.getOrderId().isEmpty(), "Order id");
+        }
+    }
+
+    @Benchmark
+    public String loadPage(ProductPage product) {
+        product.driver.get(FixtureServer.start() + product.page());
+        return product.driver.getTitle();
+    }
+
+    @Benchmark
+    public List<String> productPrices(HomePage home) {
+        return home.actions.getAllProductPrices();
+    }
+
+    @Benchmark
+    public double numericPrice(ProductPage product) {
+        return product.actions.getNumericPrice();
+    }
+
+    @Benchmark
+    public double cartTotal(CartPage cart) {
+        return cart.actions.getNumericCartTotal();
+    }
+
+    @Benchmark
+    public String orderId(ConfirmationPage confirmation) {
+        return confirmation.actions.getOrderId();
+    }
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the static DemoBlaze pages in src/main/resources/fixtures on a free local port, once per JVM
+ */
+final class FixtureServer {
+    private static String baseUrl;
+
+    private FixtureServer() {
+    }
+
+    /**
+     * Start the server if needed and return its URL, e.g. http://localhost:41234/
+     */
+    static synchronized String start() {
+        if (baseUrl != null) {
+            return baseUrl;
+        }
+        HttpServer server;
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not start the fixture server", e);
+        }
+        server.createContext("/", FixtureServer::handle);
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "benchmark-fixtures");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort() + "/";
+        return baseUrl;
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        String name = exchange.getRequestURI().getPath().substring(1);
+        try (InputStream in = FixtureServer.class.getClassLoader().getResourceAsStream("fixtures/" + name)) {
+            byte[] body = in == null || name.contains("..") ? new byte[0] : in.readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(body.length == 0 ? 404 : 200, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
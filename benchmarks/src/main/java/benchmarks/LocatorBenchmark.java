@@ -0,0 +1,56 @@
+package benchmarks;
+
+import locators.CartPageLocators;
+import locators.HomePageLocators;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Locator construction as the actions do it: String.format of the parameterised XPath templates and By.xpath
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocatorBenchmark {
+
+    @Param({"Samsung galaxy s6", "2017 Dell 15.6 Inch"})
+    public String productName;
+
+    @Benchmark
+    public String productLinkXpath() {
+        return String.format(HomePageLocators.PRODUCT_LINK_BY_NAME, productName);
+    }
+
+    @Benchmark
+    public By productLink() {
+        return By.xpath(String.format(HomePageLocators.PRODUCT_LINK_BY_NAME, productName));
+    }
+
+    @Benchmark
+    public By productCard() {
+        return By.xpath(String.format(HomePageLocators.PRODUCT_CARD_BY_NAME, productName));
+    }
+
+    @Benchmark
+    public By cartDeleteLink() {
+        return By.xpath(String.format(CartPageLocators.DELETE_ITEM_BY_NAME, productName));
+    }
+
+    @Benchmark
+    public By staticLocator() {
+        return By.xpath(HomePageLocators.PRODUCT_PRICES);
+    }
+}
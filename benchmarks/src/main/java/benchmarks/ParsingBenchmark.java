@@ -0,0 +1,58 @@
+package benchmarks;
+
+import actions.CartPageActions;
+import actions.CheckoutPageActions;
+import actions.ProductPageActions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text parsing behind getOrderId/getOrderAmount (CheckoutPageActions), getNumericPrice (ProductPageActions)
+ * and getNumericCartTotal (CartPageActions), on texts as the store renders them
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+    // Non-final, so the JIT cannot fold the parsing of constants
+    public String confirmation = "Id: 4466007\nAmount: 1830 USD\nCard Number: 1234567890123456\nName: John Doe\nDate: 18/10/2026";
+    public String bareOrderId = "Order 4466007";
+    public String productPrice = "$360 *includes tax";
+    public String cartTotal = "1830";
+
+    @Benchmark
+    public String orderId() {
+        return CheckoutPageActions.parseOrderId(confirmation);
+    }
+
+    @Benchmark
+    public String orderIdWithoutPrefix() {
+        return CheckoutPageActions.parseOrderId(bareOrderId);
+    }
+
+    @Benchmark
+    public String orderAmount() {
+        return CheckoutPageActions.parseOrderAmount(confirmation);
+    }
+
+    @Benchmark
+    public double numericPrice() {
+        return ProductPageActions.parseNumericPrice(productPrice);
+    }
+
+    @Benchmark
+    public double numericCartTotal() {
+        return CartPageActions.parseNumericTotal(cartTotal);
+    }
+}
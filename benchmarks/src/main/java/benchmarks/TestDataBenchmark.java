@@ -0,0 +1,41 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.TestDataProvider;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path lookups in {@link TestDataProvider#getTestData(String)}, against the suite's testdata.json
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TestDataBenchmark {
+
+    @Param({"users.validUser.username", "checkout.customerInfo.creditCard", "products.laptops.5", "categories.2"})
+    public String path;
+
+    @Setup
+    public void load() {
+        // Binding the data set is a one-off cost, keep it out of the measurement
+        TestDataProvider.getDataSet();
+    }
+
+    @Benchmark
+    public String getTestData() {
+        return TestDataProvider.getTestData(path);
+    }
+}
@@ -0,0 +1,90 @@
+package actions;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.SuperMethodCall;
+import org.openqa.selenium.WebDriver;
+import utils.LatencyRecorder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.bytebuddy.matcher.ElementMatchers.isDeclaredBy;
+import static net.bytebuddy.matcher.ElementMatchers.isPublic;
+import static net.bytebuddy.matcher.ElementMatchers.isStatic;
+import static net.bytebuddy.matcher.ElementMatchers.isSubTypeOf;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+
+/**
+ * Creates action classes whose public actions are timed into {@link LatencyRecorder}.
+ *
+ * The timing subclass of an action class (e.g. HomePageActions$Timed) is generated once and overrides every
+ * public action to record its latency under the page of the class ("HomePage") while it runs, so the
+ * WebDriver commands it sends are attributed to it. Actions called by other actions are timed as well.
+ * With latency.enabled=false plain action classes are created.
+ */
+public final class ActionInstrumentation {
+    private static final String TIMED_SUFFIX = "$Timed";
+    private static final Map<Class<?>, Class<?>> timedTypes = new ConcurrentHashMap<>();
+
+    private ActionInstrumentation() {
+    }
+
+    /**
+     * Create an action class for a driver, timed when latency recording is enabled
+     */
+    public static <T extends BaseActions> T create(Class<T> type, WebDriver driver) {
+        Class<? extends T> actualType = LatencyRecorder.isEnabled() ? timedType(type) : type;
+        try {
+            return actualType.getConstructor(WebDriver.class).newInstance(driver);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Could not create " + type.getSimpleName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends BaseActions> Class<? extends T> timedType(Class<T> type) {
+        return (Class<? extends T>) timedTypes.computeIfAbsent(type, ActionInstrumentation::generate);
+    }
+
+    private static Class<?> generate(Class<?> type) {
+        return new ByteBuddy()
+                .subclass(type)
+                .name(type.getName() + TIMED_SUFFIX)
+                .method(isPublic().and(not(isStatic())).and(isDeclaredBy(isSubTypeOf(BaseActions.class))))
+                .intercept(Advice.to(TimingAdvice.class).wrap(SuperMethodCall.INSTANCE))
+                .make()
+                .load(type.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                .getLoaded();
+    }
+
+    /**
+     * Page name of an action class: "actions.HomePageActions$Timed" becomes "HomePage"
+     */
+    public static String pageOf(String typeName) {
+        String name = typeName.substring(typeName.lastIndexOf('.') + 1);
+        if (name.endsWith(TIMED_SUFFIX)) {
+            name = name.substring(0, name.length() - TIMED_SUFFIX.length());
+        }
+        return name.endsWith("Actions") ? name.substring(0, name.length() - "Actions".length()) : name;
+    }
+
+    /**
+     * Inlined around every timed action; must only use public members
+     */
+    public static final class TimingAdvice {
+        private TimingAdvice() {
+        }
+
+        @Advice.OnMethodEnter
+        public static long enter(@Advice.Origin("#t") String type, @Advice.Origin("#m") String method) {
+            LatencyRecorder.enterAction(ActionInstrumentation.pageOf(type), method);
+            return System.nanoTime();
+        }
+
+        @Advice.OnMethodExit(onThrowable = Throwable.class)
+        public static void exit(@Advice.Enter long startNanos, @Advice.Thrown Throwable thrown) {
+            LatencyRecorder.exitAction(startNanos, thrown);
+        }
+    }
+}
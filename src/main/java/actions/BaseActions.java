@@ -6,6 +6,7 @@ import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.FluentWait;
+import utils.AccountedWait;
 import java.time.Duration;
 import java.util.List;
 import java.util.function.Function;
@@ -26,9 +27,8 @@ public abstract class BaseActions {
 
     public BaseActions(WebDriver driver) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(5)); // Reduced from 10
-        this.fluentWait = new FluentWait<>(driver)
-                .withTimeout(Duration.ofSeconds(8)) // Reduced from 15
+        this.wait = new AccountedWait(driver, Duration.ofSeconds(5)); // Reduced from 10
+        this.fluentWait = new AccountedWait(driver, Duration.ofSeconds(8)) // Reduced from 15
                 .pollingEvery(Duration.ofMillis(200)) // Reduced from 500
                 .ignoring(NoSuchElementException.class)
                 .ignoring(StaleElementReferenceException.class);
@@ -39,7 +39,7 @@ public abstract class BaseActions {
      */
     protected void waitForPageLoad() {
         try {
-            WebDriverWait fastWait = new WebDriverWait(driver, Duration.ofSeconds(2));
+            WebDriverWait fastWait = new AccountedWait(driver, Duration.ofSeconds(2));
             fastWait.until(webDriver ->
                     ((JavascriptExecutor) webDriver).executeScript("return document.readyState").equals("complete"));
         } catch (TimeoutException e) {
@@ -52,7 +52,7 @@ public abstract class BaseActions {
      */
     protected void waitForElementVisible(String locator) {
         try {
-            WebDriverWait ultraFastWait = new WebDriverWait(driver, Duration.ofSeconds(1));
+            WebDriverWait ultraFastWait = new AccountedWait(driver, Duration.ofSeconds(1));
             ultraFastWait.until(ExpectedConditions.visibilityOfElementLocated(By.xpath(locator)));
         } catch (TimeoutException e) {
             // Continue immediately if element not visible within 1 second
@@ -64,7 +64,7 @@ public abstract class BaseActions {
      */
     protected WebElement waitForElementClickable(String locator) {
         try {
-            WebDriverWait ultraFastWait = new WebDriverWait(driver, Duration.ofSeconds(1));
+            WebDriverWait ultraFastWait = new AccountedWait(driver, Duration.ofSeconds(1));
             return ultraFastWait.until(ExpectedConditions.elementToBeClickable(By.xpath(locator)));
         } catch (TimeoutException e) {
             // Return element directly if wait fails
@@ -77,7 +77,7 @@ public abstract class BaseActions {
      */
     protected String waitForAlertAndGetText() {
         try {
-            WebDriverWait alertWait = new WebDriverWait(driver, Duration.ofSeconds(1));
+            WebDriverWait alertWait = new AccountedWait(driver, Duration.ofSeconds(1));
             Alert alert = alertWait.until(ExpectedConditions.alertIsPresent());
             return alert.getText();
         } catch (TimeoutException e) {
@@ -235,7 +235,7 @@ public abstract class BaseActions {
      */
     protected boolean isElementVisible(String locator) {
         try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(1)); // Very short wait
+            WebDriverWait wait = new AccountedWait(driver, Duration.ofSeconds(1)); // Very short wait
             wait.until(ExpectedConditions.visibilityOfElementLocated(By.xpath(locator)));
             return true;
         } catch (TimeoutException e) {
@@ -315,7 +315,7 @@ public abstract class BaseActions {
     protected void waitForDynamicContent() {
         try {
             // Wait for document ready state
-            WebDriverWait dynamicWait = new WebDriverWait(driver, Duration.ofSeconds(3));
+            WebDriverWait dynamicWait = new AccountedWait(driver, Duration.ofSeconds(3));
             dynamicWait.until(webDriver ->
                     ((JavascriptExecutor) webDriver).executeScript("return document.readyState").equals("complete"));
             
@@ -338,7 +338,7 @@ public abstract class BaseActions {
      */
     protected boolean waitForConditionWithTimeout(Function<WebDriver, Boolean> condition, int timeoutSeconds) {
         try {
-            WebDriverWait customWait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
+            WebDriverWait customWait = new AccountedWait(driver, Duration.ofSeconds(timeoutSeconds));
             return customWait.until(condition);
         } catch (TimeoutException e) {
             logger.debug("Custom condition wait timeout after {} seconds", timeoutSeconds);
@@ -351,7 +351,7 @@ public abstract class BaseActions {
      */
     protected boolean waitForAnyElementVisible(String[] locators, int timeoutSeconds) {
         try {
-            WebDriverWait multiWait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
+            WebDriverWait multiWait = new AccountedWait(driver, Duration.ofSeconds(timeoutSeconds));
             return multiWait.until(webDriver -> {
                 for (String locator : locators) {
                     try {
@@ -155,14 +155,22 @@ public class CartPageActions extends BaseActions {
      */
     public double getNumericCartTotal() {
         try {
-            String totalText = getCartTotal();
-            String numericTotal = totalText.replaceAll("[^0-9.]", "");
-            return numericTotal.isEmpty() ? 0.0 : Double.parseDouble(numericTotal);
+            return parseNumericTotal(getCartTotal());
         } catch (Exception e) {
             return 0.0;
         }
     }
 
+    /**
+     * Numeric value of a cart total text, 0 for an empty cart
+     *
+     * @throws NumberFormatException if the text holds more than one number
+     */
+    public static double parseNumericTotal(String totalText) {
+        String numericTotal = totalText.replaceAll("[^0-9.]", "");
+        return numericTotal.isEmpty() ? 0.0 : Double.parseDouble(numericTotal);
+    }
+
     /**
      * Clear entire cart (ultra-fast)
      */
@@ -3,6 +3,7 @@ package actions;
 import locators.CheckoutPageLocators;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.AccountedWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.openqa.selenium.TimeoutException;
@@ -177,7 +178,7 @@ public class CheckoutPageActions extends BaseActions {
             if (!confirmationFound) {
                 // Wait for confirmation using proper WebDriver wait
                 try {
-                    WebDriverWait confirmationWait = new WebDriverWait(driver, Duration.ofSeconds(8));
+                    WebDriverWait confirmationWait = new AccountedWait(driver, Duration.ofSeconds(8));
                     confirmationWait.until(webDriver -> {
                         for (String locator : confirmationLocators) {
                             try {
@@ -263,37 +264,44 @@ public class CheckoutPageActions extends BaseActions {
                 }
             }
             
-            if (orderIdText.isEmpty()) {
-                return "";
-            }
-            
-            // Extract just the ID number from the text
-            String orderId = "";
-            
-            // Look for "Id: " followed by digits
-            if (orderIdText.contains("Id: ")) {
-                String afterId = orderIdText.substring(orderIdText.indexOf("Id: ") + 4);
-                // Extract only the digits from the line containing the ID
-                String[] lines = afterId.split("\\n");
-                if (lines.length > 0) {
-                    // Get the first line after "Id: " and extract digits
-                    orderId = lines[0].replaceAll("[^0-9]", "").trim();
-                }
-            } else {
-                // If no "Id: " prefix, try to extract the first sequence of digits from the text
-                java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\\d+");
-                java.util.regex.Matcher matcher = pattern.matcher(orderIdText);
-                if (matcher.find()) {
-                    orderId = matcher.group();
-                }
-            }
-            
-            return orderId;
+            return parseOrderId(orderIdText);
         } catch (Exception e) {
             return "";
         }
     }
 
+    /**
+     * Extract the order id from confirmation text ("Id: 123..."), else its first number; empty if none
+     */
+    public static String parseOrderId(String orderIdText) {
+        if (orderIdText.isEmpty()) {
+            return "";
+        }
+        
+        // Extract just the ID number from the text
+        String orderId = "";
+        
+        // Look for "Id: " followed by digits
+        if (orderIdText.contains("Id: ")) {
+            String afterId = orderIdText.substring(orderIdText.indexOf("Id: ") + 4);
+            // Extract only the digits from the line containing the ID
+            String[] lines = afterId.split("\\n");
+            if (lines.length > 0) {
+                // Get the first line after "Id: " and extract digits
+                orderId = lines[0].replaceAll("[^0-9]", "").trim();
+            }
+        } else {
+            // If no "Id: " prefix, try to extract the first sequence of digits from the text
+            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\\d+");
+            java.util.regex.Matcher matcher = pattern.matcher(orderIdText);
+            if (matcher.find()) {
+                orderId = matcher.group();
+            }
+        }
+        
+        return orderId;
+    }
+
     /**
      * Get order amount from confirmation
      */
@@ -328,31 +336,38 @@ public class CheckoutPageActions extends BaseActions {
                 }
             }
             
-            if (amountText.isEmpty()) {
-                return "";
-            }
-            
-            // Extract just the amount from the text
-            String amount = "";
-            
-            if (amountText.contains("Amount:")) {
-                String afterAmount = amountText.substring(amountText.indexOf("Amount:") + 7);
-                // Get the first line after "Amount:" and extract the amount
-                String[] lines = afterAmount.split("\\n");
-                if (lines.length > 0) {
-                    amount = lines[0].trim();
-                }
-            } else {
-                // If it's already just the amount
-                amount = amountText.trim();
-            }
-            
-            return amount;
+            return parseOrderAmount(amountText);
         } catch (Exception e) {
             return "";
         }
     }
 
+    /**
+     * Extract the order amount from confirmation text ("Amount: 790 USD" line), else the trimmed text
+     */
+    public static String parseOrderAmount(String amountText) {
+        if (amountText.isEmpty()) {
+            return "";
+        }
+        
+        // Extract just the amount from the text
+        String amount = "";
+        
+        if (amountText.contains("Amount:")) {
+            String afterAmount = amountText.substring(amountText.indexOf("Amount:") + 7);
+            // Get the first line after "Amount:" and extract the amount
+            String[] lines = afterAmount.split("\\n");
+            if (lines.length > 0) {
+                amount = lines[0].trim();
+            }
+        } else {
+            // If it's already just the amount
+            amount = amountText.trim();
+        }
+        
+        return amount;
+    }
+
     /**
      * Get order date from confirmation
      */
@@ -407,7 +422,7 @@ public class CheckoutPageActions extends BaseActions {
             
             // If not found immediately, wait for modal animation using proper WebDriverWait
             try {
-                WebDriverWait modalWait = new WebDriverWait(driver, Duration.ofSeconds(3));
+                WebDriverWait modalWait = new AccountedWait(driver, Duration.ofSeconds(3));
                 modalWait.until(webDriver -> {
                     for (String locator : modalLocators) {
                         try {
@@ -1,10 +1,16 @@
 package actions;
 
 import locators.HomePageLocators;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import utils.AccountedWait;
+import utils.ConfigReader;
+import utils.PagePerformance;
+import java.time.Duration;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -22,21 +28,30 @@ public class HomePageActions extends BaseActions {
      * Click on Phones category (ultra-fast)
      */
     public void clickPhonesCategory() {
-        clickElement(HomePageLocators.PHONES_CATEGORY);
+        clickCategory(HomePageLocators.PHONES_CATEGORY);
     }
 
     /**
      * Click on Laptops category (ultra-fast)
      */
     public void clickLaptopsCategory() {
-        clickElement(HomePageLocators.LAPTOPS_CATEGORY);
+        clickCategory(HomePageLocators.LAPTOPS_CATEGORY);
     }
 
     /**
      * Click on Monitors category (ultra-fast)
      */
     public void clickMonitorsCategory() {
-        clickElement(HomePageLocators.MONITORS_CATEGORY);
+        clickCategory(HomePageLocators.MONITORS_CATEGORY);
+    }
+
+    /**
+     * Click a category and capture the product list load it triggers
+     */
+    private void clickCategory(String locator) {
+        double mark = PagePerformance.mark(driver);
+        clickElement(locator);
+        PagePerformance.captureSince(driver, "category", mark);
     }
 
     /**
@@ -77,6 +92,24 @@ public class HomePageActions extends BaseActions {
         } catch (Exception e) {
             throw new RuntimeException("Could not click on product: " + productName, e);
         }
+        captureProductPageLoad();
+    }
+
+    /**
+     * Capture the product page load once the browser has left the home page
+     */
+    private void captureProductPageLoad() {
+        if (!PagePerformance.isEnabled()) {
+            return;
+        }
+        try {
+            new AccountedWait(driver, Duration.ofSeconds(5)).until(ExpectedConditions.urlContains("prod.html"));
+        } catch (TimeoutException e) {
+            logger.warn("Product page did not load, skipping its performance capture");
+            return;
+        }
+        waitForPageLoad();
+        PagePerformance.captureNavigation(driver, "product");
     }
 
     /**
@@ -91,15 +124,7 @@ public class HomePageActions extends BaseActions {
             }
             
             // Fallback to URL navigation
-            String currentUrl = driver.getCurrentUrl();
-            if (currentUrl.contains("demoblaze.com")) {
-                String baseUrl = currentUrl.contains("/") ? 
-                    currentUrl.substring(0, currentUrl.indexOf("demoblaze.com/") + "demoblaze.com".length()) :
-                    "https://www.demoblaze.com";
-                driver.navigate().to(baseUrl);
-            } else {
-                driver.navigate().to("https://www.demoblaze.com");
-            }
+            driver.navigate().to(ConfigReader.getBaseUrl());
         } catch (Exception e) {
             logger.error("Error navigating to home: {}", e.getMessage());
         }
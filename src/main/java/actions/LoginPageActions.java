@@ -2,9 +2,12 @@ package actions;
 
 import locators.BaseLocators;
 import locators.LoginPageLocators;
+import org.openqa.selenium.Cookie;
 import org.openqa.selenium.WebDriver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import utils.AuthTokenService;
+import utils.ConfigReader;
 
 /**
  * Actions for Login and Registration functionality
@@ -141,6 +144,43 @@ public class LoginPageActions extends BaseActions {
         }
     }
 
+    /**
+     * Log in by injecting an API-issued session token (skips the login modal)
+     *
+     * @throws RuntimeException if the site does not show the user as logged in, even with a fresh token
+     */
+    public void loginWithToken(String username, String password) {
+        logger.info("Logging in user via session token: {}", username);
+
+        // Cookies can only be set once the browser is on the site's domain
+        if (!driver.getCurrentUrl().startsWith("http")) {
+            driver.get(ConfigReader.getBaseUrl());
+        }
+
+        injectSessionToken(AuthTokenService.getToken(username, password));
+        if (isUserLoggedIn()) {
+            logger.info("Token login successful for: {}", username);
+            return;
+        }
+
+        // Cached token may have expired, retry once with a fresh one
+        AuthTokenService.invalidate(username, password);
+        injectSessionToken(AuthTokenService.getToken(username, password));
+        if (!isUserLoggedIn()) {
+            throw new RuntimeException("Token login failed for user: " + username);
+        }
+        logger.info("Token login successful for: {} after token refresh", username);
+    }
+
+    /**
+     * Set session cookie and reload so the page picks it up
+     */
+    private void injectSessionToken(String token) {
+        driver.manage().deleteCookieNamed(AuthTokenService.SESSION_COOKIE);
+        driver.manage().addCookie(new Cookie(AuthTokenService.SESSION_COOKIE, token));
+        driver.navigate().refresh();
+    }
+
     /**
      * Check if user is logged in (simplified)
      */
@@ -174,10 +174,7 @@ public class ProductPageActions extends BaseActions {
      */
     public double getNumericPrice() {
         try {
-            String priceText = getProductPrice();
-            // Remove currency symbols and extract numeric value
-            String numericPrice = priceText.replaceAll("[^0-9.]", "");
-            double price = Double.parseDouble(numericPrice);
+            double price = parseNumericPrice(getProductPrice());
             logger.debug("Extracted numeric price: {}", price);
             return price;
         } catch (Exception e) {
@@ -186,6 +183,16 @@ public class ProductPageActions extends BaseActions {
         }
     }
 
+    /**
+     * Numeric value of a price text such as "$360 *includes tax"
+     *
+     * @throws NumberFormatException if the text holds no number
+     */
+    public static double parseNumericPrice(String priceText) {
+        // Remove currency symbols and extract numeric value
+        return Double.parseDouble(priceText.replaceAll("[^0-9.]", ""));
+    }
+
     /**
      * Navigate back to home page
      */
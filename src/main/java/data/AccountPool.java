@@ -0,0 +1,64 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Accounts registered during the run that later tests may log in with instead of registering their own.
+ * A borrowed account is used by one test at a time and handed back when that test ends.
+ */
+public class AccountPool {
+    private static final Set<UserCredentials> accounts = ConcurrentHashMap.newKeySet();
+    private static final Queue<UserCredentials> available = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Add registered account; it stays with the caller until handed back
+     */
+    public static void addBorrowed(UserCredentials account) {
+        accounts.add(account);
+    }
+
+    /**
+     * Add registered account available to any test
+     */
+    public static void add(UserCredentials account) {
+        if (accounts.add(account)) {
+            available.add(account);
+        }
+    }
+
+    /**
+     * Take an account for exclusive use, or null if none is free
+     */
+    public static UserCredentials borrow() {
+        return available.poll();
+    }
+
+    /**
+     * Return borrowed account to the pool
+     */
+    public static void giveBack(UserCredentials account) {
+        if (accounts.contains(account) && !available.contains(account)) {
+            available.add(account);
+        }
+    }
+
+    /**
+     * Get all known accounts (e.g. to persist them for a later run)
+     */
+    public static List<UserCredentials> getAccounts() {
+        return new ArrayList<>(accounts);
+    }
+
+    /**
+     * Forget all accounts
+     */
+    public static void clear() {
+        accounts.clear();
+        available.clear();
+    }
+}
@@ -0,0 +1,79 @@
+package data;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared catalog knowledge learned while tests run: product titles per category and
+ * products known to be purchasable. Backed by concurrent maps so parallel tests can
+ * read and publish entries without locking.
+ */
+public class CatalogCache {
+    private static final Map<String, List<String>> productTitles = new ConcurrentHashMap<>();
+    private static final Map<String, String> workingProducts = new ConcurrentHashMap<>();
+
+    /**
+     * Get cached product titles of a category (empty if not cached yet)
+     */
+    public static List<String> getProductTitles(String category) {
+        return productTitles.getOrDefault(key(category), Collections.emptyList());
+    }
+
+    /**
+     * Cache product titles of a category
+     */
+    public static void putProductTitles(String category, List<String> titles) {
+        productTitles.put(key(category), Collections.unmodifiableList(List.copyOf(titles)));
+    }
+
+    /**
+     * Get product known to be addable to the cart for a category, or null
+     */
+    public static String getWorkingProduct(String category) {
+        return workingProducts.get(key(category));
+    }
+
+    /**
+     * Record product that was successfully added to the cart
+     */
+    public static void putWorkingProduct(String category, String product) {
+        workingProducts.put(key(category), product);
+    }
+
+    /**
+     * Forget working product, unless another thread already replaced it
+     */
+    public static void invalidateWorkingProduct(String category, String product) {
+        workingProducts.remove(key(category), product);
+    }
+
+    /**
+     * Get copy of all cached product titles by category (e.g. to persist them for a later run)
+     */
+    public static Map<String, List<String>> getAllProductTitles() {
+        return new TreeMap<>(productTitles);
+    }
+
+    /**
+     * Get copy of all working products by category
+     */
+    public static Map<String, String> getAllWorkingProducts() {
+        return new TreeMap<>(workingProducts);
+    }
+
+    /**
+     * Clear all cached catalog state
+     */
+    public static void clear() {
+        productTitles.clear();
+        workingProducts.clear();
+    }
+
+    private static String key(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+}
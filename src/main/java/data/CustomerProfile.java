@@ -0,0 +1,94 @@
+package data;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Objects;
+
+/**
+ * Immutable customer profile used to fill the checkout form
+ */
+public final class CustomerProfile {
+    public static final CustomerProfile EMPTY = new CustomerProfile("", "", "", "", "", "");
+
+    private final String name;
+    private final String country;
+    private final String city;
+    private final String creditCard;
+    private final String month;
+    private final String year;
+
+    public CustomerProfile(String name, String country, String city, String creditCard, String month, String year) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.country = Objects.requireNonNull(country, "country");
+        this.city = Objects.requireNonNull(city, "city");
+        this.creditCard = Objects.requireNonNull(creditCard, "creditCard");
+        this.month = Objects.requireNonNull(month, "month");
+        this.year = Objects.requireNonNull(year, "year");
+    }
+
+    /**
+     * Bind profile from a JSON object (missing fields become empty strings)
+     */
+    public static CustomerProfile fromJson(JsonNode node) {
+        return new CustomerProfile(
+                node.path("name").asText(""),
+                node.path("country").asText(""),
+                node.path("city").asText(""),
+                node.path("creditCard").asText(""),
+                node.path("month").asText(""),
+                node.path("year").asText(""));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getCreditCard() {
+        return creditCard;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    /**
+     * Get profile as {name, country, city, creditCard, month, year} array (legacy helper format)
+     */
+    public String[] toArray() {
+        return new String[]{name, country, city, creditCard, month, year};
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CustomerProfile)) {
+            return false;
+        }
+        CustomerProfile that = (CustomerProfile) o;
+        return name.equals(that.name) && country.equals(that.country) && city.equals(that.city)
+                && creditCard.equals(that.creditCard) && month.equals(that.month) && year.equals(that.year);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, country, city, creditCard, month, year);
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerProfile{name='" + name + "', country='" + country + "', city='" + city + "'}";
+    }
+}
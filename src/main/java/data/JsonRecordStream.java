@@ -0,0 +1,123 @@
+package data;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Lazily reads records from a top-level JSON array or an NDJSON stream using Jackson's streaming parser.
+ * Only the current record is held in memory; records outside this stream's shard are skipped without binding.
+ * Iteration is synchronized so parallel TestNG data provider threads can pull from one stream.
+ */
+public class JsonRecordStream<T> implements Iterator<T>, Closeable {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final JsonParser parser;
+    private final Function<JsonNode, T> binder;
+    private final int shardIndex;
+    private final int shardCount;
+    private final boolean arrayMode;
+    private long recordIndex;
+    private T nextRecord;
+    private boolean closed;
+
+    /**
+     * Open a stream over all records
+     */
+    public JsonRecordStream(InputStream inputStream, Function<JsonNode, T> binder) {
+        this(inputStream, binder, 0, 1);
+    }
+
+    /**
+     * Open a stream over the records where {@code recordIndex % shardCount == shardIndex}
+     */
+    public JsonRecordStream(InputStream inputStream, Function<JsonNode, T> binder, int shardIndex, int shardCount) {
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("Invalid shard " + shardIndex + " of " + shardCount);
+        }
+        this.binder = binder;
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        try {
+            this.parser = objectMapper.getFactory().createParser(inputStream);
+            JsonToken first = parser.nextToken();
+            this.arrayMode = first == JsonToken.START_ARRAY;
+            if (arrayMode) {
+                parser.nextToken();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open JSON record stream", e);
+        }
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        if (nextRecord == null && !closed) {
+            nextRecord = readNextInShard();
+        }
+        return nextRecord != null;
+    }
+
+    @Override
+    public synchronized T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T record = nextRecord;
+        nextRecord = null;
+        return record;
+    }
+
+    /**
+     * Number of records read from the underlying stream so far (all shards)
+     */
+    public synchronized long getRecordsRead() {
+        return recordIndex;
+    }
+
+    private T readNextInShard() {
+        try {
+            while (true) {
+                JsonToken token = parser.currentToken();
+                if (token == null || (arrayMode && token == JsonToken.END_ARRAY)) {
+                    close();
+                    return null;
+                }
+                boolean inShard = recordIndex++ % shardCount == shardIndex;
+                T record = null;
+                if (inShard) {
+                    record = binder.apply(objectMapper.readTree(parser));
+                } else {
+                    parser.skipChildren();
+                }
+                parser.nextToken();
+                if (inShard) {
+                    return record;
+                }
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Failed to read JSON record #" + recordIndex, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // Nothing useful to do if closing the source fails
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package data;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, typed view of testdata.json bound once at startup.
+ * All lookups are plain map reads, so one instance can be shared by any number of threads.
+ */
+public final class TestDataSet {
+    private final Map<String, UserCredentials> users;
+    private final Map<String, List<String>> productsByCategory;
+    private final Map<String, CustomerProfile> customerProfiles;
+    private final List<String> categories;
+    private final List<String> searchTerms;
+    private final Map<String, String> valuesByPath;
+
+    private TestDataSet(Map<String, UserCredentials> users,
+                        Map<String, List<String>> productsByCategory,
+                        Map<String, CustomerProfile> customerProfiles,
+                        List<String> categories,
+                        List<String> searchTerms,
+                        Map<String, String> valuesByPath) {
+        this.users = Collections.unmodifiableMap(users);
+        this.productsByCategory = Collections.unmodifiableMap(productsByCategory);
+        this.customerProfiles = Collections.unmodifiableMap(customerProfiles);
+        this.categories = Collections.unmodifiableList(categories);
+        this.searchTerms = Collections.unmodifiableList(searchTerms);
+        this.valuesByPath = Collections.unmodifiableMap(valuesByPath);
+    }
+
+    /**
+     * Bind the whole test data tree into typed objects
+     */
+    public static TestDataSet fromJson(JsonNode root) {
+        Map<String, UserCredentials> users = new LinkedHashMap<>();
+        forEachField(root.path("users"), (key, node) ->
+                users.put(key, new UserCredentials(node.path("username").asText(""), node.path("password").asText(""))));
+
+        Map<String, List<String>> products = new LinkedHashMap<>();
+        forEachField(root.path("products"), (key, node) ->
+                products.put(key.toLowerCase(Locale.ROOT), toStringList(node)));
+
+        Map<String, CustomerProfile> profiles = new LinkedHashMap<>();
+        forEachField(root.path("checkout"), (key, node) -> profiles.put(key, CustomerProfile.fromJson(node)));
+
+        Map<String, String> valuesByPath = new HashMap<>();
+        flatten("", root, valuesByPath);
+
+        return new TestDataSet(users, products, profiles,
+                toStringList(root.path("categories")), toStringList(root.path("searchTerms")), valuesByPath);
+    }
+
+    /**
+     * Get scalar value by dotted path (e.g. "users.validUser.username"), or null if absent
+     */
+    public String getValue(String path) {
+        return valuesByPath.get(path);
+    }
+
+    /**
+     * Get user credentials by key (e.g. "validUser"), or {@link UserCredentials#EMPTY}
+     */
+    public UserCredentials getUser(String key) {
+        return users.getOrDefault(key, UserCredentials.EMPTY);
+    }
+
+    /**
+     * Get customer profile by key (e.g. "customerInfo"), or {@link CustomerProfile#EMPTY}
+     */
+    public CustomerProfile getCustomerProfile(String key) {
+        return customerProfiles.getOrDefault(key, CustomerProfile.EMPTY);
+    }
+
+    /**
+     * Get products of a category (case-insensitive), empty if unknown
+     */
+    public List<String> getProducts(String category) {
+        return productsByCategory.getOrDefault(category.toLowerCase(Locale.ROOT), Collections.emptyList());
+    }
+
+    public Map<String, UserCredentials> getUsers() {
+        return users;
+    }
+
+    public Map<String, List<String>> getProductsByCategory() {
+        return productsByCategory;
+    }
+
+    public Map<String, CustomerProfile> getCustomerProfiles() {
+        return customerProfiles;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public List<String> getSearchTerms() {
+        return searchTerms;
+    }
+
+    private interface FieldConsumer {
+        void accept(String key, JsonNode value);
+    }
+
+    private static void forEachField(JsonNode node, FieldConsumer consumer) {
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            consumer.accept(field.getKey(), field.getValue());
+        }
+    }
+
+    private static List<String> toStringList(JsonNode node) {
+        List<String> values = new ArrayList<>();
+        if (node.isArray()) {
+            node.forEach(item -> values.add(item.asText()));
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Precompute every leaf path so path lookups never walk the tree
+     */
+    private static void flatten(String prefix, JsonNode node, Map<String, String> target) {
+        if (node.isObject()) {
+            forEachField(node, (key, child) -> flatten(prefix.isEmpty() ? key : prefix + "." + key, child, target));
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                flatten(prefix + "." + i, node.get(i), target);
+            }
+        } else if (!prefix.isEmpty()) {
+            target.put(prefix, node.asText());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package data;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utils.ConfigReader;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unique ID and random data generator for parallel runs.
+ *
+ * IDs follow a node/worker/sequence scheme: node identifies the JVM (data.node.id, or a hash of host and pid),
+ * worker is assigned once per thread, and each worker keeps its own millisecond timestamp plus sequence.
+ * Two threads never share state, so generation is contention-free and IDs cannot collide across workers.
+ * An ID is base 36 with timestamp, node and sequence zero-padded to fixed widths and the worker last, so every
+ * (timestamp, node, worker, sequence) tuple has exactly one spelling.
+ *
+ * Random values come from a per-thread SplittableRandom. Setting data.seed makes them reproducible;
+ * the seed in use is always logged so a failed run can be replayed with -Ddata.seed=...
+ */
+public class UniqueDataGenerator {
+    private static final Logger logger = LogManager.getLogger(UniqueDataGenerator.class);
+
+    private static final int SEQUENCE_LIMIT = 1 << 12;
+    // Base-36 digits of the fixed-width fields: millis until 5188, 20-bit node ID, 12-bit sequence
+    private static final int MILLIS_DIGITS = 9;
+    private static final int NODE_DIGITS = 4;
+    private static final int SEQUENCE_DIGITS = 3;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static final long nodeId = resolveNodeId();
+    private static final long seed = resolveSeed();
+    private static final AtomicInteger workerCounter = new AtomicInteger();
+    private static final ThreadLocal<WorkerState> workerState =
+            ThreadLocal.withInitial(() -> new WorkerState(workerCounter.getAndIncrement()));
+
+    /**
+     * Per-thread generator state (never shared between threads)
+     */
+    private static final class WorkerState {
+        private final int workerId;
+        private SplittableRandom random;
+        private long lastMillis = -1;
+        private int sequence;
+
+        private WorkerState(int workerId) {
+            this.workerId = workerId;
+            this.random = new SplittableRandom(mix(seed + workerId * GOLDEN_GAMMA));
+        }
+
+        private String nextId() {
+            long now = System.currentTimeMillis();
+            if (now < lastMillis) {
+                // Clock moved backwards; keep IDs monotonic by staying on the last timestamp
+                now = lastMillis;
+            }
+            if (now == lastMillis) {
+                sequence++;
+                if (sequence >= SEQUENCE_LIMIT) {
+                    // Sequence exhausted for this millisecond, move to the next one
+                    now = ++lastMillis;
+                    sequence = 0;
+                }
+            } else {
+                lastMillis = now;
+                sequence = 0;
+            }
+            return base36(now, MILLIS_DIGITS)
+                    + base36(nodeId, NODE_DIGITS)
+                    + base36(sequence, SEQUENCE_DIGITS)
+                    + Integer.toString(workerId, 36);
+        }
+    }
+
+    /**
+     * Get next unique ID (unique across threads, and across JVMs with distinct node IDs)
+     */
+    public static String nextId() {
+        return workerState.get().nextId();
+    }
+
+    /**
+     * Generate unique username
+     */
+    public static String uniqueUsername() {
+        return "user_" + nextId();
+    }
+
+    /**
+     * Generate unique password
+     */
+    public static String uniquePassword() {
+        return "pass_" + nextId() + "_" + Integer.toString(random().nextInt(1 << 20), 36);
+    }
+
+    /**
+     * Generate unique email
+     */
+    public static String uniqueEmail() {
+        return "test_" + nextId() + "@test.com";
+    }
+
+    /**
+     * Generate random phone number
+     */
+    public static String randomPhoneNumber() {
+        SplittableRandom random = random();
+        StringBuilder phone = new StringBuilder("+1");
+        for (int i = 0; i < 10; i++) {
+            phone.append(random.nextInt(10));
+        }
+        return phone.toString();
+    }
+
+    /**
+     * Get random int in [0, bound) from the current thread's stream
+     */
+    public static int nextInt(int bound) {
+        return random().nextInt(bound);
+    }
+
+    /**
+     * Get current thread's random stream
+     */
+    public static SplittableRandom random() {
+        return workerState.get().random;
+    }
+
+    /**
+     * Reseed current thread's random stream from the run seed and a test identifier,
+     * so a test's random data is reproducible regardless of which worker runs it
+     */
+    public static void reseedForTest(String testId) {
+        workerState.get().random = new SplittableRandom(mix(seed ^ mix(testId.hashCode())));
+    }
+
+    public static long getSeed() {
+        return seed;
+    }
+
+    public static long getNodeId() {
+        return nodeId;
+    }
+
+    private static long resolveNodeId() {
+        String configured = ConfigReader.getProperty("data.node.id", "");
+        if (!configured.isEmpty()) {
+            return Long.parseLong(configured) & 0xFFFFF;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "localhost";
+        }
+        // RuntimeMXBean name is "pid@host", unique per running JVM on a host
+        return (host + "/" + ManagementFactory.getRuntimeMXBean().getName()).hashCode() & 0xFFFFF;
+    }
+
+    private static long resolveSeed() {
+        String configured = ConfigReader.getProperty("data.seed", "");
+        long resolved = configured.isEmpty() ? new SecureRandom().nextLong() : Long.parseLong(configured);
+        logger.info("Test data seed: {} (node {}), rerun with -Ddata.seed={} to reproduce", resolved, nodeId, resolved);
+        return resolved;
+    }
+
+    private static String base36(long value, int digits) {
+        StringBuilder text = new StringBuilder(Long.toString(value, 36));
+        while (text.length() < digits) {
+            text.insert(0, '0');
+        }
+        return text.toString();
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,55 @@
+package data;
+
+import java.util.Objects;
+
+/**
+ * Immutable user credentials bound from test data
+ */
+public final class UserCredentials {
+    public static final UserCredentials EMPTY = new UserCredentials("", "");
+
+    private final String username;
+    private final String password;
+
+    public UserCredentials(String username, String password) {
+        this.username = Objects.requireNonNull(username, "username");
+        this.password = Objects.requireNonNull(password, "password");
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Get credentials as {username, password} array (legacy helper format)
+     */
+    public String[] toArray() {
+        return new String[]{username, password};
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserCredentials)) {
+            return false;
+        }
+        UserCredentials that = (UserCredentials) o;
+        return username.equals(that.username) && password.equals(that.password);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(username, password);
+    }
+
+    @Override
+    public String toString() {
+        return "UserCredentials{username='" + username + "'}";
+    }
+}
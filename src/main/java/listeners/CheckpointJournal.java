@@ -0,0 +1,348 @@
+package listeners;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import data.AccountPool;
+import data.CatalogCache;
+import data.UserCredentials;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IDataProviderInterceptor;
+import org.testng.IDataProviderMethod;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import utils.ConfigReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Opt-in checkpoint journal for long suites (checkpoint.enabled): every completed test invocation is appended to
+ * checkpoint.journal.file as one JSON line and synced to disk before the next one is recorded, followed by a
+ * snapshot of the shared fixtures (CatalogCache, AccountPool) whenever they changed.
+ *
+ * With checkpoint.resume=true an interrupted run continues where it stopped: invocations the journal records
+ * as passed in the same &lt;test&gt; are left out (data-driven ones row by row), the last fixtures snapshot is
+ * restored and new entries are appended to the same journal. Failed and skipped invocations run again, and so
+ * do passed dependsOnMethods prerequisites of what remains. A torn last line from a killed run is ignored.
+ * Without resume the journal is started over. The fixtures snapshot holds the pooled accounts' passwords, so the
+ * journal is readable by its owner only (where the file system has POSIX permissions).
+ */
+public class CheckpointJournal implements IMethodInterceptor, IDataProviderInterceptor, ITestListener, ISuiteListener {
+    private static final Logger logger = LogManager.getLogger(CheckpointJournal.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("checkpoint.enabled", "false"));
+    private final boolean resume = Boolean.parseBoolean(ConfigReader.getProperty("checkpoint.resume", "false"));
+    private final Map<String, Set<String>> completed = new HashMap<>();
+    private FileChannel channel;
+    private String lastFixtures;
+    private int skippedInvocations;
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!enabled) {
+            return;
+        }
+        Path file = getJournalFile();
+        boolean resuming = resume && Files.isRegularFile(file) && readJournal(file);
+        if (resume && !resuming) {
+            logger.warn("Resume requested but no usable checkpoint journal at {}; running everything", file);
+        }
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            channel = resuming
+                    ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)
+                    : FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING);
+            restrictToOwner(file);
+        } catch (IOException e) {
+            logger.error("Failed to open checkpoint journal {}, running without checkpoints", file, e);
+            return;
+        }
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("type", resuming ? "resume" : "run");
+        entry.put("suite", suite.getName());
+        entry.put("startMillis", System.currentTimeMillis());
+        append(entry);
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        Set<String> done = completed.get(context.getName());
+        if (done == null || done.isEmpty()) {
+            return methods;
+        }
+        // Data-driven methods are kept here and filtered per row once their parameters are known
+        Set<String> wanted = new HashSet<>();
+        for (IMethodInstance method : methods) {
+            ITestNGMethod testMethod = method.getMethod();
+            if (testMethod.isDataDriven() || !done.contains(InvocationKey.of(testMethod.getQualifiedName(), null))) {
+                wanted.add(testMethod.getQualifiedName());
+            }
+        }
+        Set<String> keep = ScheduledUnit.withPrerequisites(methods, wanted);
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            if (keep.contains(method.getMethod().getQualifiedName())) {
+                selected.add(method);
+            }
+        }
+        logger.info("Resuming '{}': {} of {} methods left ({} passed prerequisites run again)",
+                context.getName(), selected.size(), methods.size(), selected.size() - wanted.size());
+        return selected;
+    }
+
+    @Override
+    public Iterator<Object[]> intercept(Iterator<Object[]> original, IDataProviderMethod dataProviderMethod,
+                                        ITestNGMethod method, ITestContext context) {
+        Set<String> done = completed.get(context.getName());
+        if (done == null || done.isEmpty()) {
+            return original;
+        }
+        // Rows are filtered as TestNG pulls them, so streamed data providers stay streamed
+        return new Iterator<Object[]>() {
+            private Object[] next;
+            private int total;
+            private int skipped;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && original.hasNext()) {
+                    Object[] parameters = original.next();
+                    total++;
+                    if (done.contains(InvocationKey.of(method.getQualifiedName(), parameters))) {
+                        skipped++;
+                    } else {
+                        next = parameters;
+                    }
+                }
+                if (next == null && skipped > 0) {
+                    onRowsSkipped(method, skipped, total);
+                    skipped = 0;
+                }
+                return next != null;
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Object[] parameters = next;
+                next = null;
+                return parameters;
+            }
+        };
+    }
+
+    private synchronized void onRowsSkipped(ITestNGMethod method, int skipped, int total) {
+        skippedInvocations += skipped;
+        logger.info("Resuming {}: {} of {} data rows left", method.getQualifiedName(), total - skipped, total);
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result, "passed");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result, "failed");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        record(result, "skipped");
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        record(result, "passed");
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (channel == null) {
+            return;
+        }
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("type", "finish");
+        entry.put("stopMillis", System.currentTimeMillis());
+        append(entry);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close checkpoint journal", e);
+        }
+        channel = null;
+        if (skippedInvocations > 0) {
+            logger.info("Resumed run skipped {} data rows already passed", skippedInvocations);
+        }
+    }
+
+    private void record(ITestResult result, String status) {
+        if (channel == null) {
+            return;
+        }
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("type", "test");
+        entry.put("test", result.getTestContext().getName());
+        entry.put("key", InvocationKey.of(result.getMethod().getQualifiedName(), result.getParameters()));
+        entry.put("status", status);
+        entry.put("startMillis", result.getStartMillis());
+        entry.put("stopMillis", result.getEndMillis());
+        synchronized (this) {
+            append(entry);
+            ObjectNode fixtures = snapshotFixtures();
+            String serialized = fixtures.toString();
+            if (!serialized.equals(lastFixtures)) {
+                append(fixtures);
+                lastFixtures = serialized;
+            }
+        }
+    }
+
+    /**
+     * Append one line and force it to disk, so a killed run loses at most the entry being written
+     */
+    private synchronized void append(ObjectNode entry) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            ByteBuffer line = ByteBuffer.wrap((objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            logger.error("Failed to write checkpoint journal, no further checkpoints are recorded", e);
+            try {
+                channel.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            channel = null;
+        }
+    }
+
+    private static void restrictToOwner(Path file) {
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException | IOException e) {
+            logger.debug("Could not restrict checkpoint journal {} to its owner: {}", file, e.getMessage());
+        }
+    }
+
+    private static ObjectNode snapshotFixtures() {
+        ObjectNode fixtures = objectMapper.createObjectNode();
+        fixtures.put("type", "fixtures");
+        fixtures.putPOJO("productTitles", CatalogCache.getAllProductTitles());
+        fixtures.putPOJO("workingProducts", CatalogCache.getAllWorkingProducts());
+        ArrayNode accounts = fixtures.putArray("accounts");
+        for (UserCredentials account : AccountPool.getAccounts()) {
+            accounts.addObject()
+                    .put("username", account.getUsername())
+                    .put("password", account.getPassword());
+        }
+        return fixtures;
+    }
+
+    /**
+     * Load passed invocations and the last fixtures snapshot; the latest entry of an invocation wins
+     */
+    private boolean readJournal(Path file) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("Unreadable checkpoint journal {}", file, e);
+            return false;
+        }
+        JsonNode fixtures = null;
+        boolean finished = false;
+        int entries = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).isBlank()) {
+                continue;
+            }
+            JsonNode entry;
+            try {
+                entry = objectMapper.readTree(lines.get(i));
+            } catch (JsonProcessingException e) {
+                if (i < lines.size() - 1) {
+                    logger.warn("Skipping corrupt line {} of checkpoint journal {}", i + 1, file);
+                }
+                continue;
+            }
+            String type = entry.path("type").asText();
+            if ("test".equals(type)) {
+                Set<String> done = completed.computeIfAbsent(entry.path("test").asText(), test -> new HashSet<>());
+                if ("passed".equals(entry.path("status").asText())) {
+                    done.add(entry.path("key").asText());
+                } else {
+                    done.remove(entry.path("key").asText());
+                }
+                entries++;
+            } else if ("fixtures".equals(type)) {
+                fixtures = entry;
+            }
+            finished = "finish".equals(type);
+        }
+        if (entries == 0) {
+            return false;
+        }
+        if (fixtures != null) {
+            restoreFixtures(fixtures);
+            lastFixtures = fixtures.toString();
+        }
+        long passed = completed.values().stream().mapToInt(Set::size).sum();
+        logger.info("Resuming from checkpoint journal {}: {} invocations passed{}", file, passed,
+                finished ? " (the previous run had finished)" : "");
+        return true;
+    }
+
+    private static void restoreFixtures(JsonNode fixtures) {
+        fixtures.path("productTitles").fields().forEachRemaining(field -> {
+            List<String> titles = new ArrayList<>();
+            field.getValue().forEach(title -> titles.add(title.asText()));
+            CatalogCache.putProductTitles(field.getKey(), titles);
+        });
+        fixtures.path("workingProducts").fields().forEachRemaining(field ->
+                CatalogCache.putWorkingProduct(field.getKey(), field.getValue().asText()));
+        fixtures.path("accounts").forEach(account ->
+                AccountPool.add(new UserCredentials(account.path("username").asText(), account.path("password").asText())));
+        logger.info("Restored fixtures: {} catalog categories, {} pooled accounts",
+                fixtures.path("productTitles").size(), fixtures.path("accounts").size());
+    }
+
+    private static Path getJournalFile() {
+        return Paths.get(ConfigReader.getProperty("checkpoint.journal.file", "test-output/checkpoint/journal.ndjson"));
+    }
+}
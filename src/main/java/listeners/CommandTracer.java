@@ -0,0 +1,234 @@
+package listeners;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import utils.CommandTiming;
+import utils.ConfigReader;
+import utils.DriverManager;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traces every WebDriver command of a test (trace.enabled) as a span with its start, duration, thread and
+ * locator, next to spans for the test's setup, body and teardown, and writes one file per test invocation to
+ * trace.directory in Chrome trace-event format (open it in chrome://tracing or ui.perfetto.dev).
+ *
+ * Element commands carry the locator the element was found with; executeScript and get carry the script
+ * (shortened) and URL. Commands that throw (e.g. findElement hitting the implicit wait) are marked with the error.
+ */
+public class CommandTracer implements ISuiteListener, IInvokedMethodListener, CommandTiming.CommandListener {
+    private static final Logger logger = LogManager.getLogger(CommandTracer.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int MAX_ARGUMENT_LENGTH = 120;
+
+    private final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("trace.enabled", "false"));
+    private final Map<Thread, Trace> traces = new ConcurrentHashMap<>();
+    private final Map<WebElement, String> elementLocators = Collections.synchronizedMap(new WeakHashMap<>());
+    // Trace timestamps are epoch microseconds taken from the monotonic clock
+    private final long epochOffsetMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis())
+            - TimeUnit.NANOSECONDS.toMicros(System.nanoTime());
+
+    /**
+     * Spans recorded on one thread for the test invocation it is running
+     */
+    private static final class Trace {
+        private final String threadName = Thread.currentThread().getName();
+        private final long threadId = Thread.currentThread().getId();
+        private final List<ObjectNode> events = new ArrayList<>();
+        private String testKey;
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (enabled) {
+            DriverManager.registerCommandListener(this);
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!enabled) {
+            return;
+        }
+        DriverManager.unregisterCommandListener(this);
+        // Teardown spans of each thread's last test
+        traces.values().forEach(this::write);
+        traces.clear();
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!enabled) {
+            return;
+        }
+        ITestNGMethod testMethod = method.getTestMethod();
+        if (!method.isTestMethod() && !testMethod.isBeforeMethodConfiguration()) {
+            return;
+        }
+        // Setup of the next test, or a test without setup, closes the trace of the thread's previous test
+        Trace trace = traces.get(Thread.currentThread());
+        if (trace != null && trace.testKey != null) {
+            write(trace);
+            traces.remove(Thread.currentThread());
+        }
+        trace = traces.computeIfAbsent(Thread.currentThread(), thread -> new Trace());
+        if (method.isTestMethod()) {
+            trace.testKey = InvocationKey.of(testMethod.getQualifiedName(), testResult.getParameters());
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        Trace trace = enabled ? traces.get(Thread.currentThread()) : null;
+        if (trace == null) {
+            return;
+        }
+        long start = TimeUnit.MILLISECONDS.toMicros(testResult.getStartMillis());
+        long end = TimeUnit.MILLISECONDS.toMicros(testResult.getEndMillis());
+        ObjectNode event = span(trace, method.getTestMethod().getMethodName(), "testng", start, Math.max(0, end - start));
+        event.putObject("args").put("status", statusOf(testResult));
+    }
+
+    @Override
+    public void onCommandEnd(Object target, Method method, Object[] args, Object result, Throwable error,
+                             long startNanos, long nanos) {
+        ObjectNode event = record(target, method, args, startNanos, nanos);
+        if (event == null) {
+            return;
+        }
+        if (error != null) {
+            ((ObjectNode) event.get("args")).put("error", error.getClass().getSimpleName());
+            return;
+        }
+        if (args == null || args.length == 0 || !(args[0] instanceof By)) {
+            return;
+        }
+        if (result instanceof List) {
+            for (Object element : (List<?>) result) {
+                rememberLocator(element, (By) args[0]);
+            }
+            ((ObjectNode) event.get("args")).put("found", ((List<?>) result).size());
+        } else {
+            rememberLocator(result, (By) args[0]);
+        }
+    }
+
+    /**
+     * Span of a command that just returned on this thread; null when the thread is not traced
+     */
+    private ObjectNode record(Object target, Method method, Object[] args, long startNanos, long nanos) {
+        Trace trace = traces.get(Thread.currentThread());
+        if (trace == null) {
+            return null;
+        }
+        ObjectNode event = span(trace, method.getName(), "webdriver",
+                epochOffsetMicros + TimeUnit.NANOSECONDS.toMicros(startNanos), TimeUnit.NANOSECONDS.toMicros(nanos));
+        ObjectNode eventArgs = event.putObject("args");
+        String locator = args != null && args.length > 0 && args[0] instanceof By ? args[0].toString() : null;
+        if (target instanceof WebElement) {
+            String elementLocator = elementLocators.get(target);
+            if (elementLocator != null) {
+                eventArgs.put(locator != null ? "parent" : "locator", elementLocator);
+            }
+        }
+        if (locator != null) {
+            eventArgs.put("locator", locator);
+        } else if (("executeScript".equals(method.getName()) || "get".equals(method.getName()))
+                && args != null && args.length > 0 && args[0] instanceof String) {
+            eventArgs.put("executeScript".equals(method.getName()) ? "script" : "url", shorten((String) args[0]));
+        }
+        return event;
+    }
+
+    /**
+     * Remember how an element was found; later calls on it are reported on the undecorated element
+     */
+    private void rememberLocator(Object element, By locator) {
+        Object original = element instanceof Decorated ? ((Decorated<?>) element).getOriginal() : element;
+        if (original instanceof WebElement) {
+            elementLocators.put((WebElement) original, locator.toString());
+        }
+    }
+
+    private static ObjectNode span(Trace trace, String name, String category, long startMicros, long durationMicros) {
+        ObjectNode event = objectMapper.createObjectNode();
+        event.put("name", name);
+        event.put("cat", category);
+        event.put("ph", "X");
+        event.put("ts", startMicros);
+        event.put("dur", durationMicros);
+        event.put("pid", 1);
+        event.put("tid", trace.threadId);
+        synchronized (trace) {
+            trace.events.add(event);
+        }
+        return event;
+    }
+
+    private void write(Trace trace) {
+        if (trace.testKey == null) {
+            return;
+        }
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("displayTimeUnit", "ms");
+        ArrayNode events = root.putArray("traceEvents");
+        events.addObject()
+                .put("name", "thread_name")
+                .put("ph", "M")
+                .put("pid", 1)
+                .put("tid", trace.threadId)
+                .putObject("args").put("name", trace.threadName);
+        synchronized (trace) {
+            events.addAll(trace.events);
+        }
+
+        Path directory = Paths.get(ConfigReader.getProperty("trace.directory", "test-output/traces"));
+        Path file = directory.resolve(trace.testKey.replace('#', '-') + ".json");
+        try {
+            Files.createDirectories(directory);
+            objectMapper.writeValue(file.toFile(), root);
+            logger.debug("Trace of {} with {} spans written to {}", trace.testKey, trace.events.size(), file);
+        } catch (IOException e) {
+            logger.warn("Failed to write trace of {} to {}", trace.testKey, file, e);
+        }
+    }
+
+    private static String statusOf(ITestResult result) {
+        switch (result.getStatus()) {
+            case ITestResult.SUCCESS:
+                return "passed";
+            case ITestResult.FAILURE:
+                return "failed";
+            case ITestResult.SKIP:
+                return "skipped";
+            default:
+                return "unknown";
+        }
+    }
+
+    private static String shorten(String value) {
+        return value.length() <= MAX_ARGUMENT_LENGTH ? value : value.substring(0, MAX_ARGUMENT_LENGTH) + "...";
+    }
+}
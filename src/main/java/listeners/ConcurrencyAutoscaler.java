@@ -0,0 +1,248 @@
+package listeners;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import utils.CommandTiming;
+import utils.ConfigReader;
+import utils.DriverManager;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sizes the number of concurrent browser sessions from the host, then keeps adjusting it while the suite runs.
+ *
+ * At start the limit is the smallest of the session budget, the cores available (autoscaler.cores.per.session)
+ * and the sessions that fit in available memory (autoscaler.session.memory.mb, kept above autoscaler.memory.reserve.mb).
+ * Available memory is MemAvailable on Linux, which counts reclaimable page cache, else the free physical memory.
+ * Every autoscaler.interval.seconds it samples system CPU load, available memory, per-session memory and the median
+ * WebDriver command latency: it backs off by a quarter when CPU, memory or latency saturate, and adds one
+ * session when the host has headroom and tests are queueing for one. Decisions go to reports.directory/autoscaler.json.
+ */
+public class ConcurrencyAutoscaler implements ISuiteListener, CommandTiming.CommandListener {
+    private static final Logger logger = LogManager.getLogger(ConcurrencyAutoscaler.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final long MB = 1024 * 1024;
+    private static final int MAX_SAMPLES_PER_WINDOW = 10_000;
+    private static final int MIN_SAMPLES_FOR_BASELINE = 20;
+    private static final Path MEMINFO = Paths.get("/proc/meminfo");
+
+    private final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private final Queue<Long> latencySamples = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger sampleCount = new AtomicInteger();
+    private final ObjectNode report = objectMapper.createObjectNode();
+    private ArrayNode decisions;
+
+    private ScheduledExecutorService sampler;
+    private int budget;
+    private long usedMemoryAtStart;
+    private long sessionMemory;
+    private long baselineLatencyNanos = -1;
+
+    @Override
+    public void onStart(ISuite suite) {
+        budget = DriverManager.getSessionBudget();
+        if (!Boolean.parseBoolean(ConfigReader.getProperty("autoscaler.enabled", "true")) || budget <= 1) {
+            return;
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        long availableMemory = availableMemory();
+        usedMemoryAtStart = totalMemory() - availableMemory;
+        sessionMemory = Long.parseLong(ConfigReader.getProperty("autoscaler.session.memory.mb", "400")) * MB;
+        double coresPerSession = Double.parseDouble(ConfigReader.getProperty("autoscaler.cores.per.session", "1.0"));
+
+        int byCpu = (int) Math.max(1, Math.floor(cores / coresPerSession));
+        int byMemory = (int) Math.max(1, (availableMemory - reserveMemory()) / sessionMemory);
+        int limit = Math.max(1, Math.min(budget, Math.min(byCpu, byMemory)));
+        DriverManager.setSessionLimit(limit);
+
+        report.put("suite", suite.getName());
+        report.putObject("startup")
+                .put("cores", cores)
+                .put("availableMemoryMb", availableMemory / MB)
+                .put("sessionMemoryMb", sessionMemory / MB)
+                .put("sessionBudget", budget)
+                .put("limitByCpu", byCpu)
+                .put("limitByMemory", byMemory)
+                .put("initialLimit", limit);
+        decisions = report.putArray("decisions");
+        logger.info("Autoscaler: {} cores, {} MB available, {} MB per session -> starting with {} of {} sessions",
+                cores, availableMemory / MB, sessionMemory / MB, limit, budget);
+
+        DriverManager.registerCommandListener(this);
+        long interval = Long.parseLong(ConfigReader.getProperty("autoscaler.interval.seconds", "10"));
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "concurrency-autoscaler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::adjust, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (sampler == null) {
+            return;
+        }
+        sampler.shutdownNow();
+        sampler = null;
+        DriverManager.unregisterCommandListener(this);
+        synchronized (report) {
+            report.put("finalLimit", DriverManager.getSessionLimit());
+            report.put("sessionMemoryMb", sessionMemory / MB);
+            report.put("baselineLatencyMs", baselineLatencyNanos < 0 ? -1 : baselineLatencyNanos / 1e6);
+            writeReport();
+        }
+    }
+
+    @Override
+    public void onCommandEnd(Object target, Method method, Object[] args, Object result, Throwable error,
+                             long startNanos, long nanos) {
+        if (error == null && sampleCount.incrementAndGet() <= MAX_SAMPLES_PER_WINDOW) {
+            latencySamples.add(nanos);
+        }
+    }
+
+    /**
+     * One control step: sample the host and move the session limit
+     */
+    private void adjust() {
+        try {
+            int active = DriverManager.getActiveSessionCount();
+            int waiting = DriverManager.getWaitingSessionCount();
+            int limit = DriverManager.getSessionLimit();
+            double cpu = systemCpuLoad();
+            long availableMemory = availableMemory();
+            long medianLatency = drainMedianLatency();
+
+            // Memory held by browsers now, spread over the live sessions
+            if (active > 0) {
+                long used = totalMemory() - availableMemory;
+                long perSession = Math.max(50 * MB, (used - usedMemoryAtStart) / active);
+                sessionMemory = (sessionMemory * 3 + perSession) / 4;
+            }
+            int fitInMemory = active + (int) Math.max(0, (availableMemory - reserveMemory()) / sessionMemory);
+
+            double cpuHigh = Double.parseDouble(ConfigReader.getProperty("autoscaler.cpu.high", "0.90"));
+            double cpuLow = Double.parseDouble(ConfigReader.getProperty("autoscaler.cpu.low", "0.70"));
+            double latencyFactor = Double.parseDouble(ConfigReader.getProperty("autoscaler.latency.factor", "2.0"));
+            boolean latencyHigh = baselineLatencyNanos > 0 && medianLatency > baselineLatencyNanos * latencyFactor;
+            boolean latencyOk = medianLatency < 0 || baselineLatencyNanos <= 0
+                    || medianLatency < baselineLatencyNanos * (1 + latencyFactor) / 2;
+
+            int newLimit = limit;
+            String reason = "hold";
+            if (cpu >= cpuHigh || latencyHigh || fitInMemory < limit) {
+                newLimit = Math.max(1, Math.min(limit - Math.max(1, limit / 4), Math.max(1, fitInMemory)));
+                reason = cpu >= cpuHigh ? "cpu saturated" : latencyHigh ? "command latency degraded" : "memory low";
+            } else if (cpu >= 0 && cpu < cpuLow && latencyOk && waiting > 0 && limit < budget && fitInMemory > limit) {
+                newLimit = limit + 1;
+                reason = "headroom with " + waiting + " test(s) waiting";
+            }
+
+            if (newLimit != limit) {
+                DriverManager.setSessionLimit(newLimit);
+                logger.info("Autoscaler: session limit {} -> {} ({}; cpu {}%, median command {} ms, {} MB available)",
+                        limit, newLimit, reason, Math.round(cpu * 100), medianLatency / 1_000_000, availableMemory / MB);
+            }
+            synchronized (report) {
+                decisions.addObject()
+                        .put("timeMillis", System.currentTimeMillis())
+                        .put("cpuLoad", Math.round(cpu * 1000) / 1000.0)
+                        .put("availableMemoryMb", availableMemory / MB)
+                        .put("sessionMemoryMb", sessionMemory / MB)
+                        .put("medianCommandMs", medianLatency < 0 ? -1 : medianLatency / 1e6)
+                        .put("activeSessions", active)
+                        .put("waitingTests", waiting)
+                        .put("limitBefore", limit)
+                        .put("limitAfter", newLimit)
+                        .put("reason", reason);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Autoscaler step failed", e);
+        }
+    }
+
+    /**
+     * Memory available for new sessions: MemAvailable from /proc/meminfo, else free physical memory
+     */
+    @SuppressWarnings("deprecation") // getFreeMemorySize() replaces it from JDK 14; the project targets 11
+    private long availableMemory() {
+        try {
+            for (String line : Files.readAllLines(MEMINFO)) {
+                if (line.startsWith("MemAvailable:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not Linux, or a kernel without MemAvailable
+        }
+        return os.getFreePhysicalMemorySize();
+    }
+
+    @SuppressWarnings("deprecation") // getTotalMemorySize() replaces it from JDK 14; the project targets 11
+    private long totalMemory() {
+        return os.getTotalPhysicalMemorySize();
+    }
+
+    @SuppressWarnings("deprecation") // getCpuLoad() replaces it from JDK 14; the project targets 11
+    private double systemCpuLoad() {
+        return os.getSystemCpuLoad();
+    }
+
+    /**
+     * Median latency of the commands since the last step (-1 if none), updating the uncontended baseline
+     */
+    private long drainMedianLatency() {
+        List<Long> window = new ArrayList<>();
+        Long sample;
+        while ((sample = latencySamples.poll()) != null) {
+            window.add(sample);
+        }
+        sampleCount.set(0);
+        if (window.isEmpty()) {
+            return -1;
+        }
+        Collections.sort(window);
+        long median = window.get(window.size() / 2);
+        if (window.size() >= MIN_SAMPLES_FOR_BASELINE && (baselineLatencyNanos < 0 || median < baselineLatencyNanos)) {
+            baselineLatencyNanos = median;
+        }
+        return median;
+    }
+
+    private static long reserveMemory() {
+        return Long.parseLong(ConfigReader.getProperty("autoscaler.memory.reserve.mb", "1024")) * MB;
+    }
+
+    private void writeReport() {
+        Path directory = Paths.get(ConfigReader.getReportsDirectory());
+        Path file = directory.resolve("autoscaler.json");
+        try {
+            Files.createDirectories(directory);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+            logger.info("Autoscaler decisions written to {}", file);
+        } catch (IOException e) {
+            logger.warn("Failed to write autoscaler report to {}", file, e);
+        }
+    }
+}
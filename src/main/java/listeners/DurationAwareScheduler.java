@@ -0,0 +1,49 @@
+package listeners;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import utils.ConfigReader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Orders test methods longest-first using their historical durations, so long tests start early
+ * instead of defining the wall-clock time of a parallel run.
+ *
+ * Methods linked by dependencies are kept together as one unit and ordered by the unit's total duration;
+ * TestNG still runs them in dependency order. Only parallel tests are reordered, through the returned list;
+ * declared priorities are left alone and serial runs keep their order. Disable with scheduler.enabled=false.
+ */
+public class DurationAwareScheduler implements IMethodInterceptor {
+    private static final Logger logger = LogManager.getLogger(DurationAwareScheduler.class);
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!Boolean.parseBoolean(ConfigReader.getProperty("scheduler.enabled", "true")) || methods.size() < 2
+                || !context.getCurrentXmlTest().getParallel().isParallel()) {
+            return methods;
+        }
+
+        long defaultMillis = Long.parseLong(ConfigReader.getProperty("scheduler.default.duration.ms", "30000"));
+        List<ScheduledUnit> units = ScheduledUnit.group(methods, defaultMillis);
+        List<ScheduledUnit> ordered = new ArrayList<>(units);
+        // Stable sort: units with equal estimates (e.g. no history at all) keep their declared order
+        ordered.sort(Comparator.comparingLong(ScheduledUnit::getExpectedMillis).reversed());
+
+        List<IMethodInstance> scheduled = new ArrayList<>(methods.size());
+        for (ScheduledUnit unit : ordered) {
+            scheduled.addAll(unit.getMethods());
+        }
+
+        int workers = context.getCurrentXmlTest().getThreadCount();
+        logger.info("Scheduled {} methods in {} units longest-first for '{}': predicted {} ms on {} worker(s) "
+                        + "(declared order: {} ms)", scheduled.size(), units.size(), context.getName(),
+                ScheduledUnit.predictMakespan(ordered, workers), workers,
+                ScheduledUnit.predictMakespan(units, workers));
+        return scheduled;
+    }
+}
@@ -0,0 +1,25 @@
+package listeners;
+
+import utils.ConfigReader;
+import utils.HarReplayServer;
+import utils.LocalServer;
+import java.nio.file.Paths;
+
+/**
+ * Runs the suite against recorded traffic (har.replay.enabled): serves the HARs in har.replay.source on
+ * har.replay.port for the duration of the suite. base.url and api.url must point at the server, which the
+ * replay environment does (-Denvironment=replay, see config-replay.properties).
+ */
+public class HarReplay extends LocalServerListener {
+
+    public HarReplay() {
+        super("har.replay.enabled", "har.replay.port", "8090");
+    }
+
+    @Override
+    protected LocalServer createServer() {
+        return new HarReplayServer(Paths.get(ConfigReader.getProperty("har.replay.source",
+                ConfigReader.getProperty("har.directory", "test-output/har"))),
+                ConfigReader.getProperty("har.replay.origin", "https://www.demoblaze.com"));
+    }
+}
@@ -0,0 +1,102 @@
+package listeners;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import utils.ConfigReader;
+import utils.TestImpactAnalyzer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs only the tests affected by the changes since impact.base (e.g. -Dimpact.base=origin/main in pull-request
+ * builds), as found by {@link TestImpactAnalyzer}, plus their dependsOnMethods prerequisites. Without impact.base,
+ * or when the analysis fails or cannot map a change, every test runs. The analysis is written to
+ * reports.directory/impact.json.
+ */
+public class ImpactSelector implements IMethodInterceptor {
+    private static final Logger logger = LogManager.getLogger(ImpactSelector.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String base = ConfigReader.getProperty("impact.base", "").trim();
+    private TestImpactAnalyzer.Impact impact;
+    private boolean analyzed;
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (base.isEmpty()) {
+            return methods;
+        }
+        TestImpactAnalyzer.Impact result = getImpact();
+        if (result == null || result.isRunAll()) {
+            return methods;
+        }
+
+        Set<String> affected = new HashSet<>();
+        for (IMethodInstance method : methods) {
+            if (result.getAffectedTests().contains(method.getMethod().getQualifiedName())) {
+                affected.add(method.getMethod().getQualifiedName());
+            }
+        }
+        Set<String> keep = ScheduledUnit.withPrerequisites(methods, affected);
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            if (keep.contains(method.getMethod().getQualifiedName())) {
+                selected.add(method);
+            }
+        }
+        logger.info("Impact of changes since {} on '{}': running {} of {} methods ({} affected, rest are prerequisites)",
+                base, context.getName(), selected.size(), methods.size(), affected.size());
+        return selected;
+    }
+
+    private synchronized TestImpactAnalyzer.Impact getImpact() {
+        if (analyzed) {
+            return impact;
+        }
+        analyzed = true;
+        long start = System.currentTimeMillis();
+        try {
+            impact = TestImpactAnalyzer.fromConfiguration().analyze(base);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Impact analysis against {} failed, running every test", base, e);
+            return null;
+        }
+        long millis = System.currentTimeMillis() - start;
+        if (impact.isRunAll()) {
+            logger.info("Impact analysis against {} selects the whole suite: {}", base, impact.getRunAllReasons());
+        }
+        writeReport(millis);
+        return impact;
+    }
+
+    private void writeReport(long millis) {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("base", base);
+        report.put("analysisMillis", millis);
+        report.put("runAll", impact.isRunAll());
+        report.putPOJO("runAllReasons", impact.getRunAllReasons());
+        report.putPOJO("changedFiles", impact.getChangedFiles());
+        report.putPOJO("changedMembers", impact.getChangedMembers());
+        report.putPOJO("affectedTests", impact.getAffectedTests());
+
+        Path directory = Paths.get(ConfigReader.getReportsDirectory());
+        Path file = directory.resolve("impact.json");
+        try {
+            Files.createDirectories(directory);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        } catch (IOException e) {
+            logger.warn("Failed to write impact report to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package listeners;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Identifies one invocation of a test method across runs: the qualified method name, plus a SHA-256 of the
+ * parameters for data-driven invocations (e.g. "tests.CheckoutTests.testCheckoutForCustomerProfile#1f3a9c0d52b7e4a8").
+ * Parameters are hashed by all their properties, not by toString, which may leave fields out (CustomerProfile
+ * omits the card).
+ */
+final class InvocationKey {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private InvocationKey() {
+    }
+
+    static String of(String qualifiedName, Object[] parameters) {
+        if (parameters == null || parameters.length == 0) {
+            return qualifiedName;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object parameter : parameters) {
+                digest.update(render(parameter).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            byte[] hash = digest.digest();
+            StringBuilder hex = new StringBuilder(qualifiedName).append('#');
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String render(Object parameter) {
+        try {
+            return objectMapper.writeValueAsString(parameter);
+        } catch (JsonProcessingException e) {
+            // Not a bean Jackson can serialize
+            return String.valueOf(parameter);
+        }
+    }
+}
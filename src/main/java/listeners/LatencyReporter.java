@@ -0,0 +1,116 @@
+package listeners;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import utils.CommandTiming;
+import utils.ConfigReader;
+import utils.DriverManager;
+import utils.LatencyHistogram;
+import utils.LatencyRecorder;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Times every WebDriver command into {@link LatencyRecorder} and exports the run's action and command latency
+ * histograms when the suite ends: reports.directory/latency.json holds every histogram (counts per bucket,
+ * in microseconds) and latency-summary.txt ranks them by total time with p50/p95/p99.
+ * Failed commands (e.g. findElement running into the implicit wait) are timed too.
+ */
+public class LatencyReporter implements ISuiteListener, CommandTiming.CommandListener {
+    private static final Logger logger = LogManager.getLogger(LatencyReporter.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int SUMMARY_LOG_LINES = 10;
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!LatencyRecorder.isEnabled()) {
+            return;
+        }
+        LatencyRecorder.clear();
+        DriverManager.registerCommandListener(this);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!LatencyRecorder.isEnabled()) {
+            return;
+        }
+        DriverManager.unregisterCommandListener(this);
+        List<LatencyRecorder.Series> series = LatencyRecorder.getSeries();
+        if (series.isEmpty()) {
+            return;
+        }
+        series.sort(Comparator.comparingLong((LatencyRecorder.Series s) -> s.getHistogram().getTotal()).reversed());
+        writeReports(suite, series);
+    }
+
+    @Override
+    public void onCommandEnd(Object target, Method method, Object[] args, Object result, Throwable error,
+                             long startNanos, long nanos) {
+        LatencyRecorder.recordCommand(method.getName(), nanos);
+    }
+
+    private void writeReports(ISuite suite, List<LatencyRecorder.Series> series) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("suite", suite.getName());
+        root.put("unit", "us");
+        ArrayNode entries = root.putArray("series");
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT,
+                "%-7s %-14s %-28s %-28s %-8s %-14s %7s %10s %9s %9s %9s %9s%n",
+                "kind", "page", "action", "name", "browser", "profile", "count", "total ms", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (LatencyRecorder.Series s : series) {
+            LatencyHistogram histogram = s.getHistogram();
+            ObjectNode entry = entries.addObject();
+            entry.put("kind", s.getKind());
+            entry.put("page", s.getPage());
+            entry.put("action", s.getAction());
+            entry.put("name", s.getName());
+            entry.put("browser", s.getBrowser());
+            entry.put("profile", s.getProfile());
+            entry.put("count", histogram.getCount());
+            entry.put("total", histogram.getTotal());
+            entry.put("min", histogram.getMin());
+            entry.put("mean", Math.round(histogram.getMean()));
+            entry.put("p50", histogram.getValueAtPercentile(50));
+            entry.put("p90", histogram.getValueAtPercentile(90));
+            entry.put("p95", histogram.getValueAtPercentile(95));
+            entry.put("p99", histogram.getValueAtPercentile(99));
+            entry.put("max", histogram.getMax());
+            ArrayNode buckets = entry.putArray("buckets");
+            histogram.forEachBucket((value, count) -> buckets.addArray().add(value).add(count));
+
+            summary.append(String.format(Locale.ROOT, "%-7s %-14s %-28s %-28s %-8s %-14s %7d %10.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    s.getKind(), s.getPage(), s.getAction(), s.getName(), s.getBrowser(), s.getProfile(), histogram.getCount(),
+                    histogram.getTotal() / 1000.0, histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(95) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMax() / 1000.0));
+        }
+
+        Path directory = Paths.get(ConfigReader.getReportsDirectory());
+        try {
+            Files.createDirectories(directory);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(directory.resolve("latency.json").toFile(), root);
+            Files.write(directory.resolve("latency-summary.txt"), summary.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.warn("Failed to write latency reports to {}", directory, e);
+            return;
+        }
+        String[] lines = summary.toString().split("\n");
+        logger.info("Latency of {} actions and commands (slowest by total time, full list in {}):\n{}", series.size(),
+                directory.resolve("latency-summary.txt"),
+                String.join("\n", Arrays.copyOf(lines, Math.min(lines.length, SUMMARY_LOG_LINES + 1))));
+    }
+}
@@ -0,0 +1,53 @@
+package listeners;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import utils.ConfigReader;
+import utils.LocalServer;
+
+/**
+ * Serves a {@link LocalServer} for the duration of the suite while its enabled key is set, on the configured port.
+ * base.url and api.url must point at it, which the matching environment does; a base.url elsewhere is logged.
+ */
+public abstract class LocalServerListener implements ISuiteListener {
+    private static final Logger logger = LogManager.getLogger(LocalServerListener.class);
+
+    private final String enabledKey;
+    private final String portKey;
+    private final String defaultPort;
+    private LocalServer server;
+
+    protected LocalServerListener(String enabledKey, String portKey, String defaultPort) {
+        this.enabledKey = enabledKey;
+        this.portKey = portKey;
+        this.defaultPort = defaultPort;
+    }
+
+    /**
+     * Create the server to run the suite against
+     */
+    protected abstract LocalServer createServer();
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!Boolean.parseBoolean(ConfigReader.getProperty(enabledKey, "false"))) {
+            return;
+        }
+        server = createServer();
+        server.start(Integer.parseInt(ConfigReader.getProperty(portKey, defaultPort)));
+        if (!server.getBaseUrl().equals(LocalServer.stripSlash(ConfigReader.getBaseUrl()))) {
+            logger.warn("{} serves {} but base.url is {}; the suite will not use it",
+                    getClass().getSimpleName(), server.getBaseUrl(), ConfigReader.getBaseUrl());
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package listeners;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import utils.ConfigReader;
+import utils.DriverManager;
+import utils.LatencyHistogram;
+import utils.LatencyRecorder;
+import utils.WaitAccounting;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional live metrics for soak and monitoring runs (metrics.enabled): an embedded HTTP endpoint on
+ * metrics.host:metrics.port (loopback by default) serving /metrics in Prometheus text format while the suite runs.
+ *
+ * Exposes finished tests by outcome, action and WebDriver command latency histograms (from LatencyRecorder),
+ * browser sessions of DriverManager (active, limit, waiting) and wait accounting totals. The endpoint
+ * stops with the suite.
+ */
+public class MetricsEndpoint implements ISuiteListener, ITestListener {
+    private static final Logger logger = LogManager.getLogger(MetricsEndpoint.class);
+    private static final String PREFIX = "demoblaze_";
+    private static final double[] LATENCY_BUCKETS_SECONDS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+
+    private final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("metrics.enabled", "false"));
+    private final Map<String, LongAdder> testsByStatus = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!enabled) {
+            return;
+        }
+        String host = ConfigReader.getProperty("metrics.host", "localhost");
+        int port = Integer.parseInt(ConfigReader.getProperty("metrics.port", "9464"));
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        } catch (IOException e) {
+            logger.error("Could not start metrics endpoint on {}:{}", host, port, e);
+            return;
+        }
+        server.createContext("/metrics", this::handle);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-endpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        logger.info("Metrics endpoint serving http://{}:{}/metrics", host, server.getAddress().getPort());
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        count("passed");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        count("failed");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        count("skipped");
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        count("passed");
+    }
+
+    private void count(String status) {
+        if (enabled) {
+            testsByStatus.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body;
+        int status = 200;
+        try {
+            body = scrape().getBytes(StandardCharsets.UTF_8);
+        } catch (RuntimeException e) {
+            logger.warn("Metrics scrape failed", e);
+            body = ("scrape failed: " + e.getMessage()).getBytes(StandardCharsets.UTF_8);
+            status = 500;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Current metrics in Prometheus text exposition format
+     */
+    String scrape() {
+        StringBuilder out = new StringBuilder();
+
+        header(out, "tests_total", "counter", "Test invocations finished, by outcome");
+        for (String status : new String[]{"passed", "failed", "skipped"}) {
+            LongAdder count = testsByStatus.get(status);
+            sample(out, "tests_total", labels("status", status), count != null ? count.sum() : 0);
+        }
+
+        header(out, "browser_sessions_active", "gauge", "Live WebDriver sessions");
+        sample(out, "browser_sessions_active", "", DriverManager.getActiveSessionCount());
+        header(out, "browser_sessions_limit", "gauge", "Limit on concurrent browser sessions");
+        sample(out, "browser_sessions_limit", "", DriverManager.getSessionLimit());
+        header(out, "browser_sessions_waiting", "gauge", "Tests waiting for a browser session");
+        sample(out, "browser_sessions_waiting", "", DriverManager.getWaitingSessionCount());
+
+        // Commands are summed over the actions they ran in to keep the label set small
+        Map<String, Map<String, String>> actionLabels = new TreeMap<>();
+        Map<String, LatencyHistogram[]> actions = new TreeMap<>();
+        Map<String, Map<String, String>> commandLabels = new TreeMap<>();
+        Map<String, LatencyHistogram[]> commands = new TreeMap<>();
+        for (LatencyRecorder.Series series : LatencyRecorder.getSeries()) {
+            boolean action = LatencyRecorder.ACTION.equals(series.getKind());
+            Map<String, String> seriesLabels = action
+                    ? labelMap("page", series.getPage(), "action", series.getName(), "browser", series.getBrowser(),
+                            "profile", series.getProfile())
+                    : labelMap("command", series.getName(), "browser", series.getBrowser(), "profile", series.getProfile());
+            String key = seriesLabels.toString();
+            (action ? actionLabels : commandLabels).put(key, seriesLabels);
+            (action ? actions : commands).merge(key, new LatencyHistogram[]{series.getHistogram()}, MetricsEndpoint::concat);
+        }
+        histograms(out, "action_duration_seconds", "Duration of page actions", actionLabels, actions);
+        histograms(out, "webdriver_command_duration_seconds", "Duration of WebDriver commands", commandLabels, commands);
+
+        long waits = 0;
+        long timeouts = 0;
+        long waitedMillis = 0;
+        long wastedMillis = 0;
+        for (WaitAccounting.Totals totals : WaitAccounting.getTests().values()) {
+            waits += totals.getWaits();
+            timeouts += totals.getTimeouts();
+            waitedMillis += totals.getWaitedMillis() + totals.getSleptMillis();
+            wastedMillis += totals.getWastedMillis();
+        }
+        header(out, "waits_total", "counter", "Explicit waits finished");
+        sample(out, "waits_total", "", waits);
+        header(out, "wait_timeouts_total", "counter", "Explicit waits that timed out");
+        sample(out, "wait_timeouts_total", "", timeouts);
+        header(out, "wait_seconds_total", "counter", "Time spent in explicit waits and sleeps");
+        sample(out, "wait_seconds_total", "", waitedMillis / 1000.0);
+        header(out, "wait_wasted_seconds_total", "counter", "Time spent in timed-out waits and sleeps");
+        sample(out, "wait_wasted_seconds_total", "", wastedMillis / 1000.0);
+        return out.toString();
+    }
+
+    private static void histograms(StringBuilder out, String name, String help,
+                                   Map<String, Map<String, String>> labels, Map<String, LatencyHistogram[]> histograms) {
+        header(out, name, "histogram", help);
+        histograms.forEach((key, parts) -> {
+            Map<String, String> seriesLabels = labels.get(key);
+            // Histograms keep recording while scraped: read each one in a single pass so the buckets, +Inf and
+            // _count come from the same counts and stay cumulative
+            long[] below = new long[LATENCY_BUCKETS_SECONDS.length];
+            long[] count = new long[1];
+            long totalMicros = 0;
+            for (LatencyHistogram part : parts) {
+                totalMicros += part.getTotal();
+                part.forEachBucket((lowestValue, bucketCount) -> {
+                    for (int i = 0; i < below.length; i++) {
+                        if (lowestValue <= (long) (LATENCY_BUCKETS_SECONDS[i] * 1_000_000)) {
+                            below[i] += bucketCount;
+                        }
+                    }
+                    count[0] += bucketCount;
+                });
+            }
+            for (int i = 0; i < below.length; i++) {
+                Map<String, String> bucketLabels = new LinkedHashMap<>(seriesLabels);
+                bucketLabels.put("le", format(LATENCY_BUCKETS_SECONDS[i]));
+                sample(out, name + "_bucket", labels(bucketLabels), below[i]);
+            }
+            Map<String, String> infLabels = new LinkedHashMap<>(seriesLabels);
+            infLabels.put("le", "+Inf");
+            sample(out, name + "_bucket", labels(infLabels), count[0]);
+            sample(out, name + "_sum", labels(seriesLabels), totalMicros / 1_000_000.0);
+            sample(out, name + "_count", labels(seriesLabels), count[0]);
+        });
+    }
+
+    private static LatencyHistogram[] concat(LatencyHistogram[] first, LatencyHistogram[] second) {
+        LatencyHistogram[] all = new LatencyHistogram[first.length + second.length];
+        System.arraycopy(first, 0, all, 0, first.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        return all;
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(PREFIX).append(name).append(labels).append(' ').append(format(value)).append('\n');
+    }
+
+    private static Map<String, String> labelMap(String... namesAndValues) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            labels.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return labels;
+    }
+
+    private static String labels(String... namesAndValues) {
+        return labels(labelMap(namesAndValues));
+    }
+
+    private static String labels(Map<String, String> labels) {
+        StringBuilder text = new StringBuilder("{");
+        labels.forEach((name, value) -> {
+            if (text.length() > 1) {
+                text.append(',');
+            }
+            text.append(name).append("=\"").append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        });
+        return text.append('}').toString();
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
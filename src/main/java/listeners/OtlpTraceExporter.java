@@ -0,0 +1,368 @@
+package listeners;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import utils.CommandTiming;
+import utils.ConfigReader;
+import utils.DriverManager;
+import utils.LatencyRecorder;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports nested spans of the run (otel.enabled) in OTLP JSON, so runs can be loaded into OpenTelemetry
+ * tooling without a collector: suite, then test (from setUp to the end of tearDown), then the page actions it
+ * calls, then the WebDriver commands they send, with attributes such as test outcome, page, browser and locator.
+ *
+ * Each finished test is appended as one ExportTraceServiceRequest line to otel.directory/traces-&lt;start&gt;.jsonl
+ * (the layout of the collector's file exporter), so every run gets its own file and memory stays bounded.
+ * The suite span is written last. Action spans require the timed action classes (latency.enabled).
+ */
+public class OtlpTraceExporter implements ISuiteListener, IInvokedMethodListener, CommandTiming.CommandListener,
+        LatencyRecorder.ActionListener {
+    private static final Logger logger = LogManager.getLogger(OtlpTraceExporter.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int KIND_INTERNAL = 1;
+    private static final int KIND_CLIENT = 3;
+    private static final int STATUS_OK = 1;
+    private static final int STATUS_ERROR = 2;
+
+    private final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("otel.enabled", "false"));
+    private final Map<Thread, Deque<Span>> openSpans = new ConcurrentHashMap<>();
+    private final long epochOffsetNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - System.nanoTime();
+    private Span suiteSpan;
+    private BufferedWriter writer;
+    private Path file;
+    private int exportedSpans;
+
+    /**
+     * One span; only touched by the thread that opened it until it ends
+     */
+    private static final class Span {
+        private final String traceId;
+        private final String spanId = randomHex(8);
+        private final String parentSpanId;
+        private final int kind;
+        private final long startNanos = System.nanoTime();
+        private final Map<String, Object> attributes = new LinkedHashMap<>();
+        private final List<Span> finishedChildren = new ArrayList<>();
+        private String name;
+        private long endNanos;
+        private int status;
+        private String statusMessage;
+
+        private Span(String name, Span parent, int kind) {
+            this.name = name;
+            this.traceId = parent != null ? parent.traceId : randomHex(16);
+            this.parentSpanId = parent != null ? parent.spanId : null;
+            this.kind = kind;
+        }
+
+        private void end(Throwable error) {
+            endNanos = System.nanoTime();
+            if (error != null) {
+                fail(error);
+            }
+        }
+
+        private void fail(Throwable error) {
+            status = STATUS_ERROR;
+            // Selenium appends build and driver details after the first line
+            String message = String.valueOf(error.getMessage()).split("\n", 2)[0];
+            statusMessage = error.getClass().getSimpleName() + ": " + message;
+        }
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!enabled) {
+            return;
+        }
+        Path directory = Paths.get(ConfigReader.getProperty("otel.directory", "test-output/otel"));
+        file = directory.resolve("traces-" + System.currentTimeMillis() + ".jsonl");
+        try {
+            Files.createDirectories(directory);
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.error("Failed to create trace file {}, spans are not exported", file, e);
+            return;
+        }
+        suiteSpan = new Span(suite.getName(), null, KIND_INTERNAL);
+        suiteSpan.attributes.put("test.suite", suite.getName());
+        suiteSpan.attributes.put("browser", ConfigReader.getBrowser());
+        suiteSpan.attributes.put("base.url", ConfigReader.getBaseUrl());
+        DriverManager.registerCommandListener(this);
+        LatencyRecorder.registerActionListener(this);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (writer == null) {
+            return;
+        }
+        DriverManager.unregisterCommandListener(this);
+        LatencyRecorder.unregisterActionListener(this);
+        // Tests whose teardown never ended (e.g. a killed worker) are exported as they are
+        for (Deque<Span> spans : openSpans.values()) {
+            Span test = spans.peekLast();
+            while (!spans.isEmpty()) {
+                closeSpan(spans, null);
+            }
+            if (test != null) {
+                export(test);
+            }
+        }
+        openSpans.clear();
+        suiteSpan.end(null);
+        export(suiteSpan);
+        try {
+            writer.close();
+            logger.info("Exported {} spans in OTLP JSON to {}", exportedSpans, file);
+        } catch (IOException e) {
+            logger.warn("Failed to close trace file {}", file, e);
+        }
+        writer = null;
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (writer == null) {
+            return;
+        }
+        ITestNGMethod testMethod = method.getTestMethod();
+        Deque<Span> spans = spansOfThread();
+        // A new test starts with its first setup method, or with the test itself when it has none
+        Span current = spans.peekLast();
+        if (current == null || (current.attributes.containsKey("test.invocation")
+                && (testMethod.isBeforeMethodConfiguration() || method.isTestMethod()))) {
+            finishTest(spans);
+            Span test = new Span(testMethod.getMethodName(), suiteSpan, KIND_INTERNAL);
+            test.attributes.put("browser", DriverManager.getCurrentBrowser());
+            spans.push(test);
+        }
+        if (method.isTestMethod()) {
+            Span test = spans.peekLast();
+            test.name = testMethod.getQualifiedName();
+            test.attributes.put("code.namespace", testMethod.getRealClass().getName());
+            test.attributes.put("code.function", testMethod.getMethodName());
+            test.attributes.put("test.invocation", InvocationKey.of(testMethod.getQualifiedName(), testResult.getParameters()));
+            test.attributes.put("throttling.profile", DriverManager.getCurrentThrottlingProfile());
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (writer == null) {
+            return;
+        }
+        Deque<Span> spans = spansOfThread();
+        Span test = spans.peekLast();
+        if (test == null) {
+            return;
+        }
+        if (method.isTestMethod()) {
+            String status = testResult.getStatus() == ITestResult.SUCCESS ? "passed"
+                    : testResult.getStatus() == ITestResult.FAILURE ? "failed" : "skipped";
+            test.attributes.put("test.status", status);
+            if (testResult.getThrowable() != null && testResult.getStatus() == ITestResult.FAILURE) {
+                test.fail(testResult.getThrowable());
+            }
+        } else if (method.getTestMethod().isAfterMethodConfiguration()) {
+            finishTest(spans);
+        }
+    }
+
+    @Override
+    public void onActionStart(String page, String action) {
+        Deque<Span> spans = writer != null ? spansOfThread() : null;
+        if (spans == null) {
+            return;
+        }
+        Span span = new Span(page + "." + action, parentOf(spans), KIND_INTERNAL);
+        span.attributes.put("page", page);
+        span.attributes.put("action", action);
+        span.attributes.put("browser", DriverManager.getCurrentBrowser());
+        spans.push(span);
+    }
+
+    @Override
+    public void onActionEnd(String page, String action, long nanos, Throwable error) {
+        Deque<Span> spans = writer != null ? openSpans.get(Thread.currentThread()) : null;
+        if (spans != null && !spans.isEmpty() && spans.peek().attributes.containsKey("action")) {
+            closeSpan(spans, error);
+        }
+    }
+
+    @Override
+    public void onCommandStart(Object target, Method method, Object[] args) {
+        if (writer == null) {
+            return;
+        }
+        Deque<Span> spans = spansOfThread();
+        Span span = new Span("WebDriver." + method.getName(), parentOf(spans), KIND_CLIENT);
+        span.attributes.put("webdriver.command", method.getName());
+        span.attributes.put("browser", DriverManager.getCurrentBrowser());
+        if (args != null && args.length > 0 && args[0] instanceof By) {
+            span.attributes.put("locator", args[0].toString());
+        }
+        spans.push(span);
+    }
+
+    @Override
+    public void onCommandEnd(Object target, Method method, Object[] args, Object result, Throwable error,
+                             long startNanos, long nanos) {
+        Deque<Span> spans = writer != null ? openSpans.get(Thread.currentThread()) : null;
+        if (spans != null && !spans.isEmpty() && spans.peek().attributes.containsKey("webdriver.command")) {
+            closeSpan(spans, error);
+        }
+    }
+
+    private Deque<Span> spansOfThread() {
+        return openSpans.computeIfAbsent(Thread.currentThread(), thread -> new ArrayDeque<>());
+    }
+
+    private Span parentOf(Deque<Span> spans) {
+        return spans.isEmpty() ? suiteSpan : spans.peek();
+    }
+
+    /**
+     * End the innermost open span; it is kept with its parent until the whole test is exported
+     */
+    private void closeSpan(Deque<Span> spans, Throwable error) {
+        Span span = spans.pop();
+        if (span.endNanos == 0) {
+            span.end(error);
+        }
+        Span parent = spans.peek();
+        if (parent != null) {
+            parent.finishedChildren.add(span);
+        }
+    }
+
+    /**
+     * End the thread's open test span and everything still open inside it, and export them
+     */
+    private void finishTest(Deque<Span> spans) {
+        Span test = spans.peekLast();
+        if (test == null) {
+            return;
+        }
+        while (!spans.isEmpty()) {
+            closeSpan(spans, null);
+        }
+        export(test);
+    }
+
+    private synchronized void export(Span root) {
+        if (writer == null) {
+            return;
+        }
+        ObjectNode request = objectMapper.createObjectNode();
+        ObjectNode resourceSpans = request.putArray("resourceSpans").addObject();
+        ArrayNode resourceAttributes = resourceSpans.putObject("resource").putArray("attributes");
+        addAttribute(resourceAttributes, "service.name", ConfigReader.getProperty("otel.service.name", "demoblaze-ui-tests"));
+        addAttribute(resourceAttributes, "host.name", hostName());
+        ObjectNode scopeSpans = resourceSpans.putArray("scopeSpans").addObject();
+        scopeSpans.putObject("scope").put("name", OtlpTraceExporter.class.getName());
+        ArrayNode spans = scopeSpans.putArray("spans");
+
+        Deque<Span> pending = new ArrayDeque<>();
+        pending.push(root);
+        int count = 0;
+        while (!pending.isEmpty()) {
+            Span span = pending.pop();
+            spans.add(toJson(span));
+            count++;
+            if (span != suiteSpan) {
+                span.finishedChildren.forEach(pending::push);
+            }
+        }
+        try {
+            writer.write(objectMapper.writeValueAsString(request));
+            writer.newLine();
+            writer.flush();
+            exportedSpans += count;
+        } catch (IOException e) {
+            logger.warn("Failed to export spans of {} to {}", root.name, file, e);
+        }
+    }
+
+    private ObjectNode toJson(Span span) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("traceId", span.traceId);
+        node.put("spanId", span.spanId);
+        if (span.parentSpanId != null) {
+            node.put("parentSpanId", span.parentSpanId);
+        }
+        node.put("name", span.name);
+        node.put("kind", span.kind);
+        node.put("startTimeUnixNano", String.valueOf(epochOffsetNanos + span.startNanos));
+        node.put("endTimeUnixNano", String.valueOf(epochOffsetNanos + span.endNanos));
+        ArrayNode attributes = node.putArray("attributes");
+        span.attributes.forEach((key, value) -> addAttribute(attributes, key, value));
+        ObjectNode status = node.putObject("status");
+        status.put("code", span.status == STATUS_ERROR ? STATUS_ERROR : STATUS_OK);
+        if (span.statusMessage != null) {
+            status.put("message", span.statusMessage);
+        }
+        return node;
+    }
+
+    private static void addAttribute(ArrayNode attributes, String key, Object value) {
+        if (value == null) {
+            return;
+        }
+        ObjectNode attribute = attributes.addObject();
+        attribute.put("key", key);
+        ObjectNode anyValue = attribute.putObject("value");
+        if (value instanceof Number) {
+            anyValue.put("intValue", String.valueOf(value));
+        } else if (value instanceof Boolean) {
+            anyValue.put("boolValue", (Boolean) value);
+        } else {
+            anyValue.put("stringValue", value.toString());
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    private static String randomHex(int bytes) {
+        StringBuilder hex = new StringBuilder();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < bytes; i++) {
+            hex.append(String.format("%02x", random.nextInt(256)));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package listeners;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import utils.ConfigReader;
+import utils.PagePerformance;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Enforces page performance budgets and reports page loads per page type.
+ *
+ * Page loads are charged to the running test; with perf.budget.enforce a test that passed but loaded a page
+ * over budget fails with the violations. When the suite ends reports.directory/page-performance.json lists
+ * every page load and page-performance-summary.txt gives p50/p95/max of each metric per page type and
+ * throttling profile against its budget.
+ */
+public class PagePerformanceReporter implements ITestListener, IInvokedMethodListener, ISuiteListener {
+    private static final Logger logger = LogManager.getLogger(PagePerformanceReporter.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public void onStart(ISuite suite) {
+        PagePerformance.clear();
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        PagePerformance.startTest(InvocationKey.of(result.getMethod().getQualifiedName(), result.getParameters()));
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        // A test without teardown must not be charged for the next test's setup
+        if (method.getTestMethod().isBeforeMethodConfiguration()) {
+            PagePerformance.endTest();
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.getTestMethod().isAfterMethodConfiguration()) {
+            PagePerformance.endTest();
+            return;
+        }
+        if (!method.isTestMethod() || testResult.getStatus() != ITestResult.SUCCESS || !PagePerformance.isEnforced()) {
+            return;
+        }
+        List<String> violations = PagePerformance.getViolations(PagePerformance.getTestSamples());
+        if (!violations.isEmpty()) {
+            testResult.setStatus(ITestResult.FAILURE);
+            testResult.setThrowable(new AssertionError("Page performance budget exceeded: " + String.join("; ", violations)));
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Map<String, List<PagePerformance.Sample>> pages = PagePerformance.getPages();
+        if (pages.isEmpty()) {
+            return;
+        }
+
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("suite", suite.getName());
+        ObjectNode pagesNode = root.putObject("pages");
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT,
+                "%-10s %-14s %-16s %6s %10s %10s %10s %10s %6s%n", "page", "profile", "metric", "loads",
+                "p50", "p95", "max", "budget", "over"));
+        int violations = 0;
+        for (Map.Entry<String, List<PagePerformance.Sample>> page : pages.entrySet()) {
+            ArrayNode loads = pagesNode.putArray(page.getKey());
+            Map<String, List<PagePerformance.Sample>> byProfile = new TreeMap<>();
+            for (PagePerformance.Sample sample : page.getValue()) {
+                byProfile.computeIfAbsent(sample.getProfile(), profile -> new ArrayList<>()).add(sample);
+                ObjectNode load = loads.addObject()
+                        .put("url", sample.getUrl())
+                        .put("test", sample.getTest())
+                        .put("browser", sample.getBrowser())
+                        .put("profile", sample.getProfile());
+                ObjectNode metrics = load.putObject("metrics");
+                sample.getMetrics().forEach(metrics::put);
+                ObjectNode slowest = load.putObject("slowestResources");
+                sample.getSlowestResources().forEach(slowest::put);
+                ArrayNode sampleViolations = load.putArray("violations");
+                sample.getViolations().forEach(sampleViolations::add);
+                violations += sample.getViolations().size();
+            }
+            byProfile.forEach((profile, samples) -> {
+                for (String metric : PagePerformance.METRICS) {
+                    appendSummary(summary, page.getKey(), profile, metric, samples);
+                }
+            });
+        }
+
+        Path directory = Paths.get(ConfigReader.getReportsDirectory());
+        try {
+            Files.createDirectories(directory);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(directory.resolve("page-performance.json").toFile(), root);
+            Files.write(directory.resolve("page-performance-summary.txt"), summary.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.warn("Failed to write page performance to {}", directory, e);
+            return;
+        }
+        logger.info("Page performance of {} page types, {} budget violations (full report in {}):\n{}",
+                pages.size(), violations, directory.resolve("page-performance-summary.txt"), summary);
+    }
+
+    private static void appendSummary(StringBuilder summary, String pageType, String profile, String metric,
+                                      List<PagePerformance.Sample> samples) {
+        List<Double> values = new ArrayList<>();
+        for (PagePerformance.Sample sample : samples) {
+            Double value = sample.getMetric(metric);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        if (values.isEmpty()) {
+            return;
+        }
+        Collections.sort(values);
+        Double budget = PagePerformance.getBudget(profile, pageType, metric);
+        long over = budget == null ? 0 : values.stream().filter(value -> value > budget).count();
+        summary.append(String.format(Locale.ROOT, "%-10s %-14s %-16s %6d %10s %10s %10s %10s %6d%n", pageType, profile, metric,
+                values.size(), format(percentile(values, 50)), format(percentile(values, 95)),
+                format(values.get(values.size() - 1)), budget == null ? "-" : format(budget), over));
+    }
+
+    private static double percentile(List<Double> sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+
+    private static String format(double value) {
+        return value >= 100 || value == Math.rint(value)
+                ? String.format(Locale.ROOT, "%.0f", value) : String.format(Locale.ROOT, "%.3f", value);
+    }
+}
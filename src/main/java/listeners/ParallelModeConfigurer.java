@@ -0,0 +1,63 @@
+package listeners;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+import utils.ConfigReader;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Applies the configured parallel mode to every suite before it runs, so the same testng.xml
+ * can run serially or in parallel (-Dparallel.mode=methods -Dthread.count=4).
+ *
+ * Supported modes: none, methods, classes, instances. Tests keep all per-test state
+ * (driver, page actions, test data) thread-confined, so any of these modes is safe.
+ */
+public class ParallelModeConfigurer implements IAlterSuiteListener {
+    private static final Logger logger = LogManager.getLogger(ParallelModeConfigurer.class);
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        XmlSuite.ParallelMode mode = resolveMode(ConfigReader.getProperty("parallel.mode", "none"));
+        int threadCount = Math.max(1, ConfigReader.getThreadCount());
+        int dataProviderThreadCount = Math.max(1,
+                parseInt(ConfigReader.getProperty("data.provider.thread.count", "1"), 1));
+
+        for (XmlSuite suite : suites) {
+            suite.setParallel(mode);
+            suite.setThreadCount(threadCount);
+            suite.setDataProviderThreadCount(dataProviderThreadCount);
+            logger.info("Suite '{}' configured with parallel={} thread-count={} data-provider-thread-count={}",
+                    suite.getName(), mode, threadCount, dataProviderThreadCount);
+        }
+    }
+
+    private static XmlSuite.ParallelMode resolveMode(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "methods":
+                return XmlSuite.ParallelMode.METHODS;
+            case "classes":
+                return XmlSuite.ParallelMode.CLASSES;
+            case "instances":
+                return XmlSuite.ParallelMode.INSTANCES;
+            case "none":
+            case "false":
+            case "":
+                return XmlSuite.ParallelMode.NONE;
+            default:
+                logger.warn("Unsupported parallel mode '{}', running serially", value);
+                return XmlSuite.ParallelMode.NONE;
+        }
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid data.provider.thread.count '{}', using default: {}", value, defaultValue);
+            return defaultValue;
+        }
+    }
+}
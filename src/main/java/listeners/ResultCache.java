@@ -0,0 +1,274 @@
+package listeners;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.qameta.allure.Allure;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IConfigurable;
+import org.testng.IConfigureCallBack;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import utils.ConfigReader;
+import utils.ConfigSnapshot;
+import utils.Fingerprints;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in cache of passed test results (result.cache.enabled, for the classes or methods in result.cache.tests).
+ *
+ * A pass is reused while the code fingerprint of the test class (its bytecode plus the actions and locators
+ * it reaches), the site fingerprint of the base URL (page and same-origin scripts), the browser and the base URL
+ * are unchanged, and the entry is younger than result.cache.ttl.minutes; catalog data served by the API is not
+ * part of the site fingerprint, so the TTL bounds how stale a cached pass can be. On a hit the test body is not
+ * run; for tests without parameters neither is a @BeforeMethod taking the test Method nor the matching
+ * @AfterMethod (BaseTest setUp/tearDown), so no browser is started. Cached results pass with the attribute
+ * and Allure label "resultCache=hit". Failures are never cached.
+ */
+public class ResultCache implements IHookable, IConfigurable, ITestListener, ISuiteListener {
+    public static final String CACHED_ATTRIBUTE = "resultCache";
+
+    private static final String SETUP_SKIPPED_ATTRIBUTE = "resultCache.setUpSkipped";
+
+    private static final Logger logger = LogManager.getLogger(ResultCache.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("result.cache.enabled", "false"));
+    private final Set<String> cachedTests = new HashSet<>(Arrays.asList(
+            ConfigReader.getProperty("result.cache.tests", "").trim().split("\\s*,\\s*")));
+    private final Map<String, ObjectNode> entries = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> skippedSetUp = new ThreadLocal<>();
+    private volatile boolean changed;
+    private int hits;
+    private int misses;
+
+    /**
+     * Check whether a result was reused from the cache instead of being run
+     */
+    public static boolean isCached(ITestResult result) {
+        return Boolean.TRUE.equals(result.getAttribute(CACHED_ATTRIBUTE));
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!enabled) {
+            return;
+        }
+        Path file = getCacheFile();
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            objectMapper.readTree(file.toFile()).fields()
+                    .forEachRemaining(field -> entries.put(field.getKey(), (ObjectNode) field.getValue()));
+            logger.info("Loaded {} cached test results from {}", entries.size(), file);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unreadable result cache {}, starting empty", file, e);
+        }
+    }
+
+    @Override
+    public void run(IConfigureCallBack callBack, ITestResult testResult) {
+        ITestNGMethod configuration = testResult.getMethod();
+        if (enabled && configuration.isBeforeMethodConfiguration()) {
+            Method testMethod = findParameter(testResult.getParameters(), Method.class);
+            // Data-driven invocations are only known once their parameters are, so their setup always runs
+            if (testMethod != null && testMethod.getParameterCount() == 0) {
+                String className = testResult.getInstance().getClass().getName();
+                String key = InvocationKey.of(className + "." + testMethod.getName(), null);
+                if (isEligible(className, testMethod.getName())
+                        && lookup(key, testResult) != null) {
+                    skippedSetUp.set(key);
+                    testResult.setStatus(ITestResult.SUCCESS);
+                    return;
+                }
+            }
+        }
+        if (enabled && configuration.isAfterMethodConfiguration()) {
+            ITestResult test = findParameter(testResult.getParameters(), ITestResult.class);
+            if (test != null && Boolean.TRUE.equals(test.getAttribute(SETUP_SKIPPED_ATTRIBUTE))) {
+                testResult.setStatus(ITestResult.SUCCESS);
+                return;
+            }
+        }
+        callBack.runConfigurationMethod(testResult);
+    }
+
+    @Override
+    public void run(IHookCallBack callBack, ITestResult testResult) {
+        String preparedKey = skippedSetUp.get();
+        skippedSetUp.remove();
+        ITestNGMethod method = testResult.getMethod();
+        if (!enabled || !isEligible(method.getRealClass().getName(), method.getMethodName())) {
+            callBack.runTestMethod(testResult);
+            return;
+        }
+
+        String key = InvocationKey.of(method.getQualifiedName(), testResult.getParameters());
+        ObjectNode entry = key.equals(preparedKey) ? entries.get(key) : lookup(key, testResult);
+        if (entry == null) {
+            if (preparedKey != null) {
+                // Cannot happen unless the entry vanished between setup and test; the test would run without a browser
+                throw new IllegalStateException("Cached result of " + key + " vanished after its setup was skipped");
+            }
+            synchronized (this) {
+                misses++;
+            }
+            callBack.runTestMethod(testResult);
+            return;
+        }
+
+        synchronized (this) {
+            hits++;
+        }
+        testResult.setStatus(ITestResult.SUCCESS);
+        testResult.setAttribute(CACHED_ATTRIBUTE, true);
+        if (preparedKey != null) {
+            // Teardown is skipped along with setup
+            testResult.setAttribute(SETUP_SKIPPED_ATTRIBUTE, true);
+        }
+        Allure.label(CACHED_ATTRIBUTE, "hit");
+        logger.info("Result of {} reused from cache (passed {} minutes ago)", key,
+                TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis() - entry.path("cachedAtMillis").asLong()));
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        if (!enabled || isCached(result)) {
+            return;
+        }
+        ITestNGMethod method = result.getMethod();
+        if (!isEligible(method.getRealClass().getName(), method.getMethodName())) {
+            return;
+        }
+        ObjectNode entry = fingerprint(result);
+        if (entry != null) {
+            entry.put("cachedAtMillis", System.currentTimeMillis());
+            entry.put("durationMillis", result.getEndMillis() - result.getStartMillis());
+            entries.put(InvocationKey.of(method.getQualifiedName(), result.getParameters()), entry);
+            changed = true;
+        }
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        invalidate(result);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        invalidate(result);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!enabled) {
+            return;
+        }
+        logger.info("Result cache: {} hits, {} misses", hits, misses);
+        if (!changed) {
+            return;
+        }
+        Path file = getCacheFile();
+        ObjectNode root = objectMapper.createObjectNode();
+        new TreeMap<>(entries).forEach(root::set);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(tempFile.toFile(), root);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to save result cache to {}", file, e);
+        }
+    }
+
+    private void invalidate(ITestResult result) {
+        if (enabled && !isCached(result) && entries.remove(
+                InvocationKey.of(result.getMethod().getQualifiedName(), result.getParameters())) != null) {
+            changed = true;
+        }
+    }
+
+    private boolean isEligible(String className, String methodName) {
+        return cachedTests.contains(className) || cachedTests.contains(className + "." + methodName);
+    }
+
+    /**
+     * Cached entry for a key if it is still valid for the current code, site and configuration, or null
+     */
+    private ObjectNode lookup(String key, ITestResult testResult) {
+        ObjectNode entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long ttlMillis = TimeUnit.MINUTES.toMillis(Long.parseLong(ConfigReader.getProperty("result.cache.ttl.minutes", "1440")));
+        if (System.currentTimeMillis() - entry.path("cachedAtMillis").asLong() > ttlMillis) {
+            return null;
+        }
+        ObjectNode current = fingerprint(testResult);
+        if (current == null) {
+            return null;
+        }
+        for (String field : Arrays.asList("code", "site", "browser", "baseUrl")) {
+            if (!current.path(field).asText().equals(entry.path(field).asText())) {
+                logger.debug("Cached result of {} is stale: {} changed", key, field);
+                return null;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Code, site and configuration the result of a test depends on; null when the site cannot be fingerprinted
+     */
+    private ObjectNode fingerprint(ITestResult testResult) {
+        // TestNG parameters may select another browser or site; setUp may not have bound them yet
+        ConfigSnapshot config = ConfigReader.getSnapshot(testResult.getTestContext().getCurrentXmlTest().getAllParameters());
+        String baseUrl = config.getBaseUrl();
+        String browser = config.getBrowser();
+        String site = Fingerprints.ofSite(baseUrl);
+        if (site == null) {
+            return null;
+        }
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("code", Fingerprints.ofClass(testResult.getInstance().getClass()));
+        node.put("site", site);
+        node.put("browser", browser);
+        node.put("baseUrl", baseUrl);
+        return node;
+    }
+
+    private static <T> T findParameter(Object[] parameters, Class<T> type) {
+        if (parameters != null) {
+            for (Object parameter : parameters) {
+                if (type.isInstance(parameter)) {
+                    return type.cast(parameter);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Path getCacheFile() {
+        return Paths.get(ConfigReader.getProperty("result.cache.file", "test-output/cache/results.json"));
+    }
+}
@@ -0,0 +1,302 @@
+package listeners;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import data.CatalogCache;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import utils.AllureResults;
+import utils.ConfigReader;
+import utils.DriverManager;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ledger of the outcome of every test method, written to run.ledger.file when the suite ends.
+ *
+ * With rerun.failed=true only the methods that failed, were skipped or never ran in the previous run are
+ * executed, together with their dependsOnMethods prerequisites. The previous outcome is read from the ledger,
+ * or from allure.results.directory when there is none (rerun.source=auto|ledger|allure). New outcomes are
+ * merged into the ledger; Allure shows them as the latest attempt of the same tests as long as both runs
+ * write to the same results directory. A rerun keeps browsers warm between tests (rerun.reuse.sessions)
+ * and starts from the catalog state (CatalogCache) saved by the previous run.
+ */
+public class RunLedger implements IMethodInterceptor, ITestListener, ISuiteListener {
+    private static final Logger logger = LogManager.getLogger(RunLedger.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final boolean rerun = Boolean.parseBoolean(ConfigReader.getProperty("rerun.failed", "false"));
+    private final Map<String, String> planned = new ConcurrentHashMap<>();
+    private final Map<String, ObjectNode> outcomes = new ConcurrentHashMap<>();
+    private final Set<String> prerequisites = ConcurrentHashMap.newKeySet();
+    private final long startMillis = System.currentTimeMillis();
+    private Map<String, ObjectNode> previousEntries;
+    private ArrayNode previousRuns;
+    private String previousSource;
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!rerun) {
+            return;
+        }
+        String source = ConfigReader.getProperty("rerun.source", "auto");
+        if (!"allure".equalsIgnoreCase(source)) {
+            loadLedger();
+        }
+        if (previousEntries == null && !"ledger".equalsIgnoreCase(source)) {
+            loadAllureResults();
+        }
+        if (previousEntries == null) {
+            logger.warn("Rerun requested but no previous results found (rerun.source={}); running everything", source);
+            return;
+        }
+        if (Boolean.parseBoolean(ConfigReader.getProperty("rerun.reuse.sessions", "true"))) {
+            DriverManager.setSessionReuse(true);
+        }
+        long toRerun = previousEntries.values().stream().filter(RunLedger::needsRerun).count();
+        logger.info("Rerun of {} failed or skipped methods from {} ({} methods known)",
+                toRerun, previousSource, previousEntries.size());
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        List<IMethodInstance> selected = methods;
+        if (previousEntries != null) {
+            Set<String> wanted = new HashSet<>();
+            for (IMethodInstance method : methods) {
+                String name = method.getMethod().getQualifiedName();
+                ObjectNode previous = previousEntries.get(name);
+                if (previous == null || needsRerun(previous)) {
+                    wanted.add(name);
+                }
+            }
+            Set<String> keep = ScheduledUnit.withPrerequisites(methods, wanted);
+            selected = new ArrayList<>();
+            for (IMethodInstance method : methods) {
+                String name = method.getMethod().getQualifiedName();
+                if (keep.contains(name)) {
+                    selected.add(method);
+                    if (!wanted.contains(name)) {
+                        prerequisites.add(name);
+                    }
+                }
+            }
+            logger.info("Rerun of '{}': {} of {} methods ({} prerequisites of failed or skipped methods)",
+                    context.getName(), selected.size(), methods.size(), selected.size() - wanted.size());
+        }
+
+        // The smoke stage only previews the regression; what it leaves out is not missing from the run
+        if (!SmokeGate.isSmokeStage(context.getCurrentXmlTest())) {
+            for (IMethodInstance method : selected) {
+                planned.putIfAbsent(method.getMethod().getQualifiedName(), context.getName());
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        addOutcome(result, "passed");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        addOutcome(result, "failed");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        // A method the smoke gate dropped after it passed in the smoke stage keeps that outcome
+        if (SmokeGate.isDropped(result) && outcomes.containsKey(result.getMethod().getQualifiedName())) {
+            return;
+        }
+        addOutcome(result, "skipped");
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        addOutcome(result, "passed");
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        boolean merging = previousEntries != null;
+        Map<String, ObjectNode> entries = new TreeMap<>();
+        if (merging) {
+            previousEntries.forEach((name, entry) -> entries.put(name, entry.deepCopy()));
+        }
+
+        // Planned methods without an outcome were dropped (e.g. by the smoke gate) and count as skipped
+        planned.forEach((name, test) -> {
+            if (!outcomes.containsKey(name)) {
+                ObjectNode entry = objectMapper.createObjectNode();
+                entry.put("test", test);
+                entry.put("status", "skipped");
+                entry.put("notRun", true);
+                outcomes.put(name, entry);
+            }
+        });
+
+        Map<String, Integer> counts = new TreeMap<>();
+        outcomes.forEach((name, outcome) -> {
+            ObjectNode previous = entries.get(name);
+            ObjectNode entry = outcome.deepCopy();
+            entry.put("attempt", previous != null ? previous.path("attempt").asInt(1) + 1 : 1);
+            if (previous != null) {
+                entry.put("previousStatus", previous.path("status").asText());
+            }
+            if (prerequisites.contains(name)) {
+                entry.put("rerunAsPrerequisite", true);
+            }
+            entries.put(name, entry);
+            counts.merge(outcome.path("status").asText(), 1, Integer::sum);
+        });
+
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("suite", suite.getName());
+        ArrayNode runs = root.putArray("runs");
+        if (previousRuns != null) {
+            runs.addAll(previousRuns);
+        }
+        ObjectNode run = runs.addObject();
+        run.put("mode", merging ? "rerun" : "full");
+        if (merging) {
+            run.put("source", previousSource);
+        }
+        run.put("startMillis", startMillis);
+        run.put("stopMillis", System.currentTimeMillis());
+        counts.forEach(run::put);
+
+        ObjectNode tests = root.putObject("tests");
+        entries.forEach(tests::set);
+        ObjectNode catalog = root.putObject("catalog");
+        catalog.putPOJO("productTitles", CatalogCache.getAllProductTitles());
+        catalog.putPOJO("workingProducts", CatalogCache.getAllWorkingProducts());
+        save(root);
+
+        long remaining = entries.values().stream().filter(RunLedger::needsRerun).count();
+        logger.info("Run ledger: {} methods executed {}, {} of {} known methods still failed or skipped",
+                outcomes.size(), counts, remaining, entries.size());
+    }
+
+    /**
+     * Fold one invocation into the method's outcome; a failed invocation outweighs a skipped one, which
+     * outweighs a pass, so a data-driven method is only passed when all its invocations passed
+     */
+    private void addOutcome(ITestResult result, String status) {
+        long millis = Math.max(0, result.getEndMillis() - result.getStartMillis());
+        String error = result.getThrowable() != null ? String.valueOf(result.getThrowable().getMessage()) : null;
+        outcomes.compute(result.getMethod().getQualifiedName(), (name, entry) -> {
+            if (entry == null) {
+                entry = objectMapper.createObjectNode();
+                entry.put("test", result.getTestContext().getName());
+                entry.put("status", status);
+                entry.put("startMillis", result.getStartMillis());
+            } else if (severity(status) > severity(entry.path("status").asText())) {
+                entry.put("status", status);
+            }
+            entry.put("stopMillis", Math.max(entry.path("stopMillis").asLong(), result.getEndMillis()));
+            entry.put("durationMillis", entry.path("durationMillis").asLong() + millis);
+            entry.put("invocations", entry.path("invocations").asInt() + 1);
+            if (ResultCache.isCached(result)) {
+                entry.put("cached", true);
+            }
+            if (error != null && !entry.has("error")) {
+                entry.put("error", error);
+            }
+            return entry;
+        });
+    }
+
+    private static int severity(String status) {
+        return "failed".equals(status) ? 2 : "skipped".equals(status) ? 1 : 0;
+    }
+
+    private static boolean needsRerun(JsonNode entry) {
+        return !"passed".equals(entry.path("status").asText());
+    }
+
+    private void loadLedger() {
+        Path file = getLedgerFile();
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(file.toFile());
+            Map<String, ObjectNode> entries = new LinkedHashMap<>();
+            root.path("tests").fields().forEachRemaining(field -> entries.put(field.getKey(), (ObjectNode) field.getValue()));
+            previousEntries = entries;
+            previousRuns = root.path("runs").isArray() ? (ArrayNode) root.get("runs") : null;
+            previousSource = file.toString();
+
+            JsonNode catalog = root.path("catalog");
+            catalog.path("productTitles").fields().forEachRemaining(field -> {
+                List<String> titles = new ArrayList<>();
+                field.getValue().forEach(title -> titles.add(title.asText()));
+                CatalogCache.putProductTitles(field.getKey(), titles);
+            });
+            catalog.path("workingProducts").fields().forEachRemaining(field ->
+                    CatalogCache.putWorkingProduct(field.getKey(), field.getValue().asText()));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unreadable run ledger {}", file, e);
+        }
+    }
+
+    /**
+     * Latest Allure result per test method; failed and broken both count as failed
+     */
+    private void loadAllureResults() {
+        Map<String, ObjectNode> entries = new LinkedHashMap<>();
+        for (JsonNode result : AllureResults.readResults()) {
+            String status = result.path("status").asText();
+            ObjectNode entry = objectMapper.createObjectNode();
+            entry.put("status", "passed".equals(status) ? "passed" : "broken".equals(status) ? "failed" : status);
+            entry.put("startMillis", result.path("start").asLong());
+            entry.put("stopMillis", result.path("stop").asLong());
+            entries.put(result.get("fullName").asText(), entry);
+        }
+        if (!entries.isEmpty()) {
+            previousEntries = entries;
+            previousSource = AllureResults.getDirectory().toString();
+        }
+    }
+
+    private static Path getLedgerFile() {
+        return Paths.get(ConfigReader.getProperty("run.ledger.file", "test-output/ledger/run-ledger.json"));
+    }
+
+    private static void save(ObjectNode root) {
+        Path file = getLedgerFile();
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(tempFile.toFile(), root);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Run ledger written to {}", file);
+        } catch (IOException e) {
+            logger.error("Failed to write run ledger to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package listeners;
+
+import org.testng.IMethodInstance;
+import org.testng.ITestNGMethod;
+import utils.TestDurationHistory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Test methods that must be scheduled together because they are linked by dependsOnMethods or
+ * dependsOnGroups (e.g. the CartTests chain), with their combined expected duration.
+ */
+public final class ScheduledUnit {
+    private final List<IMethodInstance> methods;
+    private final long expectedMillis;
+
+    private ScheduledUnit(List<IMethodInstance> methods, long expectedMillis) {
+        this.methods = Collections.unmodifiableList(methods);
+        this.expectedMillis = expectedMillis;
+    }
+
+    public List<IMethodInstance> getMethods() {
+        return methods;
+    }
+
+    public long getExpectedMillis() {
+        return expectedMillis;
+    }
+
+    /**
+     * Stable identifier of the unit: qualified name of its first method
+     */
+    public String getKey() {
+        return methods.get(0).getMethod().getQualifiedName();
+    }
+
+    /**
+     * Group methods into dependency-closed units, keeping the given order inside and across units.
+     * Methods without history are estimated at the median of the known durations.
+     */
+    public static List<ScheduledUnit> group(List<IMethodInstance> methods, long defaultMillis) {
+        int[] parent = new int[methods.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+
+        Map<String, List<Integer>> byName = new LinkedHashMap<>();
+        Map<String, List<Integer>> byGroup = new LinkedHashMap<>();
+        for (int i = 0; i < methods.size(); i++) {
+            ITestNGMethod method = methods.get(i).getMethod();
+            byName.computeIfAbsent(method.getQualifiedName(), name -> new ArrayList<>()).add(i);
+            for (String group : method.getGroups()) {
+                byGroup.computeIfAbsent(group, name -> new ArrayList<>()).add(i);
+            }
+        }
+
+        for (int i = 0; i < methods.size(); i++) {
+            ITestNGMethod method = methods.get(i).getMethod();
+            for (String dependency : method.getMethodsDependedUpon()) {
+                String qualified = dependency.contains(".")
+                        ? dependency : method.getRealClass().getName() + "." + dependency;
+                for (int j : matching(byName, qualified)) {
+                    union(parent, i, j);
+                }
+            }
+            for (String group : method.getGroupsDependedUpon()) {
+                for (int j : matching(byGroup, group)) {
+                    union(parent, i, j);
+                }
+            }
+        }
+
+        long estimate = TestDurationHistory.getMedianMillis(defaultMillis);
+        Map<Integer, List<IMethodInstance>> members = new LinkedHashMap<>();
+        Map<Integer, Long> durations = new LinkedHashMap<>();
+        for (int i = 0; i < methods.size(); i++) {
+            int root = find(parent, i);
+            long expected = TestDurationHistory.getExpectedMillis(methods.get(i).getMethod().getQualifiedName());
+            members.computeIfAbsent(root, key -> new ArrayList<>()).add(methods.get(i));
+            durations.merge(root, expected >= 0 ? expected : estimate, Long::sum);
+        }
+
+        List<ScheduledUnit> units = new ArrayList<>();
+        members.forEach((root, unitMethods) -> units.add(new ScheduledUnit(unitMethods, durations.get(root))));
+        return units;
+    }
+
+    /**
+     * Add dependsOnMethods prerequisites (transitively) to a set of qualified method names
+     */
+    static Set<String> withPrerequisites(List<IMethodInstance> methods, Set<String> names) {
+        Set<String> result = new LinkedHashSet<>(names);
+        boolean grown = true;
+        while (grown) {
+            grown = false;
+            for (IMethodInstance method : methods) {
+                ITestNGMethod testMethod = method.getMethod();
+                if (!result.contains(testMethod.getQualifiedName())) {
+                    continue;
+                }
+                for (String dependency : testMethod.getMethodsDependedUpon()) {
+                    String qualified = dependency.contains(".")
+                            ? dependency : testMethod.getRealClass().getName() + "." + dependency;
+                    grown |= result.add(qualified);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Predict wall-clock time of running units in the given order on a number of workers,
+     * each unit going to the first worker that becomes free
+     */
+    public static long predictMakespan(List<ScheduledUnit> units, int workers) {
+        PriorityQueue<Long> workerLoads = new PriorityQueue<>();
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            workerLoads.add(0L);
+        }
+        long makespan = 0;
+        for (ScheduledUnit unit : units) {
+            long finish = workerLoads.poll() + unit.expectedMillis;
+            makespan = Math.max(makespan, finish);
+            workerLoads.add(finish);
+        }
+        return makespan;
+    }
+
+    private static List<Integer> matching(Map<String, List<Integer>> index, String name) {
+        List<Integer> exact = index.get(name);
+        if (exact != null) {
+            return exact;
+        }
+        // TestNG accepts regular expressions in dependsOnMethods and dependsOnGroups
+        List<Integer> matches = new ArrayList<>();
+        try {
+            Pattern pattern = Pattern.compile(name);
+            index.forEach((key, indices) -> {
+                if (pattern.matcher(key).matches()) {
+                    matches.addAll(indices);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Not a valid pattern; the dependency is simply outside this run
+        }
+        return matches;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            // Keep the earlier method as root so units stay in their original order
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package listeners;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.qameta.allure.Allure;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import utils.ConfigReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Runs one shard of the suite when several JVMs split it (-Dshard.index=2 -Dshard.count=8, zero-based).
+ *
+ * Every shard computes the same plan: dependency units are ordered by expected duration (ties broken by name)
+ * and each goes to the shard with the least total so far, so shards finish at roughly the same time and
+ * dependent methods never end up on different shards. All shards must therefore read the same timing history
+ * (e.g. restore test-output/timings from the same CI artifact); the plan hash written with the results lets
+ * {@link utils.ShardResultMerger} detect shards that planned differently.
+ *
+ * Data-driven methods are the exception: their units run on every shard and each shard streams only its share
+ * of the rows (the data shard defaults to the JVM shard), so a large data set no longer lands on one shard.
+ * The smoke gate stage (see {@link SmokeGate}) is not split either: every shard runs the full smoke set, so all
+ * shards take the same gate decision for a build.
+ *
+ * Results of this shard are written to shard.results.directory and every test is labelled "shard" in Allure.
+ */
+public class ShardSelector implements IMethodInterceptor, ITestListener, ISuiteListener {
+    private static final Logger logger = LogManager.getLogger(ShardSelector.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Plan marker of methods run by every shard on their share of the data rows
+    private static final int SPREAD = -1;
+
+    private final int shardIndex = Integer.parseInt(ConfigReader.getProperty("shard.index", "0"));
+    private final int shardCount = Integer.parseInt(ConfigReader.getProperty("shard.count", "1"));
+    private final Map<String, ObjectNode> plans = new ConcurrentHashMap<>();
+    private final Queue<ObjectNode> results = new ConcurrentLinkedQueue<>();
+    private final long startMillis = System.currentTimeMillis();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (shardCount <= 1) {
+            return methods;
+        }
+        if (shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("Invalid shard " + shardIndex + " of " + shardCount
+                    + " (shard.index is zero-based)");
+        }
+        if (SmokeGate.isSmokeStage(context.getCurrentXmlTest())) {
+            logger.info("Shard {}/{} runs all {} methods of smoke gate '{}'", shardIndex, shardCount, methods.size(),
+                    context.getName());
+            return methods;
+        }
+
+        long defaultMillis = Long.parseLong(ConfigReader.getProperty("scheduler.default.duration.ms", "30000"));
+        List<ScheduledUnit> units = new ArrayList<>(ScheduledUnit.group(methods, defaultMillis));
+        units.sort(Comparator.comparingLong(ScheduledUnit::getExpectedMillis).reversed()
+                .thenComparing(ScheduledUnit::getKey));
+
+        // Units with data-driven methods run on every shard: their streamed rows are split by the data shard,
+        // which follows this JVM's shard (TestDataProvider.streamRecords), so each shard carries its share
+        long[] shardLoads = new long[shardCount];
+        Map<String, Integer> assignment = new TreeMap<>();
+        List<ScheduledUnit> selected = new ArrayList<>();
+        List<ScheduledUnit> assignable = new ArrayList<>();
+        for (ScheduledUnit unit : units) {
+            if (isDataDriven(unit)) {
+                for (int shard = 0; shard < shardCount; shard++) {
+                    shardLoads[shard] += unit.getExpectedMillis() / shardCount;
+                }
+                for (IMethodInstance method : unit.getMethods()) {
+                    assignment.put(method.getMethod().getQualifiedName(), SPREAD);
+                }
+                selected.add(unit);
+            } else {
+                assignable.add(unit);
+            }
+        }
+        for (ScheduledUnit unit : assignable) {
+            int target = 0;
+            for (int shard = 1; shard < shardCount; shard++) {
+                if (shardLoads[shard] < shardLoads[target]) {
+                    target = shard;
+                }
+            }
+            shardLoads[target] += unit.getExpectedMillis();
+            for (IMethodInstance method : unit.getMethods()) {
+                assignment.put(method.getMethod().getQualifiedName(), target);
+            }
+            if (target == shardIndex) {
+                selected.add(unit);
+            }
+        }
+
+        // Keep declared order; a later interceptor (e.g. DurationAwareScheduler) may reorder the shard
+        Set<IMethodInstance> selectedMethods = Collections.newSetFromMap(new IdentityHashMap<>());
+        selected.forEach(unit -> selectedMethods.addAll(unit.getMethods()));
+        List<IMethodInstance> shardMethods = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            if (selectedMethods.contains(method)) {
+                shardMethods.add(method);
+            }
+        }
+
+        String planHash = hashPlan(assignment);
+        ObjectNode plan = objectMapper.createObjectNode();
+        plan.put("planHash", planHash);
+        plan.put("expectedMillis", shardLoads[shardIndex]);
+        ArrayNode assigned = plan.putArray("assigned");
+        ArrayNode spread = plan.putArray("spread");
+        shardMethods.forEach(method -> {
+            String name = method.getMethod().getQualifiedName();
+            (assignment.get(name) == SPREAD ? spread : assigned).add(name);
+        });
+        plans.put(context.getName(), plan);
+
+        logger.info("Shard {}/{} of '{}': {} of {} methods in {} units, expected {} ms (shard range {}..{} ms, plan {})",
+                shardIndex, shardCount, context.getName(), shardMethods.size(), methods.size(), selected.size(),
+                shardLoads[shardIndex], min(shardLoads), max(shardLoads), planHash);
+        return shardMethods;
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        if (shardCount > 1) {
+            Allure.label("shard", shardIndex + "/" + shardCount);
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        addResult(result, "passed");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        addResult(result, "failed");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        addResult(result, "skipped");
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        addResult(result, "passed");
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (shardCount <= 1) {
+            return;
+        }
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("suite", suite.getName());
+        root.put("shardIndex", shardIndex);
+        root.put("shardCount", shardCount);
+        root.put("startMillis", startMillis);
+        root.put("stopMillis", System.currentTimeMillis());
+        ObjectNode planNode = root.putObject("plans");
+        new TreeMap<>(plans).forEach(planNode::set);
+        ArrayNode resultNode = root.putArray("results");
+        results.forEach(resultNode::add);
+
+        Path directory = Paths.get(ConfigReader.getProperty("shard.results.directory", "test-output/shards"));
+        Path file = directory.resolve("shard-" + shardIndex + "-of-" + shardCount + ".json");
+        try {
+            Files.createDirectories(directory);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+            logger.info("Shard results written to {}", file);
+        } catch (IOException e) {
+            logger.error("Failed to write shard results to {}", file, e);
+        }
+    }
+
+    private void addResult(ITestResult result, String status) {
+        if (shardCount <= 1) {
+            return;
+        }
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("test", result.getTestContext().getName());
+        node.put("name", result.getMethod().getQualifiedName());
+        node.put("status", status);
+        node.put("startMillis", result.getStartMillis());
+        node.put("stopMillis", result.getEndMillis());
+        node.put("thread", Thread.currentThread().getName());
+        if (result.getThrowable() != null) {
+            node.put("error", String.valueOf(result.getThrowable().getMessage()));
+        }
+        results.add(node);
+    }
+
+    private static boolean isDataDriven(ScheduledUnit unit) {
+        return unit.getMethods().stream().anyMatch(method -> method.getMethod().isDataDriven());
+    }
+
+    private static String hashPlan(Map<String, Integer> assignment) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            assignment.forEach((name, shard) -> digest.update((name + "=" + shard + "\n").getBytes(StandardCharsets.UTF_8)));
+            StringBuilder hex = new StringBuilder();
+            byte[] hash = digest.digest();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static long min(long[] values) {
+        long min = Long.MAX_VALUE;
+        for (long value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private static long max(long[] values) {
+        long max = 0;
+        for (long value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,339 @@
+package listeners;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IAlterSuiteListener;
+import org.testng.IConfigurable;
+import org.testng.IConfigureCallBack;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import utils.ConfigReader;
+import utils.DriverManager;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fail-fast gate: a &lt;test&gt; with parameter gate.stage=smoke runs only the tests annotated with a gating
+ * severity (gate.severities, default blocker and critical) plus their prerequisites, in parallel, before
+ * the rest of the suite. The base URL is probed first, so a site that is down costs seconds, not a browser run.
+ *
+ * Later &lt;test&gt;s are then adjusted from the gate outcome:
+ * - base URL down, or at least gate.abort.failure.ratio of the gate tests failed: nothing else runs
+ * - some gate tests failed: test classes with a failed gate test are trimmed from the run
+ * - otherwise: gate tests that already passed are not run again
+ * Gate tests skipped by a failed prerequisite count as failed; skips caused by configuration methods are
+ * reported separately and do not count. Methods the gate drops are reported as skipped with the reason, without
+ * running them or their @BeforeMethod/@AfterMethod; when the base URL is down the gate tests are reported as failed,
+ * so a broken site always fails the run. The decision and the dropped methods are written to reports.directory/gate.json.
+ */
+public class SmokeGate implements IAlterSuiteListener, IMethodInterceptor, IHookable, IConfigurable, ITestListener {
+    public static final String DROPPED_ATTRIBUTE = "smokeGate.dropped";
+
+    private static final Logger logger = LogManager.getLogger(SmokeGate.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String STAGE_PARAMETER = "gate.stage";
+    private static final String SMOKE_STAGE = "smoke";
+
+    private final Set<String> gatePassed = ConcurrentHashMap.newKeySet();
+    private final Set<String> gateFailed = ConcurrentHashMap.newKeySet();
+    private final Set<String> gateConfigurationSkipped = ConcurrentHashMap.newKeySet();
+    private final Set<Class<?>> failedClasses = ConcurrentHashMap.newKeySet();
+    // Reason each dropped method is not run, by <test> name and qualified method name
+    private final Map<String, String> blocked = new ConcurrentHashMap<>();
+    private volatile boolean gateRan;
+    private volatile String siteDownReason;
+
+    /**
+     * Check whether a result is a method the gate dropped (reported as skipped without running)
+     */
+    public static boolean isDropped(ITestResult result) {
+        return result.getAttribute(DROPPED_ATTRIBUTE) != null;
+    }
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("gate.enabled", "true"));
+        int threads = Integer.parseInt(ConfigReader.getProperty("gate.thread.count", "4"));
+        for (XmlSuite suite : suites) {
+            Iterator<XmlTest> tests = suite.getTests().iterator();
+            while (tests.hasNext()) {
+                XmlTest test = tests.next();
+                if (!isSmokeStage(test)) {
+                    continue;
+                }
+                if (!enabled) {
+                    tests.remove();
+                    logger.info("Smoke gate '{}' disabled (gate.enabled=false)", test.getName());
+                    continue;
+                }
+                test.setParallel(XmlSuite.ParallelMode.METHODS);
+                test.setThreadCount(threads);
+                DriverManager.ensureSessionBudget(threads);
+            }
+        }
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (isSmokeStage(context.getCurrentXmlTest())) {
+            return selectGateMethods(methods, context);
+        }
+        if (!gateRan) {
+            return methods;
+        }
+        return applyGateOutcome(methods, context);
+    }
+
+    @Override
+    public void run(IConfigureCallBack callBack, ITestResult testResult) {
+        ITestNGMethod configuration = testResult.getMethod();
+        if (!blocked.isEmpty() && (configuration.isBeforeMethodConfiguration() || configuration.isAfterMethodConfiguration())) {
+            String testMethod = null;
+            for (Object parameter : testResult.getParameters()) {
+                if (parameter instanceof Method) {
+                    testMethod = testResult.getInstance().getClass().getName() + "." + ((Method) parameter).getName();
+                } else if (parameter instanceof ITestResult) {
+                    testMethod = ((ITestResult) parameter).getMethod().getQualifiedName();
+                }
+            }
+            // Dropped tests do not run, so neither does their setup or teardown
+            if (testMethod != null && blocked.containsKey(blockKey(testResult.getTestContext(), testMethod))) {
+                testResult.setStatus(ITestResult.SUCCESS);
+                return;
+            }
+        }
+        callBack.runConfigurationMethod(testResult);
+    }
+
+    @Override
+    public void run(IHookCallBack callBack, ITestResult testResult) {
+        String reason = blocked.isEmpty() ? null
+                : blocked.get(blockKey(testResult.getTestContext(), testResult.getMethod().getQualifiedName()));
+        if (reason == null) {
+            callBack.runTestMethod(testResult);
+        } else if (isSmokeStage(testResult.getTestContext().getCurrentXmlTest())) {
+            testResult.setStatus(ITestResult.FAILURE);
+            testResult.setThrowable(new IllegalStateException("Smoke gate: " + reason));
+        } else {
+            testResult.setAttribute(DROPPED_ATTRIBUTE, reason);
+            throw new SkipException("Smoke gate: " + reason);
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        if (isSmokeStage(result.getTestContext().getCurrentXmlTest())) {
+            gatePassed.add(result.getMethod().getQualifiedName());
+        }
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        if (isSmokeStage(result.getTestContext().getCurrentXmlTest())) {
+            gateFailed.add(result.getMethod().getQualifiedName());
+            failedClasses.add(result.getMethod().getRealClass());
+        }
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        if (!isSmokeStage(result.getTestContext().getCurrentXmlTest())) {
+            return;
+        }
+        // A gate test skipped because its prerequisite failed counts as a failure of that feature; skips from a
+        // failed configuration method say nothing about the feature and are only reported
+        List<ITestNGMethod> causes = result.getSkipCausedBy();
+        if (causes.stream().anyMatch(ITestNGMethod::isTest)) {
+            onTestFailure(result);
+        } else if (!causes.isEmpty()) {
+            gateConfigurationSkipped.add(result.getMethod().getQualifiedName());
+            logger.warn("Smoke gate test {} skipped by failed configuration {}", result.getMethod().getQualifiedName(),
+                    causes.get(0).getQualifiedName());
+        }
+    }
+
+    private List<IMethodInstance> selectGateMethods(List<IMethodInstance> methods, ITestContext context) {
+        gateRan = true;
+        siteDownReason = probeBaseUrl();
+
+        Set<String> gating = new HashSet<>();
+        for (IMethodInstance method : methods) {
+            if (isGating(method.getMethod())) {
+                gating.add(method.getMethod().getQualifiedName());
+            }
+        }
+        Set<String> selected = ScheduledUnit.withPrerequisites(methods, gating);
+        List<IMethodInstance> gateMethods = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            if (selected.contains(method.getMethod().getQualifiedName())) {
+                gateMethods.add(method);
+            }
+        }
+        if (siteDownReason != null) {
+            logger.error("Smoke gate: {}; failing the {} smoke tests without running them", siteDownReason, gateMethods.size());
+            for (IMethodInstance method : gateMethods) {
+                blocked.put(blockKey(context, method.getMethod().getQualifiedName()), siteDownReason);
+            }
+            return gateMethods;
+        }
+        logger.info("Smoke gate '{}': running {} of {} methods ({} gating, rest are prerequisites)",
+                context.getName(), gateMethods.size(), methods.size(), gating.size());
+        return gateMethods;
+    }
+
+    private List<IMethodInstance> applyGateOutcome(List<IMethodInstance> methods, ITestContext context) {
+        int gateTotal = gatePassed.size() + gateFailed.size();
+        double failureRatio = gateTotal == 0 ? 0 : (double) gateFailed.size() / gateTotal;
+        double abortRatio = Double.parseDouble(ConfigReader.getProperty("gate.abort.failure.ratio", "0.5"));
+
+        String decision;
+        Set<String> keep = new HashSet<>();
+        if (siteDownReason != null || (gateTotal > 0 && failureRatio >= abortRatio)) {
+            decision = "abort";
+        } else {
+            decision = gateFailed.isEmpty() ? "continue" : "trim";
+            Set<String> wanted = new HashSet<>();
+            for (IMethodInstance method : methods) {
+                ITestNGMethod testMethod = method.getMethod();
+                boolean alreadyPassed = gatePassed.contains(testMethod.getQualifiedName());
+                if (!alreadyPassed && !failedClasses.contains(testMethod.getRealClass())) {
+                    wanted.add(testMethod.getQualifiedName());
+                }
+            }
+            // Passed gate tests still run when a kept test depends on them
+            keep = ScheduledUnit.withPrerequisites(methods, wanted);
+        }
+
+        String abortReason = siteDownReason != null ? siteDownReason
+                : gateFailed.size() + " of " + gateTotal + " gate tests failed";
+        Set<String> dropped = new TreeSet<>();
+        for (IMethodInstance method : methods) {
+            ITestNGMethod testMethod = method.getMethod();
+            String name = testMethod.getQualifiedName();
+            if (keep.contains(name)) {
+                continue;
+            }
+            dropped.add(name);
+            String reason;
+            if ("abort".equals(decision)) {
+                reason = "run aborted, " + abortReason;
+            } else if (gatePassed.contains(name)) {
+                reason = "already passed in the smoke stage";
+            } else {
+                reason = testMethod.getRealClass().getSimpleName() + " failed in the smoke stage";
+            }
+            blocked.put(blockKey(context, name), reason);
+        }
+
+        if ("abort".equals(decision)) {
+            logger.error("Smoke gate failed ({}), aborting '{}': {} methods skipped", abortReason, context.getName(),
+                    dropped.size());
+        } else {
+            logger.info("Smoke gate {} for '{}': running {} methods, {} skipped", decision, context.getName(),
+                    methods.size() - dropped.size(), dropped.size());
+        }
+        writeReport(context.getName(), decision, failureRatio, dropped);
+        // Dropped methods stay in the run so they are reported as skipped; run() keeps them from executing
+        return methods;
+    }
+
+    private static String blockKey(ITestContext context, String qualifiedName) {
+        return context.getName() + "#" + qualifiedName;
+    }
+
+    private static boolean isGating(ITestNGMethod method) {
+        Set<String> severities = new HashSet<>(Arrays.asList(
+                ConfigReader.getProperty("gate.severities", "blocker,critical").toLowerCase(Locale.ROOT).split("\\s*,\\s*")));
+        Method javaMethod = method.getConstructorOrMethod().getMethod();
+        Severity severity = javaMethod != null ? javaMethod.getAnnotation(Severity.class) : null;
+        if (severity == null) {
+            Class<?> testClass = method.getRealClass();
+            severity = testClass.getAnnotation(Severity.class);
+        }
+        SeverityLevel level = severity != null ? severity.value() : SeverityLevel.NORMAL;
+        return severities.contains(level.value());
+    }
+
+    static boolean isSmokeStage(XmlTest test) {
+        return test != null && SMOKE_STAGE.equalsIgnoreCase(test.getParameter(STAGE_PARAMETER));
+    }
+
+    /**
+     * Check that the application answers at all; returns the reason it is down, or null
+     */
+    private static String probeBaseUrl() {
+        String baseUrl = ConfigReader.getBaseUrl();
+        int timeout = Integer.parseInt(ConfigReader.getProperty("gate.probe.timeout.seconds", "15"));
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(timeout))
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl))
+                    .timeout(Duration.ofSeconds(timeout))
+                    .GET()
+                    .build();
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status >= 500 ? "base URL " + baseUrl + " answered HTTP " + status : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "base URL probe interrupted";
+        } catch (IOException | RuntimeException e) {
+            return "base URL " + baseUrl + " unreachable (" + e.getClass().getSimpleName() + ": " + e.getMessage() + ")";
+        }
+    }
+
+    private void writeReport(String testName, String decision, double failureRatio, Set<String> dropped) {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("test", testName);
+        report.put("decision", decision);
+        if (siteDownReason != null) {
+            report.put("siteDown", siteDownReason);
+        }
+        report.put("gateFailureRatio", Math.round(failureRatio * 1000) / 1000.0);
+        report.putPOJO("gatePassed", new TreeSet<>(gatePassed));
+        report.putPOJO("gateFailed", new TreeSet<>(gateFailed));
+        report.putPOJO("gateConfigurationSkipped", new TreeSet<>(gateConfigurationSkipped));
+        report.putPOJO("dropped", dropped);
+
+        Path directory = Paths.get(ConfigReader.getReportsDirectory());
+        Path file = directory.resolve("gate.json");
+        try {
+            Files.createDirectories(directory);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        } catch (IOException e) {
+            logger.warn("Failed to write smoke gate report to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package listeners;
+
+import utils.DemoBlazeStandIn;
+import utils.LocalServer;
+
+/**
+ * Runs the suite against the local DemoBlaze stand-in (standin.enabled): serves it on standin.port for the
+ * duration of the suite. base.url and api.url must point at it, which the standin environment does
+ * (-Denvironment=standin, see config-standin.properties).
+ */
+public class StandIn extends LocalServerListener {
+
+    public StandIn() {
+        super("standin.enabled", "standin.port", "8091");
+    }
+
+    @Override
+    protected LocalServer createServer() {
+        return new DemoBlazeStandIn();
+    }
+}
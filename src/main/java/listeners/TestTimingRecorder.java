@@ -0,0 +1,52 @@
+package listeners;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import utils.TestDurationHistory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long each test method takes and updates the duration history when the suite ends.
+ * Invocations of data-driven methods are summed, since the whole method is what gets scheduled.
+ */
+public class TestTimingRecorder implements ITestListener, ISuiteListener {
+    private final Map<String, LongAdder> runTotals = new ConcurrentHashMap<>();
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        addDuration(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        addDuration(result);
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        addDuration(result);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (runTotals.isEmpty()) {
+            return;
+        }
+        runTotals.forEach((name, total) -> TestDurationHistory.record(name, total.sum()));
+        runTotals.clear();
+        TestDurationHistory.save();
+    }
+
+    private void addDuration(ITestResult result) {
+        // Skipped and cached tests are not recorded; their near-zero time says nothing about their real cost
+        if (ResultCache.isCached(result)) {
+            return;
+        }
+        long millis = Math.max(0, result.getEndMillis() - result.getStartMillis());
+        runTotals.computeIfAbsent(result.getMethod().getQualifiedName(), name -> new LongAdder()).add(millis);
+    }
+}
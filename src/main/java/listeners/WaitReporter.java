@@ -0,0 +1,130 @@
+package listeners;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import utils.ConfigReader;
+import utils.WaitAccounting;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Charges waits to the running test (from its start to the end of its teardown) and writes the wait accounting
+ * of the run when the suite ends: reports.directory/waits.json lists every call site and test, and
+ * waits-summary.txt ranks call sites by wasted time (timed-out waits plus fixed sleeps), the fallbacks
+ * worth eliminating first.
+ */
+public class WaitReporter implements ITestListener, IInvokedMethodListener, ISuiteListener {
+    private static final Logger logger = LogManager.getLogger(WaitReporter.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int SUMMARY_LOG_LINES = 10;
+
+    @Override
+    public void onStart(ISuite suite) {
+        WaitAccounting.clear();
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        WaitAccounting.startTest(InvocationKey.of(result.getMethod().getQualifiedName(), result.getParameters()));
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        // A test without teardown must not be charged for the next test's setup
+        if (method.getTestMethod().isBeforeMethodConfiguration()) {
+            WaitAccounting.endTest();
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.getTestMethod().isAfterMethodConfiguration()) {
+            WaitAccounting.endTest();
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!WaitAccounting.isEnabled()) {
+            return;
+        }
+        List<Map.Entry<String, WaitAccounting.Totals>> sites = ranked(WaitAccounting.getSites());
+        List<Map.Entry<String, WaitAccounting.Totals>> tests = ranked(WaitAccounting.getTests());
+        if (sites.isEmpty()) {
+            return;
+        }
+
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("suite", suite.getName());
+        addTotals(root.putArray("sites"), "site", sites);
+        addTotals(root.putArray("tests"), "test", tests);
+
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT, "%10s %8s %8s %6s %10s %10s  %s%n",
+                "wasted ms", "waits", "timeouts", "sleeps", "waited ms", "max ms", "call site"));
+        for (Map.Entry<String, WaitAccounting.Totals> site : sites) {
+            WaitAccounting.Totals totals = site.getValue();
+            summary.append(String.format(Locale.ROOT, "%10d %8d %8d %6d %10d %10d  %s%n",
+                    totals.getWastedMillis(), totals.getWaits(), totals.getTimeouts(), totals.getSleeps(),
+                    totals.getWaitedMillis() + totals.getSleptMillis(), totals.getMaxWaitedMillis(), site.getKey()));
+        }
+
+        Path directory = Paths.get(ConfigReader.getReportsDirectory());
+        try {
+            Files.createDirectories(directory);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(directory.resolve("waits.json").toFile(), root);
+            Files.write(directory.resolve("waits-summary.txt"), summary.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.warn("Failed to write wait accounting to {}", directory, e);
+            return;
+        }
+        long wasted = tests.stream().mapToLong(test -> test.getValue().getWastedMillis()).sum();
+        String[] lines = summary.toString().split("\n");
+        StringBuilder top = new StringBuilder();
+        for (int i = 0; i < Math.min(lines.length, SUMMARY_LOG_LINES + 1); i++) {
+            top.append('\n').append(lines[i]);
+        }
+        logger.info("Tests wasted {} ms in timed-out waits and sleeps; worst call sites (full list in {}):{}",
+                wasted, directory.resolve("waits-summary.txt"), top);
+    }
+
+    private static List<Map.Entry<String, WaitAccounting.Totals>> ranked(Map<String, WaitAccounting.Totals> totals) {
+        List<Map.Entry<String, WaitAccounting.Totals>> entries = new ArrayList<>(totals.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, WaitAccounting.Totals> entry) ->
+                entry.getValue().getWastedMillis()).reversed());
+        return entries;
+    }
+
+    private static void addTotals(ArrayNode array, String nameField, List<Map.Entry<String, WaitAccounting.Totals>> entries) {
+        for (Map.Entry<String, WaitAccounting.Totals> entry : entries) {
+            WaitAccounting.Totals totals = entry.getValue();
+            array.addObject()
+                    .put(nameField, entry.getKey())
+                    .put("wastedMillis", totals.getWastedMillis())
+                    .put("waits", totals.getWaits())
+                    .put("timeouts", totals.getTimeouts())
+                    .put("requestedMillis", totals.getRequestedMillis())
+                    .put("waitedMillis", totals.getWaitedMillis())
+                    .put("timedOutMillis", totals.getTimedOutMillis())
+                    .put("sleeps", totals.getSleeps())
+                    .put("sleptMillis", totals.getSleptMillis())
+                    .put("maxWaitedMillis", totals.getMaxWaitedMillis());
+        }
+    }
+}
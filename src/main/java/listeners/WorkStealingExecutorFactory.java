@@ -0,0 +1,55 @@
+package listeners;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IDynamicGraph;
+import org.testng.ISuite;
+import org.testng.ITestNGMethod;
+import org.testng.thread.IExecutorFactory;
+import org.testng.thread.IThreadWorkerFactory;
+import org.testng.thread.ITestNGThreadPoolExecutor;
+import utils.ConfigReader;
+import utils.DriverManager;
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor factory running parallel test methods on a {@link WorkStealingTestExecutor}, with concurrency
+ * capped by the browser session budget of {@link DriverManager}.
+ *
+ * TestNG takes executor factories only from its command line, so this is opt-in twice over: start TestNG with
+ * -threadpoolfactoryclass listeners.WorkStealingExecutorFactory and set executor.work.stealing=true. With the
+ * property left false the factory runs plain shared-queue pools of TestNG's thread-count.
+ */
+public class WorkStealingExecutorFactory implements IExecutorFactory {
+    private static final Logger logger = LogManager.getLogger(WorkStealingExecutorFactory.class);
+
+    @Override
+    public ITestNGThreadPoolExecutor newSuiteExecutor(String name, IDynamicGraph<ISuite> graph,
+                                                      IThreadWorkerFactory<ISuite> factory, int corePoolSize,
+                                                      int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                                      BlockingQueue<Runnable> workQueue, Comparator<ISuite> comparator) {
+        return new WorkStealingTestExecutor<>(name, graph, factory, Math.max(1, maximumPoolSize), comparator, false);
+    }
+
+    @Override
+    public ITestNGThreadPoolExecutor newTestMethodExecutor(String name, IDynamicGraph<ITestNGMethod> graph,
+                                                           IThreadWorkerFactory<ITestNGMethod> factory,
+                                                           int corePoolSize, int maximumPoolSize, long keepAliveTime,
+                                                           TimeUnit unit, BlockingQueue<Runnable> workQueue,
+                                                           Comparator<ITestNGMethod> comparator) {
+        if (!isEnabled()) {
+            return new WorkStealingTestExecutor<>(name, graph, factory, Math.max(1, maximumPoolSize), comparator,
+                    false);
+        }
+        int parallelism = Math.max(1, Math.min(maximumPoolSize, DriverManager.getSessionBudget()));
+        logger.info("Running '{}' on a work-stealing pool of {} workers (thread-count {}, session budget {})",
+                name, parallelism, maximumPoolSize, DriverManager.getSessionBudget());
+        return new WorkStealingTestExecutor<>(name, graph, factory, parallelism, comparator, true);
+    }
+
+    private static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("executor.work.stealing", "false"));
+    }
+}
@@ -0,0 +1,250 @@
+package listeners;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IDynamicGraph;
+import org.testng.TestNGException;
+import org.testng.thread.IThreadWorkerFactory;
+import org.testng.thread.ITestNGThreadPoolExecutor;
+import org.testng.thread.IWorker;
+import utils.ConfigReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the test methods of one TestNG test as ForkJoinPool tasks.
+ *
+ * Methods unblocked by a finished method are forked onto the finishing worker's own deque, and idle workers
+ * steal from busy ones, so no worker sits idle while runnable methods are queued elsewhere. Without local
+ * forking every method goes through the pool's shared submission queue, like a plain thread pool. The pool's
+ * parallelism is the concurrency cap. Queue depth, steals and per-worker utilisation are written to
+ * reports.directory/executor when the test finishes.
+ */
+public class WorkStealingTestExecutor<T> extends AbstractExecutorService implements ITestNGThreadPoolExecutor {
+    private static final Logger logger = LogManager.getLogger(WorkStealingTestExecutor.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String name;
+    private final IDynamicGraph<T> graph;
+    private final IThreadWorkerFactory<T> workerFactory;
+    private final Comparator<T> comparator;
+    private final ForkJoinPool pool;
+    private final boolean forkLocally;
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final Map<String, LongAdder> busyNanos = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> tasksPerWorker = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+    private volatile boolean shutdown;
+
+    // Queue depth samples, guarded by the graph lock
+    private int maxQueueDepth;
+    private long queueDepthTotal;
+    private long queueDepthSamples;
+
+    public WorkStealingTestExecutor(String name, IDynamicGraph<T> graph, IThreadWorkerFactory<T> workerFactory,
+                                    int parallelism, Comparator<T> comparator, boolean forkLocally) {
+        if (graph.getFreeNodes().isEmpty()) {
+            throw new TestNGException("The graph of methods contains a cycle:" + graph.getNodesWithStatus(IDynamicGraph.Status.READY));
+        }
+        this.name = name;
+        this.graph = graph;
+        this.workerFactory = workerFactory;
+        this.comparator = comparator;
+        this.forkLocally = forkLocally;
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("TestNG-" + name + "-ws-" + threadCounter.incrementAndGet());
+            return thread;
+        }, null, true);
+    }
+
+    /**
+     * Test method worker run as a fork/join task
+     */
+    private final class TestTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IWorker<T> worker;
+
+        private TestTask(IWorker<T> worker) {
+            this.worker = worker;
+        }
+
+        @Override
+        protected void compute() {
+            String thread = Thread.currentThread().getName();
+            long start = System.nanoTime();
+            try {
+                worker.run();
+            } catch (Throwable t) {
+                logger.error("Test worker {} failed", worker, t);
+            } finally {
+                busyNanos.computeIfAbsent(thread, key -> new LongAdder()).add(System.nanoTime() - start);
+                tasksPerWorker.computeIfAbsent(thread, key -> new LongAdder()).increment();
+                onWorkerFinished(worker);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        synchronized (graph) {
+            dispatch(freeNodes());
+        }
+    }
+
+    private List<T> freeNodes() {
+        List<T> nodes = graph.getFreeNodes();
+        if (comparator != null) {
+            nodes.sort(comparator);
+        }
+        return nodes;
+    }
+
+    private void dispatch(List<T> nodes) {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        boolean onOwnWorker = forkLocally && ForkJoinTask.getPool() == pool;
+        for (IWorker<T> worker : workerFactory.createWorkers(nodes)) {
+            graph.setStatus(worker.getTasks(), IDynamicGraph.Status.RUNNING);
+            inFlight.incrementAndGet();
+            TestTask task = new TestTask(worker);
+            if (onOwnWorker) {
+                // Local deque of the worker that just finished; idle workers steal from it
+                task.fork();
+            } else {
+                pool.execute(task);
+            }
+        }
+        int depth = (int) Math.min(Integer.MAX_VALUE, pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount());
+        maxQueueDepth = Math.max(maxQueueDepth, depth);
+        queueDepthTotal += depth;
+        queueDepthSamples++;
+    }
+
+    private void onWorkerFinished(IWorker<T> worker) {
+        synchronized (graph) {
+            graph.setStatus(worker.getTasks(), IDynamicGraph.Status.FINISHED);
+            inFlight.decrementAndGet();
+            if (graph.getNodeCount() == graph.getNodeCountWithStatus(IDynamicGraph.Status.FINISHED)) {
+                complete();
+                return;
+            }
+            if (!shutdown) {
+                dispatch(freeNodes());
+            }
+            if (inFlight.get() == 0) {
+                // Nothing running and nothing runnable; remaining methods can never start
+                complete();
+            }
+        }
+    }
+
+    private void complete() {
+        if (terminated.getCount() == 0) {
+            return;
+        }
+        shutdown = true;
+        writeReport();
+        pool.shutdown();
+        terminated.countDown();
+    }
+
+    private void writeReport() {
+        long wallNanos = Math.max(1, System.nanoTime() - startNanos);
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("test", name);
+        report.put("parallelism", pool.getParallelism());
+        report.put("wallMillis", TimeUnit.NANOSECONDS.toMillis(wallNanos));
+        report.put("steals", pool.getStealCount());
+        report.put("maxQueueDepth", maxQueueDepth);
+        report.put("averageQueueDepth", queueDepthSamples == 0 ? 0 : (double) queueDepthTotal / queueDepthSamples);
+        ObjectNode workers = report.putObject("workers");
+        double utilisationTotal = 0;
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(busyNanos).entrySet()) {
+            double utilisation = (double) entry.getValue().sum() / wallNanos;
+            utilisationTotal += utilisation;
+            workers.putObject(entry.getKey())
+                    .put("tasks", tasksPerWorker.get(entry.getKey()).sum())
+                    .put("busyMillis", TimeUnit.NANOSECONDS.toMillis(entry.getValue().sum()))
+                    .put("utilisation", Math.round(utilisation * 1000) / 1000.0);
+        }
+        double averageUtilisation = utilisationTotal / pool.getParallelism();
+        report.put("averageUtilisation", Math.round(averageUtilisation * 1000) / 1000.0);
+
+        logger.info("Executor '{}': {} workers, {} steals, max queue depth {}, average utilisation {}%",
+                name, pool.getParallelism(), pool.getStealCount(), maxQueueDepth, Math.round(averageUtilisation * 100));
+
+        Path directory = Paths.get(ConfigReader.getReportsDirectory(), "executor");
+        Path file = directory.resolve(name.replaceAll("[^A-Za-z0-9._-]", "_") + ".json");
+        try {
+            Files.createDirectories(directory);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        } catch (IOException e) {
+            logger.warn("Failed to write executor report to {}", file, e);
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        pool.execute(command);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        synchronized (graph) {
+            if (inFlight.get() == 0) {
+                complete();
+            }
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        pool.shutdownNow();
+        synchronized (graph) {
+            complete();
+        }
+        return Collections.unmodifiableList(new ArrayList<>());
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+}
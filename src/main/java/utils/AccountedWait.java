@@ -0,0 +1,45 @@
+package utils;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.FluentWait;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * WebDriverWait that reports every wait to {@link WaitAccounting}: its timeout, the time actually waited,
+ * whether it timed out, and the code that asked for it.
+ */
+public class AccountedWait extends WebDriverWait {
+    private Duration timeout;
+
+    public AccountedWait(WebDriver driver, Duration timeout) {
+        super(driver, timeout);
+        this.timeout = timeout;
+    }
+
+    @Override
+    public FluentWait<WebDriver> withTimeout(Duration timeout) {
+        this.timeout = timeout;
+        return super.withTimeout(timeout);
+    }
+
+    @Override
+    public <V> V until(Function<? super WebDriver, V> isTrue) {
+        if (!WaitAccounting.isEnabled()) {
+            return super.until(isTrue);
+        }
+        long start = System.nanoTime();
+        boolean timedOut = false;
+        WaitAccounting.enterWait();
+        try {
+            return super.until(isTrue);
+        } catch (TimeoutException e) {
+            timedOut = true;
+            throw e;
+        } finally {
+            WaitAccounting.exitWait(timeout.toMillis(), (System.nanoTime() - start) / 1_000_000, timedOut);
+        }
+    }
+}
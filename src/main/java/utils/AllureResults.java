@@ -0,0 +1,58 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads the *-result.json files Allure writes to allure.results.directory, one per test invocation.
+ */
+public class AllureResults {
+    private static final Logger logger = LogManager.getLogger(AllureResults.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Get results directory
+     */
+    public static Path getDirectory() {
+        return Paths.get(ConfigReader.getProperty("allure.results.directory", "allure-results"));
+    }
+
+    /**
+     * Read all timed results with a full name ("tests.CartTests.testAddProductToCart"), oldest first
+     */
+    public static List<JsonNode> readResults() {
+        Path directory = getDirectory();
+        List<JsonNode> results = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return results;
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().endsWith("-result.json")).forEach(path -> {
+                try {
+                    JsonNode result = objectMapper.readTree(path.toFile());
+                    if (result.hasNonNull("fullName") && result.has("start") && result.has("stop")) {
+                        results.add(result);
+                    }
+                } catch (IOException e) {
+                    logger.debug("Skipping unreadable Allure result {}", path);
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to read Allure results from {}", directory, e);
+            return new ArrayList<>();
+        }
+
+        results.sort((a, b) -> Long.compare(a.path("start").asLong(), b.path("start").asLong()));
+        return results;
+    }
+}
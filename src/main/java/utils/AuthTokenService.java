@@ -0,0 +1,132 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Auth Token Service for obtaining session tokens from the backend login endpoint
+ */
+public class AuthTokenService {
+    private static final Logger logger = LogManager.getLogger(AuthTokenService.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private static final Map<String, String> tokenCache = new ConcurrentHashMap<>();
+
+    // Cookie the storefront reads to restore a logged-in session
+    public static final String SESSION_COOKIE = "tokenp_";
+    private static final String TOKEN_PREFIX = "Auth_token:";
+
+    /**
+     * Get auth token for user, reusing a cached token when available
+     */
+    public static String getToken(String username, String password) {
+        return tokenCache.computeIfAbsent(cacheKey(username, password), key -> requestToken(username, password));
+    }
+
+    /**
+     * Request a fresh auth token from the login endpoint
+     */
+    public static String requestToken(String username, String password) {
+        String loginUrl = ConfigReader.getApiUrl() + "/login";
+        try {
+            HttpResponse<String> response = httpClient.send(credentialsRequest(loginUrl, username, password),
+                    HttpResponse.BodyHandlers.ofString());
+
+            String token = parseToken(response.body());
+            logger.info("Auth token obtained for user: {}", username);
+            return token;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Token request interrupted for user: " + username, e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to obtain auth token from: {}", loginUrl, e);
+            throw new RuntimeException("Token request failed for user: " + username, e);
+        }
+    }
+
+    /**
+     * Register an account through the signup endpoint (skips the sign-up modal)
+     */
+    public static void registerUser(String username, String password) {
+        String signupUrl = ConfigReader.getApiUrl() + "/signup";
+        try {
+            HttpResponse<String> response = httpClient.send(credentialsRequest(signupUrl, username, password),
+                    HttpResponse.BodyHandlers.ofString());
+            JsonNode body = objectMapper.readTree(response.body());
+            if (response.statusCode() != 200 || (body != null && body.has("errorMessage"))) {
+                String error = body != null && body.has("errorMessage") ? body.get("errorMessage").asText() : response.body();
+                throw new RuntimeException("Signup endpoint rejected user " + username + ": " + error);
+            }
+            logger.info("Registered user via API: {}", username);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Signup request interrupted for user: " + username, e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to register user at: {}", signupUrl, e);
+            throw new RuntimeException("Signup request failed for user: " + username, e);
+        }
+    }
+
+    private static HttpRequest credentialsRequest(String url, String username, String password) throws Exception {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("username", username);
+        // The storefront sends the password base64-encoded, mirror that here
+        body.put("password", Base64.getEncoder().encodeToString(password.getBytes(StandardCharsets.UTF_8)));
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(ConfigReader.getExplicitWait()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+
+    /**
+     * Extract token from login response (e.g. "Auth_token: abc123")
+     */
+    static String parseToken(String responseBody) throws Exception {
+        JsonNode response = objectMapper.readTree(responseBody);
+        if (response != null && response.isTextual() && response.asText().startsWith(TOKEN_PREFIX)) {
+            return response.asText().substring(TOKEN_PREFIX.length()).trim();
+        }
+        String error = response != null && response.has("errorMessage")
+                ? response.get("errorMessage").asText()
+                : responseBody;
+        throw new RuntimeException("Login endpoint rejected credentials: " + error);
+    }
+
+    /**
+     * Drop cached token for user (e.g. after the site rejected it)
+     */
+    public static void invalidate(String username, String password) {
+        tokenCache.remove(cacheKey(username, password));
+        logger.debug("Auth token invalidated for user: {}", username);
+    }
+
+    /**
+     * Clear all cached tokens
+     */
+    public static void clearCache() {
+        tokenCache.clear();
+    }
+
+    private static String cacheKey(String username, String password) {
+        return username + '\u0000' + password;
+    }
+}
@@ -0,0 +1,101 @@
+package utils;
+
+import org.openqa.selenium.support.events.WebDriverListener;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The single WebDriver hook timing browser commands. {@link DriverManager} decorates new sessions with it while
+ * command listeners are registered; it keeps one per-thread stack of running commands and reports each command's
+ * start and duration to every listener, so reporters never time the same command separately.
+ */
+public final class CommandTiming implements WebDriverListener {
+    // Calls that only return local helper objects and never reach the browser
+    public static final Set<String> LOCAL_CALLS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "manage", "navigate", "switchTo", "getWrappedDriver", "getWrappedElement", "equals", "hashCode", "toString")));
+
+    static final CommandTiming HOOK = new CommandTiming();
+
+    private static final List<CommandListener> listeners = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Deque<Long>> runningCommands = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Notified on the calling thread when a browser command starts and ends
+     */
+    public interface CommandListener {
+        default void onCommandStart(Object target, Method method, Object[] args) {
+        }
+
+        /**
+         * @param result what the command returned, or null when it failed
+         * @param error what the command threw, or null
+         */
+        void onCommandEnd(Object target, Method method, Object[] args, Object result, Throwable error,
+                          long startNanos, long nanos);
+    }
+
+    private CommandTiming() {
+    }
+
+    /**
+     * Check whether a WebDriver call stays local (no browser round trip)
+     */
+    public static boolean isLocalCall(Method method) {
+        return LOCAL_CALLS.contains(method.getName());
+    }
+
+    static void register(CommandListener listener) {
+        listeners.add(listener);
+    }
+
+    static void unregister(CommandListener listener) {
+        listeners.remove(listener);
+    }
+
+    static boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        if (isLocalCall(method)) {
+            return;
+        }
+        runningCommands.get().push(System.nanoTime());
+        for (CommandListener listener : listeners) {
+            listener.onCommandStart(target, method, args);
+        }
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        end(target, method, args, result, null);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        end(target, method, args, null, e.getCause() != null ? e.getCause() : e);
+    }
+
+    private void end(Object target, Method method, Object[] args, Object result, Throwable error) {
+        if (isLocalCall(method)) {
+            return;
+        }
+        Long start = runningCommands.get().poll();
+        if (start == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        for (CommandListener listener : listeners) {
+            listener.onCommandEnd(target, method, args, result, error, start, nanos);
+        }
+    }
+}
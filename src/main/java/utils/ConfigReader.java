@@ -4,57 +4,243 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Configuration Reader class for managing application properties
+ * Configuration Reader class for managing application properties.
+ *
+ * Values are resolved once, lowest to highest precedence: defaults, config.properties,
+ * config-{environment}.properties, environment variables (BASE_URL for base.url),
+ * system properties (-Dbase.url=...), and TestNG parameters bound for the current test.
  */
 public class ConfigReader {
     private static final Logger logger = LogManager.getLogger(ConfigReader.class);
-    private static Properties properties;
     private static final String CONFIG_FILE = "config.properties";
 
-    static {
-        loadProperties();
+    private static final ConfigSnapshot baseSnapshot = resolve();
+    private static final Map<Map<String, String>, ConfigSnapshot> parameterSnapshots = new ConcurrentHashMap<>();
+    private static final ThreadLocal<ConfigSnapshot> testSnapshot = new ThreadLocal<>();
+
+    /**
+     * Resolve all layers into one immutable snapshot
+     */
+    private static ConfigSnapshot resolve() {
+        Map<String, String> resolved = getDefaultProperties();
+
+        if (!loadProperties(CONFIG_FILE, resolved)) {
+            logger.warn("Configuration file '{}' not found. Using default values.", CONFIG_FILE);
+        }
+
+        // The environment itself may be overridden, so select the environment file with overrides applied
+        String environment = lookupOverride("environment", resolved.get("environment"));
+        String environmentFile = "config-" + environment + ".properties";
+        if (loadProperties(environmentFile, resolved)) {
+            logger.info("Environment configuration '{}' applied", environmentFile);
+        }
+
+        for (String key : resolved.keySet().toArray(new String[0])) {
+            resolved.put(key, lookupOverride(key, resolved.get(key)));
+        }
+
+        ConfigSnapshot snapshot = new ConfigSnapshot(resolved);
+        logger.info("Configuration resolved for environment '{}' (browser: {}, base URL: {})",
+                snapshot.getEnvironment(), snapshot.getBrowser(), snapshot.getBaseUrl());
+        return snapshot;
     }
 
     /**
-     * Load properties from config file
+     * Load properties file from classpath into target map
      */
-    private static void loadProperties() {
-        properties = new Properties();
-        try (InputStream inputStream = ConfigReader.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
-            if (inputStream != null) {
-                properties.load(inputStream);
-                logger.info("Configuration properties loaded successfully");
-            } else {
-                logger.warn("Configuration file '{}' not found. Using default values.", CONFIG_FILE);
-                setDefaultProperties();
+    private static boolean loadProperties(String fileName, Map<String, String> target) {
+        try (InputStream inputStream = ConfigReader.class.getClassLoader().getResourceAsStream(fileName)) {
+            if (inputStream == null) {
+                return false;
             }
+            Properties properties = new Properties();
+            properties.load(inputStream);
+            properties.stringPropertyNames().forEach(key -> target.put(key, properties.getProperty(key)));
+            logger.info("Configuration properties loaded successfully from: {}", fileName);
+            return true;
         } catch (IOException e) {
-            logger.error("Error loading configuration properties", e);
-            setDefaultProperties();
+            logger.error("Error loading configuration properties from: {}", fileName, e);
+            return false;
         }
     }
 
     /**
-     * Set default properties if config file is not found
+     * Apply environment variable then system property override for key
      */
-    private static void setDefaultProperties() {
-        properties.setProperty("base.url", "https://www.demoblaze.com");
-        properties.setProperty("browser", "chrome");
-        properties.setProperty("implicit.wait", "10");
-        properties.setProperty("explicit.wait", "10");
-        properties.setProperty("page.load.timeout", "30");
-        properties.setProperty("test.data.file", "testdata.json");
-        logger.info("Default properties set");
+    private static String lookupOverride(String key, String currentValue) {
+        String value = currentValue;
+        String envValue = System.getenv(toEnvironmentVariable(key));
+        if (envValue != null) {
+            value = envValue;
+        }
+        String systemValue = System.getProperty(key);
+        if (systemValue != null) {
+            value = systemValue;
+        }
+        return value;
+    }
+
+    private static String toEnvironmentVariable(String key) {
+        return key.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_');
+    }
+
+    /**
+     * Default properties (lowest precedence layer)
+     */
+    private static Map<String, String> getDefaultProperties() {
+        Map<String, String> defaults = new HashMap<>();
+        defaults.put("base.url", "https://www.demoblaze.com");
+        defaults.put("api.url", "https://api.demoblaze.com");
+        defaults.put("environment", "prod");
+        defaults.put("browser", "chrome");
+        defaults.put("headless.mode", "false");
+        defaults.put("implicit.wait", "10");
+        defaults.put("explicit.wait", "10");
+        defaults.put("page.load.timeout", "30");
+        defaults.put("parallel.mode", "none");
+        defaults.put("thread.count", "1");
+        defaults.put("data.provider.thread.count", "1");
+        defaults.put("executor.work.stealing", "false");
+        defaults.put("browser.session.budget", "0");
+        defaults.put("session.acquire.timeout.seconds", "600");
+        defaults.put("autoscaler.enabled", "true");
+        defaults.put("autoscaler.interval.seconds", "10");
+        defaults.put("autoscaler.cores.per.session", "1.0");
+        defaults.put("autoscaler.session.memory.mb", "400");
+        defaults.put("autoscaler.memory.reserve.mb", "1024");
+        defaults.put("autoscaler.cpu.high", "0.90");
+        defaults.put("autoscaler.cpu.low", "0.70");
+        defaults.put("autoscaler.latency.factor", "2.0");
+        defaults.put("scheduler.enabled", "true");
+        defaults.put("scheduler.default.duration.ms", "30000");
+        defaults.put("timing.history.file", "test-output/timings/durations.json");
+        defaults.put("allure.results.directory", "allure-results");
+        defaults.put("shard.index", "0");
+        defaults.put("shard.count", "1");
+        defaults.put("shard.results.directory", "test-output/shards");
+        defaults.put("gate.enabled", "true");
+        defaults.put("gate.severities", "blocker,critical");
+        defaults.put("gate.thread.count", "4");
+        defaults.put("gate.abort.failure.ratio", "0.5");
+        defaults.put("gate.probe.timeout.seconds", "15");
+        defaults.put("run.ledger.file", "test-output/ledger/run-ledger.json");
+        defaults.put("rerun.failed", "false");
+        defaults.put("rerun.source", "auto");
+        defaults.put("rerun.reuse.sessions", "true");
+        defaults.put("session.reuse", "false");
+        defaults.put("result.cache.enabled", "false");
+        defaults.put("result.cache.tests", "tests.ProductTests");
+        defaults.put("result.cache.ttl.minutes", "1440");
+        defaults.put("result.cache.file", "test-output/cache/results.json");
+        defaults.put("impact.base", "");
+        defaults.put("impact.source.roots", "src/main/java,src/test/java");
+        defaults.put("impact.ignore", "**.md,allure-results/**,logs/**");
+        defaults.put("checkpoint.enabled", "false");
+        defaults.put("checkpoint.resume", "false");
+        defaults.put("checkpoint.journal.file", "test-output/checkpoint/journal.ndjson");
+        defaults.put("latency.enabled", "true");
+        defaults.put("trace.enabled", "false");
+        defaults.put("trace.directory", "test-output/traces");
+        defaults.put("wait.accounting.enabled", "true");
+        defaults.put("otel.enabled", "false");
+        defaults.put("otel.directory", "test-output/otel");
+        defaults.put("otel.service.name", "demoblaze-ui-tests");
+        defaults.put("metrics.enabled", "false");
+        defaults.put("metrics.host", "localhost");
+        defaults.put("metrics.port", "9464");
+        defaults.put("perf.enabled", "false");
+        defaults.put("perf.settle.millis", "300");
+        defaults.put("perf.settle.max.millis", "5000");
+        defaults.put("perf.budget.enforce", "false");
+        defaults.put("throttling.profile", "none");
+        defaults.put("har.enabled", "false");
+        defaults.put("har.directory", "test-output/har");
+        defaults.put("har.body.max.kb", "2048");
+        defaults.put("har.replay.enabled", "false");
+        defaults.put("har.replay.port", "8090");
+        defaults.put("har.replay.origin", "https://www.demoblaze.com");
+        defaults.put("standin.enabled", "false");
+        defaults.put("standin.port", "8091");
+        defaults.put("standin.latency.ms", "0");
+        defaults.put("standin.jitter.ms", "0");
+        defaults.put("standin.error.rate", "0");
+        defaults.put("standin.stall.rate", "0");
+        defaults.put("standin.stall.ms", "30000");
+        defaults.put("test.data.file", "testdata.json");
+        defaults.put("data.shard.index", "");
+        defaults.put("data.shard.count", "");
+        defaults.put("reports.directory", "test-output/reports");
+        defaults.put("screenshots.directory", "test-output/screenshots");
+        return defaults;
+    }
+
+    /**
+     * Bind TestNG parameters (e.g. browser, baseUrl) as the highest layer for the current thread
+     */
+    public static void bindTestParameters(Map<String, String> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            testSnapshot.remove();
+            return;
+        }
+        testSnapshot.set(getSnapshot(parameters));
+    }
+
+    /**
+     * Get configuration snapshot with TestNG parameters applied, without binding it to the current thread
+     */
+    public static ConfigSnapshot getSnapshot(Map<String, String> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            return baseSnapshot;
+        }
+        return parameterSnapshots.computeIfAbsent(new HashMap<>(parameters), params -> {
+            Map<String, String> resolved = new HashMap<>(baseSnapshot.asMap());
+            params.forEach((name, value) -> resolved.put(toPropertyKey(name), value));
+            return new ConfigSnapshot(resolved);
+        });
+    }
+
+    /**
+     * Remove TestNG parameter layer from the current thread
+     */
+    public static void clearTestParameters() {
+        testSnapshot.remove();
+    }
+
+    /**
+     * Map TestNG parameter name to property key (baseUrl becomes base.url)
+     */
+    private static String toPropertyKey(String parameterName) {
+        StringBuilder key = new StringBuilder();
+        for (char c : parameterName.toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                key.append('.').append(Character.toLowerCase(c));
+            } else {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Get configuration snapshot in effect for the current thread
+     */
+    public static ConfigSnapshot getSnapshot() {
+        ConfigSnapshot snapshot = testSnapshot.get();
+        return snapshot != null ? snapshot : baseSnapshot;
     }
 
     /**
      * Get property value by key
      */
     public static String getProperty(String key) {
-        String value = properties.getProperty(key);
+        String value = getProperty(key, null);
         if (value == null) {
             logger.warn("Property '{}' not found", key);
             return "";
@@ -66,57 +252,62 @@ public class ConfigReader {
      * Get property value with default fallback
      */
     public static String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        String value = getSnapshot().get(key);
+        if (value != null) {
+            return value;
+        }
+        // Keys not declared in any file can still be supplied via system property or environment
+        String override = lookupOverride(key, null);
+        return override != null ? override : defaultValue;
     }
 
     /**
      * Get base URL for the application
      */
     public static String getBaseUrl() {
-        return getProperty("base.url", "https://www.demoblaze.com");
+        return getSnapshot().getBaseUrl();
+    }
+
+    /**
+     * Get backend API URL (point at a local stand-in to avoid the real backend)
+     */
+    public static String getApiUrl() {
+        return getSnapshot().getApiUrl();
     }
 
     /**
      * Get browser name for testing
      */
     public static String getBrowser() {
-        return getProperty("browser", "chrome");
+        return getSnapshot().getBrowser();
     }
 
     /**
      * Get implicit wait timeout
      */
     public static int getImplicitWait() {
-        try {
-            return Integer.parseInt(getProperty("implicit.wait", "10"));
-        } catch (NumberFormatException e) {
-            logger.warn("Invalid implicit wait value, using default: 10");
-            return 10;
-        }
+        return getSnapshot().getImplicitWait();
     }
 
     /**
      * Get explicit wait timeout
      */
     public static int getExplicitWait() {
-        try {
-            return Integer.parseInt(getProperty("explicit.wait", "10"));
-        } catch (NumberFormatException e) {
-            logger.warn("Invalid explicit wait value, using default: 10");
-            return 10;
-        }
+        return getSnapshot().getExplicitWait();
     }
 
     /**
      * Get page load timeout
      */
     public static int getPageLoadTimeout() {
-        try {
-            return Integer.parseInt(getProperty("page.load.timeout", "30"));
-        } catch (NumberFormatException e) {
-            logger.warn("Invalid page load timeout value, using default: 30");
-            return 30;
-        }
+        return getSnapshot().getPageLoadTimeout();
+    }
+
+    /**
+     * Get number of parallel worker threads
+     */
+    public static int getThreadCount() {
+        return getSnapshot().getThreadCount();
     }
 
     /**
@@ -144,14 +335,14 @@ public class ConfigReader {
      * Check if headless mode is enabled
      */
     public static boolean isHeadlessMode() {
-        return Boolean.parseBoolean(getProperty("headless.mode", "false"));
+        return getSnapshot().isHeadlessMode();
     }
 
     /**
      * Get environment (dev, staging, prod)
      */
     public static String getEnvironment() {
-        return getProperty("environment", "prod");
+        return getSnapshot().getEnvironment();
     }
 
     /**
@@ -160,8 +351,8 @@ public class ConfigReader {
     public static String getAllProperties() {
         StringBuilder sb = new StringBuilder();
         sb.append("Configuration Properties:\n");
-        properties.forEach((key, value) ->
+        getSnapshot().asMap().forEach((key, value) ->
                 sb.append(key).append(" = ").append(value).append("\n"));
         return sb.toString();
     }
-}
\ No newline at end of file
+}
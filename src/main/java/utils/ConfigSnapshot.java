@@ -0,0 +1,105 @@
+package utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable, fully resolved configuration with typed values precomputed once
+ */
+public final class ConfigSnapshot {
+    private static final Logger logger = LogManager.getLogger(ConfigSnapshot.class);
+
+    private final Map<String, String> values;
+    private final String baseUrl;
+    private final String apiUrl;
+    private final String browser;
+    private final String environment;
+    private final int implicitWait;
+    private final int explicitWait;
+    private final int pageLoadTimeout;
+    private final int threadCount;
+    private final boolean headlessMode;
+
+    ConfigSnapshot(Map<String, String> resolved) {
+        this.values = Collections.unmodifiableMap(new TreeMap<>(resolved));
+        this.baseUrl = get("base.url", "https://www.demoblaze.com");
+        this.apiUrl = get("api.url", "https://api.demoblaze.com");
+        this.browser = get("browser", "chrome");
+        this.environment = get("environment", "prod");
+        this.implicitWait = parseInt("implicit.wait", 10);
+        this.explicitWait = parseInt("explicit.wait", 10);
+        this.pageLoadTimeout = parseInt("page.load.timeout", 30);
+        this.threadCount = parseInt("thread.count", 1);
+        this.headlessMode = Boolean.parseBoolean(get("headless.mode", "false"));
+    }
+
+    /**
+     * Get raw value, or null if the key is not configured in any layer
+     */
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Get raw value with default fallback
+     */
+    public String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    public Map<String, String> asMap() {
+        return values;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    public String getEnvironment() {
+        return environment;
+    }
+
+    public int getImplicitWait() {
+        return implicitWait;
+    }
+
+    public int getExplicitWait() {
+        return explicitWait;
+    }
+
+    public int getPageLoadTimeout() {
+        return pageLoadTimeout;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public boolean isHeadlessMode() {
+        return headlessMode;
+    }
+
+    private int parseInt(String key, int defaultValue) {
+        String value = values.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid {} value '{}', using default: {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+}
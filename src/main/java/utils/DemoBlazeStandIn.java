@@ -0,0 +1,543 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for DemoBlaze: serves the store's pages and implements its API in memory, for network-free
+ * runs with reproducible backend behaviour (-Denvironment=standin, see config-standin.properties).
+ *
+ * Pages live under /, the API under /api (entries, pagination, bycat, view, signup, login, check, addtocart,
+ * viewcart, deleteitem, deletecart, order). Accounts, carts and orders last as long as the server. Each
+ * endpoint can be slowed down or made to fail with standin.latency.ms, standin.jitter.ms, standin.error.rate,
+ * standin.stall.rate and standin.stall.ms, suffixed with .&lt;endpoint&gt; to override the global value; page and
+ * static name the HTML pages and the other files. With standin.seed every fault is drawn from the seed and the
+ * request itself (method, URL, body and how many identical requests came before it), so a run sending the same
+ * requests gets the same faults whatever order parallel tests send them in.
+ */
+public final class DemoBlazeStandIn implements LocalServer {
+    private static final Logger logger = LogManager.getLogger(DemoBlazeStandIn.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String RESOURCES = "standin/";
+    private static final String API_PREFIX = "/api/";
+    private static final String TOKEN_PREFIX = "Auth_token: ";
+    private static final int PAGE_SIZE = 9;
+    private static final Pattern INCLUDE = Pattern.compile("<!--#(\\w+)-->");
+    private static final Pattern IMAGE = Pattern.compile("/imgs/(\\d+)\\.svg");
+    private static final DateTimeFormatter ORDER_DATE = DateTimeFormatter.ofPattern("d/M/yyyy");
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Map<Integer, JsonNode> catalog = new LinkedHashMap<>();
+    private final Map<String, String> users = new ConcurrentHashMap<>();
+    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+    private final Map<String, CartItem> cartItems = new LinkedHashMap<>();
+    private final Map<String, JsonNode> orders = new ConcurrentHashMap<>();
+    private final Map<String, Fault> faults = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> resources = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> repeats = new ConcurrentHashMap<>();
+    private final LongAdder injected = new LongAdder();
+    private final Random random;
+    private final Long seed;
+    private HttpServer server;
+    private String baseUrl;
+
+    /**
+     * Product in a cart
+     */
+    private static final class CartItem {
+        private final String id;
+        private final String owner;
+        private final String cookie;
+        private final int productId;
+
+        private CartItem(String id, String owner, String cookie, int productId) {
+            this.id = id;
+            this.owner = owner;
+            this.cookie = cookie;
+            this.productId = productId;
+        }
+    }
+
+    /**
+     * Latency and failures injected into one endpoint
+     */
+    private static final class Fault {
+        private final long latencyMillis;
+        private final long jitterMillis;
+        private final double errorRate;
+        private final double stallRate;
+        private final long stallMillis;
+
+        private Fault(String endpoint) {
+            latencyMillis = Long.parseLong(setting("standin.latency.ms", endpoint, "0"));
+            jitterMillis = Long.parseLong(setting("standin.jitter.ms", endpoint, "0"));
+            errorRate = Double.parseDouble(setting("standin.error.rate", endpoint, "0"));
+            stallRate = Double.parseDouble(setting("standin.stall.rate", endpoint, "0"));
+            stallMillis = Long.parseLong(setting("standin.stall.ms", endpoint, "30000"));
+        }
+
+        private static String setting(String key, String endpoint, String defaultValue) {
+            return ConfigReader.getProperty(key + "." + endpoint, ConfigReader.getProperty(key, defaultValue)).trim();
+        }
+    }
+
+    public DemoBlazeStandIn() {
+        String seedText = ConfigReader.getProperty("standin.seed", "").trim();
+        seed = seedText.isEmpty() ? null : Long.parseLong(seedText);
+        random = seed == null ? new Random() : new Random(seed);
+        try {
+            for (JsonNode product : objectMapper.readTree(resource("catalog.json"))) {
+                catalog.put(product.path("id").asInt(), product);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read the stand-in catalog", e);
+        }
+    }
+
+    /**
+     * Start serving on a port (0 for any free port)
+     */
+    @Override
+    public synchronized void start(int port) {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not start DemoBlaze stand-in on port " + port, e);
+        }
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "demoblaze-standin");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        logger.info("DemoBlaze stand-in serving {} products at {}, API at {}", catalog.size(), baseUrl, getApiUrl());
+    }
+
+    /**
+     * Stop serving and log the traffic per endpoint
+     */
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        server = null;
+        Map<String, Long> counts = new LinkedHashMap<>();
+        requests.forEach((endpoint, count) -> counts.put(endpoint, count.sum()));
+        logger.info("DemoBlaze stand-in served {}, injected {} faults, took {} orders", counts, injected.sum(), orders.size());
+    }
+
+    /**
+     * Local URL of the store, e.g. http://localhost:8091
+     */
+    @Override
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Local URL of the API, e.g. http://localhost:8091/api
+     */
+    public String getApiUrl() {
+        return baseUrl + API_PREFIX.substring(0, API_PREFIX.length() - 1);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] requestBody = in.readAllBytes();
+            String path = exchange.getRequestURI().getPath();
+            boolean api = path.startsWith(API_PREFIX);
+            exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+            if ("OPTIONS".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "*");
+                exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, OPTIONS");
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+            String endpoint = api ? path.substring(API_PREFIX.length())
+                    : path.equals("/") || path.endsWith(".html") ? "page" : "static";
+            requests.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+            if (injectFault(exchange, endpoint, requestBody)) {
+                return;
+            }
+            if (api) {
+                JsonNode request = requestBody.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(requestBody);
+                Object response = callApi(endpoint, request);
+                if (response == null) {
+                    send(exchange, 404, "application/json", error("Unknown endpoint " + endpoint));
+                } else {
+                    send(exchange, 200, "application/json", objectMapper.writeValueAsBytes(response));
+                }
+            } else {
+                serveFile(exchange, path);
+            }
+        } catch (RuntimeException | IOException e) {
+            logger.warn("DemoBlaze stand-in failed for {}", exchange.getRequestURI(), e);
+            send(exchange, 500, "application/json", error(String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Delay the response as configured for the endpoint; true if a failure was sent instead
+     */
+    private boolean injectFault(HttpExchange exchange, String endpoint, byte[] requestBody) throws IOException {
+        Fault fault = faults.computeIfAbsent(endpoint, Fault::new);
+        long delay = fault.latencyMillis;
+        boolean fail = false;
+        boolean stall = false;
+        if (fault.jitterMillis > 0 || fault.errorRate > 0 || fault.stallRate > 0) {
+            SplittableRandom faultRandom = faultRandom(exchange, requestBody);
+            if (fault.jitterMillis > 0) {
+                delay += (long) (faultRandom.nextDouble() * (fault.jitterMillis + 1));
+            }
+            fail = fault.errorRate > 0 && faultRandom.nextDouble() < fault.errorRate;
+            stall = fault.stallRate > 0 && faultRandom.nextDouble() < fault.stallRate;
+        }
+        if (stall) {
+            delay += fault.stallMillis;
+        }
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (fail) {
+            injected.increment();
+            send(exchange, 500, "application/json", error("Injected fault"));
+        } else if (stall) {
+            injected.increment();
+        }
+        return fail;
+    }
+
+    /**
+     * Random source of one request's faults: fixed by standin.seed and the request when a seed is set
+     */
+    private SplittableRandom faultRandom(HttpExchange exchange, byte[] requestBody) {
+        if (seed == null) {
+            return new SplittableRandom(ThreadLocalRandom.current().nextLong());
+        }
+        long request = hash(FNV_OFFSET, (exchange.getRequestMethod() + ' ' + exchange.getRequestURI() + '\n')
+                .getBytes(StandardCharsets.UTF_8));
+        request = hash(request, requestBody);
+        long repeat = repeats.computeIfAbsent(request, key -> new AtomicLong()).getAndIncrement();
+        return new SplittableRandom(seed ^ (request * FNV_PRIME + repeat));
+    }
+
+    private static long hash(long hash, byte[] bytes) {
+        for (byte value : bytes) {
+            hash = (hash ^ (value & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private Object callApi(String endpoint, JsonNode request) {
+        switch (endpoint) {
+            case "entries":
+                return page(0);
+            case "pagination":
+                return page(request.path("id").asInt());
+            case "bycat":
+                return byCategory(request.path("cat").asText());
+            case "view":
+                JsonNode product = catalog.get(request.path("id").asInt());
+                return product != null ? product : errorNode("Product not found.");
+            case "signup":
+                return signUp(request.path("username").asText(), request.path("password").asText());
+            case "login":
+                return logIn(request.path("username").asText(), request.path("password").asText());
+            case "check":
+                return check(request.path("token").asText());
+            case "addtocart":
+                return addToCart(request);
+            case "viewcart":
+                return viewCart(request);
+            case "deleteitem":
+                synchronized (cartItems) {
+                    cartItems.remove(request.path("id").asText());
+                }
+                return "Item deleted.";
+            case "deletecart":
+                clearCart(owner(request));
+                return "Cart deleted.";
+            case "order":
+                return order(request);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Products after the one with the given id, at most a page of them
+     */
+    private ObjectNode page(int afterId) {
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode items = response.putArray("Items");
+        int last = afterId;
+        for (Map.Entry<Integer, JsonNode> product : catalog.entrySet()) {
+            if (product.getKey() > afterId && items.size() < PAGE_SIZE) {
+                items.add(product.getValue());
+                last = product.getKey();
+            }
+        }
+        int lastShown = last;
+        if (catalog.keySet().stream().anyMatch(id -> id > lastShown)) {
+            response.putObject("LastEvaluatedKey").put("id", String.valueOf(lastShown));
+        }
+        return response;
+    }
+
+    private ObjectNode byCategory(String category) {
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode items = response.putArray("Items");
+        catalog.values().stream().filter(product -> product.path("cat").asText().equals(category)).forEach(items::add);
+        return response;
+    }
+
+    private Object signUp(String username, String password) {
+        if (username.isEmpty() || password.isEmpty()) {
+            return errorNode("Please fill out Username and Password.");
+        }
+        return users.putIfAbsent(username, password) == null ? "" : errorNode("This user already exist.");
+    }
+
+    private Object logIn(String username, String password) {
+        String registered = users.get(username);
+        if (registered == null) {
+            return errorNode("User does not exist.");
+        }
+        if (!registered.equals(password)) {
+            return errorNode("Wrong password.");
+        }
+        String token = Base64.getEncoder().encodeToString(
+                (username + UUID.randomUUID().toString().substring(0, 8)).getBytes(StandardCharsets.UTF_8));
+        tokens.put(token, username);
+        return TOKEN_PREFIX + token;
+    }
+
+    private ObjectNode check(String token) {
+        String username = tokens.get(token);
+        if (username == null) {
+            return errorNode("Token does not exist.");
+        }
+        ObjectNode response = objectMapper.createObjectNode();
+        response.putObject("Item").put("token", token).put("username", username);
+        return response;
+    }
+
+    /**
+     * Cart owner of a request: the user of the token when flag is set, else the anonymous cookie
+     */
+    private String owner(JsonNode request) {
+        String cookie = request.path("cookie").asText();
+        if (request.path("flag").asBoolean()) {
+            String username = tokens.get(cookie);
+            return "user:" + (username != null ? username : cookie);
+        }
+        return "cookie:" + cookie;
+    }
+
+    private String addToCart(JsonNode request) {
+        int productId = request.path("prod_id").asInt();
+        if (!catalog.containsKey(productId)) {
+            throw new IllegalArgumentException("Unknown product " + productId);
+        }
+        String id = request.path("id").asText(UUID.randomUUID().toString());
+        synchronized (cartItems) {
+            cartItems.put(id, new CartItem(id, owner(request), request.path("cookie").asText(), productId));
+        }
+        return "Product added.";
+    }
+
+    private ObjectNode viewCart(JsonNode request) {
+        String owner = owner(request);
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode items = response.putArray("Items");
+        for (CartItem item : cartItemsOf(owner)) {
+            items.addObject().put("cookie", item.cookie).put("id", item.id).put("prod_id", item.productId);
+        }
+        return response;
+    }
+
+    private List<CartItem> cartItemsOf(String owner) {
+        List<CartItem> items = new ArrayList<>();
+        synchronized (cartItems) {
+            for (CartItem item : cartItems.values()) {
+                if (item.owner.equals(owner)) {
+                    items.add(item);
+                }
+            }
+        }
+        return items;
+    }
+
+    private void clearCart(String owner) {
+        synchronized (cartItems) {
+            cartItems.values().removeIf(item -> item.owner.equals(owner));
+        }
+    }
+
+    private ObjectNode order(JsonNode request) {
+        if (request.path("name").asText().isEmpty() || request.path("card").asText().isEmpty()) {
+            return errorNode("Please fill out Name and Creditcard.");
+        }
+        String owner = owner(request);
+        int amount = 0;
+        for (CartItem item : cartItemsOf(owner)) {
+            amount += catalog.get(item.productId).path("price").asInt();
+        }
+        clearCart(owner);
+        String id;
+        synchronized (random) {
+            id = String.valueOf(1_000_000 + random.nextInt(9_000_000));
+        }
+        String date = LocalDate.now().format(ORDER_DATE);
+        orders.put(id, ((ObjectNode) request.deepCopy()).put("id", id).put("amount", amount).put("date", date));
+        return objectMapper.createObjectNode().put("id", id).put("amount", amount).put("date", date);
+    }
+
+    private void serveFile(HttpExchange exchange, String path) throws IOException {
+        String name = path.equals("/") ? "index.html" : path.substring(1);
+        Matcher image = IMAGE.matcher(path);
+        if (image.matches()) {
+            JsonNode product = catalog.get(Integer.parseInt(image.group(1)));
+            if (product != null) {
+                send(exchange, 200, "image/svg+xml", image(product.path("title").asText()));
+                return;
+            }
+        }
+        byte[] body = name.contains("..") || name.equals("catalog.json") ? null
+                : resources.computeIfAbsent(name, this::render);
+        if (body == null || body.length == 0) {
+            send(exchange, 404, "text/plain", ("Not found: " + path).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        send(exchange, 200, contentType(name), body);
+    }
+
+    /**
+     * Page or file from the classpath with &lt;!--#name--&gt; replaced by name.html; empty if there is none
+     */
+    private byte[] render(String name) {
+        try {
+            byte[] content = resource(name);
+            if (!name.endsWith(".html")) {
+                return content;
+            }
+            Matcher include = INCLUDE.matcher(new String(content, StandardCharsets.UTF_8));
+            StringBuffer page = new StringBuffer();
+            while (include.find()) {
+                include.appendReplacement(page, Matcher.quoteReplacement(
+                        new String(resource(include.group(1) + ".html"), StandardCharsets.UTF_8)));
+            }
+            include.appendTail(page);
+            return page.toString().getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+
+    private static byte[] resource(String name) throws IOException {
+        try (InputStream in = DemoBlazeStandIn.class.getClassLoader().getResourceAsStream(RESOURCES + name)) {
+            if (in == null) {
+                throw new IOException("No stand-in resource " + name);
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] image(String title) {
+        String label = title.replace("&", "&amp;").replace("<", "&lt;");
+        return ("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"300\" height=\"300\">"
+                + "<rect width=\"300\" height=\"300\" fill=\"#e9ecef\"/>"
+                + "<text x=\"150\" y=\"155\" font-family=\"sans-serif\" font-size=\"20\" text-anchor=\"middle\">"
+                + label + "</text></svg>").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String contentType(String name) {
+        String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        switch (extension) {
+            case "html":
+                return "text/html; charset=utf-8";
+            case "js":
+                return "application/javascript; charset=utf-8";
+            case "css":
+                return "text/css; charset=utf-8";
+            case "json":
+                return "application/json";
+            case "svg":
+                return "image/svg+xml";
+            default:
+                return "application/octet-stream";
+        }
+    }
+
+    private static ObjectNode errorNode(String message) {
+        return objectMapper.createObjectNode().put("errorMessage", message);
+    }
+
+    private static byte[] error(String message) {
+        try {
+            return objectMapper.writeValueAsBytes(errorNode(message));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Serve the stand-in until killed: DemoBlazeStandIn [port]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0])
+                : Integer.parseInt(ConfigReader.getProperty("standin.port", "8091"));
+        DemoBlazeStandIn standIn = new DemoBlazeStandIn();
+        standIn.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(standIn::stop, "demoblaze-standin-stop"));
+        System.out.println("Run the suite with -Dbase.url=" + standIn.getBaseUrl() + " -Dapi.url=" + standIn.getApiUrl());
+        Thread.currentThread().join();
+    }
+}
@@ -3,26 +3,83 @@ package utils;
 import io.github.bonigarcia.wdm.WebDriverManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Driver Manager class for WebDriver initialization and management
+ * Driver Manager class for WebDriver initialization and management.
+ *
+ * Each thread owns at most one driver. Every live driver is also tracked in a registry so sessions
+ * left behind by a failed teardown or a reused worker thread are still quit at the end of the suite.
+ * New sessions wait for a permit, so at most getSessionLimit() browsers run at once.
+ *
+ * With session reuse (session.reuse, or enabled by a rerun) releaseDriver() keeps the browser warm for the
+ * thread's next test after clearing cookies and storage; an idle warm session gives up its slot as soon as
+ * another thread needs a new browser.
  */
 public class DriverManager {
     private static final Logger logger = LogManager.getLogger(DriverManager.class);
     private static final ThreadLocal<WebDriver> driverThreadLocal = new ThreadLocal<>();
+    private static final ThreadLocal<String> browserThreadLocal = new ThreadLocal<>();
+    private static final ThreadLocal<String> throttlingThreadLocal = new ThreadLocal<>();
+    private static final Map<WebDriver, String> activeDrivers = new ConcurrentHashMap<>();
+    private static final Set<WebDriver> idleDrivers = ConcurrentHashMap.newKeySet();
+    private static volatile boolean sessionReuse = Boolean.parseBoolean(ConfigReader.getProperty("session.reuse", "false"));
+    private static volatile int automaticBudget = 1;
+    private static final SessionLimiter sessionLimiter = new SessionLimiter(getSessionBudget());
+    private static final Map<WebDriver, HarRecorder> harRecorders = new ConcurrentHashMap<>();
+    private static final AtomicInteger harSequence = new AtomicInteger();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverManager::quitAllDrivers, "driver-cleanup"));
+    }
 
     /**
      * Initialize WebDriver based on browser type
      */
     public static void initializeDriver(String browserName) {
+        WebDriver current = driverThreadLocal.get();
+        if (current != null) {
+            if (idleDrivers.remove(current)) {
+                if (browserName.equalsIgnoreCase(browserThreadLocal.get())) {
+                    logger.info("Reusing warm {} session of thread {}", browserName, Thread.currentThread().getName());
+                    setThrottlingProfile(getConfiguredThrottlingProfile());
+                    return;
+                }
+                quitDriver();
+            } else if (activeDrivers.containsKey(current)) {
+                // A thread that never reached teardown would otherwise leak its previous browser
+                logger.warn("Thread {} still holds a WebDriver, quitting it before initializing a new one",
+                        Thread.currentThread().getName());
+                quitDriver();
+            } else {
+                // The idle session was reclaimed by a thread that needed a browser
+                driverThreadLocal.remove();
+                browserThreadLocal.remove();
+                throttlingThreadLocal.remove();
+            }
+        }
+
+        acquireSession();
         WebDriver driver = null;
 
         try {
@@ -41,17 +98,58 @@ public class DriverManager {
                     driver = initializeChromeDriver();
             }
 
+            WebDriver rawDriver = driver;
+            if (CommandTiming.hasListeners()) {
+                driver = new EventFiringDecorator<>(CommandTiming.HOOK).decorate(driver);
+            }
+
             if (driver != null) {
+                activeDrivers.put(driver, Thread.currentThread().getName());
+                startHarRecording(driver, rawDriver, browserName);
                 configureDriver(driver);
                 driverThreadLocal.set(driver);
+                browserThreadLocal.set(browserName);
+                setThrottlingProfile(getConfiguredThrottlingProfile());
                 logger.info("WebDriver initialized successfully for browser: {}", browserName);
             }
         } catch (Exception e) {
             logger.error("Failed to initialize WebDriver for browser: {}", browserName, e);
+            if (driver != null && activeDrivers.containsKey(driver)) {
+                // Quitting a registered driver also frees its session slot
+                quitQuietly(driver);
+            } else {
+                sessionLimiter.release();
+            }
             throw new RuntimeException("Driver initialization failed", e);
         }
     }
 
+    /**
+     * Wait for a free browser session slot
+     */
+    private static void acquireSession() {
+        // A session kept warm by an idle thread gives up its slot before anyone has to wait
+        while (!sessionLimiter.tryAcquire()) {
+            if (!reclaimIdleSession()) {
+                awaitSession();
+                return;
+            }
+        }
+    }
+
+    private static void awaitSession() {
+        long timeoutSeconds = Long.parseLong(ConfigReader.getProperty("session.acquire.timeout.seconds", "600"));
+        try {
+            if (!sessionLimiter.acquire(timeoutSeconds, TimeUnit.SECONDS)) {
+                throw new RuntimeException("No browser session available within " + timeoutSeconds
+                        + " seconds (limit " + sessionLimiter.getLimit() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a browser session", e);
+        }
+    }
+
     /**
      * Initialize Chrome Driver
      */
@@ -67,8 +165,9 @@ public class DriverManager {
         options.addArguments("--disable-gpu");
         options.addArguments("--remote-allow-origins=*");
 
-        // Uncomment for headless mode
-        // options.addArguments("--headless");
+        if (ConfigReader.isHeadlessMode()) {
+            options.addArguments("--headless=new");
+        }
 
         logger.info("Initializing Chrome driver with options");
         return new ChromeDriver(options);
@@ -84,8 +183,9 @@ public class DriverManager {
         // Add Firefox options
         options.addArguments("--disable-blink-features=AutomationControlled");
 
-        // Uncomment for headless mode
-        // options.addArguments("--headless");
+        if (ConfigReader.isHeadlessMode()) {
+            options.addArguments("--headless");
+        }
 
         logger.info("Initializing Firefox driver with options");
         return new FirefoxDriver(options);
@@ -102,6 +202,9 @@ public class DriverManager {
         options.addArguments("--disable-blink-features=AutomationControlled");
         options.addArguments("--disable-extensions");
         options.addArguments("--remote-allow-origins=*");
+        if (ConfigReader.isHeadlessMode()) {
+            options.addArguments("--headless=new");
+        }
 
         logger.info("Initializing Edge driver with options");
         return new EdgeDriver(options);
@@ -112,8 +215,8 @@ public class DriverManager {
      */
     private static void configureDriver(WebDriver driver) {
         driver.manage().window().maximize();
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-        driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(30));
+        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(ConfigReader.getImplicitWait()));
+        driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(ConfigReader.getPageLoadTimeout()));
         driver.manage().deleteAllCookies();
         logger.info("Driver configured with timeouts and window settings");
     }
@@ -129,21 +232,264 @@ public class DriverManager {
         return driver;
     }
 
+    /**
+     * Get browser of the current thread's WebDriver, or the configured browser when it has none
+     */
+    public static String getCurrentBrowser() {
+        String browser = browserThreadLocal.get();
+        return browser != null ? browser : ConfigReader.getBrowser();
+    }
+
+    /**
+     * Release WebDriver after a test: kept warm for this thread's next test when session reuse is on
+     * and its state could be reset, quit otherwise
+     */
+    public static void releaseDriver() {
+        WebDriver driver = driverThreadLocal.get();
+        if (driver != null && sessionReuse && activeDrivers.containsKey(driver)
+                && sessionLimiter.getWaitingCount() == 0 && resetSession(driver)) {
+            idleDrivers.add(driver);
+            logger.info("WebDriver kept warm for the next test of thread {}", Thread.currentThread().getName());
+            return;
+        }
+        quitDriver();
+    }
+
     /**
      * Quit WebDriver and clean up
      */
     public static void quitDriver() {
         WebDriver driver = driverThreadLocal.get();
+        driverThreadLocal.remove();
+        browserThreadLocal.remove();
+        throttlingThreadLocal.remove();
         if (driver != null) {
-            try {
-                driver.quit();
-                logger.info("WebDriver quit successfully");
-            } catch (Exception e) {
-                logger.error("Error while quitting WebDriver", e);
-            } finally {
-                driverThreadLocal.remove();
+            quitQuietly(driver);
+        }
+    }
+
+    /**
+     * Quit every driver still registered, from any thread (suite teardown and JVM shutdown)
+     */
+    public static void quitAllDrivers() {
+        if (activeDrivers.isEmpty()) {
+            return;
+        }
+        logger.info("Quitting {} remaining WebDriver session(s)", activeDrivers.size());
+        for (WebDriver driver : activeDrivers.keySet()) {
+            quitQuietly(driver);
+        }
+        driverThreadLocal.remove();
+        browserThreadLocal.remove();
+        throttlingThreadLocal.remove();
+    }
+
+    /**
+     * Get throttling profile selected for the current test (throttling.profile, or the throttlingProfile
+     * TestNG parameter of the suite or test)
+     */
+    public static String getConfiguredThrottlingProfile() {
+        return ConfigReader.getProperty("throttling.profile", ThrottlingProfile.NONE);
+    }
+
+    /**
+     * Emulate a network and CPU profile (see ThrottlingProfile) in the current thread's browser until another
+     * is set; browsers without CDP (Firefox) stay unthrottled
+     */
+    public static void setThrottlingProfile(String profileName) {
+        ThrottlingProfile profile = ThrottlingProfile.forName(profileName);
+        String applied = throttlingThreadLocal.get();
+        if (profile.getName().equals(applied) || (applied == null && profile.isNone())) {
+            return;
+        }
+        WebDriver driver = getDriver();
+        if (driver instanceof Decorated) {
+            driver = (WebDriver) ((Decorated<?>) driver).getOriginal();
+        }
+        if (!(driver instanceof HasCdp)) {
+            if (!profile.isNone()) {
+                logger.warn("Browser {} does not support CDP, running unthrottled instead of {}", getCurrentBrowser(), profile);
+            }
+            throttlingThreadLocal.remove();
+            return;
+        }
+        HasCdp cdp = (HasCdp) driver;
+        try {
+            cdp.executeCdpCommand("Network.enable", Collections.emptyMap());
+            Map<String, Object> conditions = new HashMap<>();
+            conditions.put("offline", false);
+            conditions.put("latency", profile.getLatencyMillis());
+            conditions.put("downloadThroughput", bytesPerSecond(profile.getDownloadKbps()));
+            conditions.put("uploadThroughput", bytesPerSecond(profile.getUploadKbps()));
+            cdp.executeCdpCommand("Network.emulateNetworkConditions", conditions);
+            cdp.executeCdpCommand("Emulation.setCPUThrottlingRate",
+                    Collections.singletonMap("rate", Math.max(1, profile.getCpuSlowdown())));
+        } catch (Exception e) {
+            throw new RuntimeException("Could not apply throttling profile " + profile, e);
+        }
+        if (profile.isNone()) {
+            throttlingThreadLocal.remove();
+        } else {
+            throttlingThreadLocal.set(profile.getName());
+        }
+        logger.info("Throttling profile {} applied (latency {} ms, down {} kbit/s, up {} kbit/s, CPU {}x)", profile,
+                profile.getLatencyMillis(), profile.getDownloadKbps(), profile.getUploadKbps(), profile.getCpuSlowdown());
+    }
+
+    /**
+     * Get throttling profile of the current thread's browser ("none" when unthrottled)
+     */
+    public static String getCurrentThrottlingProfile() {
+        String profile = throttlingThreadLocal.get();
+        return profile != null ? profile : ThrottlingProfile.NONE;
+    }
+
+    private static double bytesPerSecond(double kbps) {
+        return kbps < 0 ? -1 : kbps * 1000 / 8;
+    }
+
+    /**
+     * Keep browsers warm between tests of the same thread (see releaseDriver())
+     */
+    public static void setSessionReuse(boolean enabled) {
+        sessionReuse = enabled;
+    }
+
+    /**
+     * Check whether browsers are kept warm between tests
+     */
+    public static boolean isSessionReuse() {
+        return sessionReuse;
+    }
+
+    /**
+     * Get maximum number of concurrent browser sessions (browser.session.budget, 0 means one per worker thread)
+     */
+    public static int getSessionBudget() {
+        int budget = Integer.parseInt(ConfigReader.getProperty("browser.session.budget", "0"));
+        return budget > 0 ? budget : Math.max(Math.max(1, ConfigReader.getThreadCount()), automaticBudget);
+    }
+
+    /**
+     * Make room for a stage running more sessions than thread.count; an explicit browser.session.budget always wins
+     */
+    public static synchronized void ensureSessionBudget(int sessions) {
+        if (sessions > getSessionBudget() && Integer.parseInt(ConfigReader.getProperty("browser.session.budget", "0")) <= 0) {
+            automaticBudget = sessions;
+            setSessionLimit(Math.max(getSessionLimit(), sessions));
+        }
+    }
+
+    /**
+     * Get current limit on concurrent browser sessions (starts at the session budget)
+     */
+    public static int getSessionLimit() {
+        return sessionLimiter.getLimit();
+    }
+
+    /**
+     * Change limit on concurrent browser sessions; running sessions are never interrupted
+     */
+    public static void setSessionLimit(int limit) {
+        int previous = sessionLimiter.getLimit();
+        sessionLimiter.setLimit(limit);
+        if (previous != sessionLimiter.getLimit()) {
+            logger.info("Browser session limit changed from {} to {}", previous, sessionLimiter.getLimit());
+        }
+    }
+
+    /**
+     * Get number of threads waiting for a browser session
+     */
+    public static int getWaitingSessionCount() {
+        return sessionLimiter.getWaitingCount();
+    }
+
+    /**
+     * Get number of live WebDriver sessions across all threads
+     */
+    public static int getActiveSessionCount() {
+        return activeDrivers.size();
+    }
+
+    /**
+     * Register listener notified of the timed browser commands of sessions created from now on
+     */
+    public static void registerCommandListener(CommandTiming.CommandListener listener) {
+        CommandTiming.register(listener);
+    }
+
+    /**
+     * Stop notifying listener of browser commands
+     */
+    public static void unregisterCommandListener(CommandTiming.CommandListener listener) {
+        CommandTiming.unregister(listener);
+    }
+
+    /**
+     * Record a HAR of the session into har.directory when har.enabled
+     */
+    private static void startHarRecording(WebDriver driver, WebDriver rawDriver, String browserName) {
+        if (!Boolean.parseBoolean(ConfigReader.getProperty("har.enabled", "false"))) {
+            return;
+        }
+        String name = String.format(Locale.ROOT, "%s-%d-%03d.har",
+                browserName.toLowerCase(Locale.ROOT), System.currentTimeMillis(), harSequence.incrementAndGet());
+        HarRecorder recorder = HarRecorder.start(rawDriver,
+                Paths.get(ConfigReader.getProperty("har.directory", "test-output/har"), name));
+        if (recorder != null) {
+            harRecorders.put(driver, recorder);
+        }
+    }
+
+    private static void quitQuietly(WebDriver driver) {
+        // Remove first so concurrent cleanup paths never quit the same session twice
+        String owner = activeDrivers.remove(driver);
+        if (owner == null) {
+            return;
+        }
+        idleDrivers.remove(driver);
+        HarRecorder harRecorder = harRecorders.remove(driver);
+        if (harRecorder != null) {
+            harRecorder.stop();
+        }
+        try {
+            driver.quit();
+            logger.info("WebDriver quit successfully (owner thread: {})", owner);
+        } catch (Exception e) {
+            logger.error("Error while quitting WebDriver", e);
+        } finally {
+            sessionLimiter.release();
+        }
+    }
+
+    /**
+     * Clear cookies and web storage so the next test starts from a logged-out session with an empty cart
+     */
+    private static boolean resetSession(WebDriver driver) {
+        try {
+            driver.manage().deleteAllCookies();
+            ((JavascriptExecutor) driver).executeScript(
+                    "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            return true;
+        } catch (Exception e) {
+            logger.warn("Could not reset WebDriver session for reuse, quitting it: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Quit one idle warm session to free its slot; false if there is none
+     */
+    private static boolean reclaimIdleSession() {
+        for (WebDriver driver : idleDrivers) {
+            if (idleDrivers.remove(driver)) {
+                logger.info("Quitting idle warm session of thread {} to free a browser slot", activeDrivers.get(driver));
+                quitQuietly(driver);
+                return true;
             }
         }
+        return false;
     }
 
     /**
@@ -151,8 +497,10 @@ public class DriverManager {
      */
     public static void navigateToUrl(String url) {
         try {
-            getDriver().get(url);
+            WebDriver driver = getDriver();
+            driver.get(url);
             logger.info("Navigated to URL: {}", url);
+            PagePerformance.captureNavigation(driver, PagePerformance.pageTypeOf(url));
         } catch (Exception e) {
             logger.error("Failed to navigate to URL: {}", url, e);
             throw new RuntimeException("Navigation failed", e);
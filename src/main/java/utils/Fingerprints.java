@@ -0,0 +1,223 @@
+package utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content hashes that tell whether a test can still give the result it gave before.
+ *
+ * A class fingerprint covers the bytecode of the class and of every project class it reaches through its
+ * constant pool (a test class, its base class, the action classes it calls and the locators those use);
+ * classes loaded from jars are left out. A site fingerprint covers the page at a URL and its same-origin scripts.
+ */
+public class Fingerprints {
+    private static final Logger logger = LogManager.getLogger(Fingerprints.class);
+    private static final Pattern TYPE_DESCRIPTOR = Pattern.compile("L([A-Za-z_$][\\w/$]*);");
+    private static final Pattern SCRIPT_SOURCE = Pattern.compile("<script[^>]+src\\s*=\\s*[\"']([^\"']+)[\"']",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Map<Class<?>, String> classFingerprints = new ConcurrentHashMap<>();
+    private static final Map<String, String> siteFingerprints = new ConcurrentHashMap<>();
+
+    /**
+     * Get fingerprint of a class and the project classes it depends on
+     */
+    public static String ofClass(Class<?> type) {
+        return classFingerprints.computeIfAbsent(type, Fingerprints::hashClassClosure);
+    }
+
+    /**
+     * Get fingerprint of the page at a URL and its same-origin scripts, or null if the site cannot be read
+     */
+    public static String ofSite(String url) {
+        String fingerprint = siteFingerprints.computeIfAbsent(url, Fingerprints::hashSite);
+        return fingerprint.isEmpty() ? null : fingerprint;
+    }
+
+    private static String hashClassClosure(Class<?> type) {
+        ClassLoader loader = type.getClassLoader() != null ? type.getClassLoader() : ClassLoader.getSystemClassLoader();
+        Map<String, byte[]> closure = new TreeMap<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add(type.getName().replace('.', '/'));
+        while (!pending.isEmpty()) {
+            String name = pending.poll();
+            if (closure.containsKey(name)) {
+                continue;
+            }
+            byte[] bytes = readProjectClass(loader, name);
+            if (bytes == null) {
+                continue;
+            }
+            closure.put(name, bytes);
+            try {
+                pending.addAll(referencedClasses(bytes));
+            } catch (IOException e) {
+                logger.warn("Unreadable class file of {}, its dependencies are not fingerprinted", name, e);
+            }
+        }
+
+        MessageDigest digest = sha256();
+        closure.forEach((name, bytes) -> {
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            digest.update(bytes);
+        });
+        logger.debug("Fingerprinted {} over {} project classes", type.getName(), closure.size());
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Class file bytes of a class compiled in this project (not from a jar), or null
+     */
+    private static byte[] readProjectClass(ClassLoader loader, String internalName) {
+        URL resource = loader.getResource(internalName + ".class");
+        if (resource == null || !"file".equals(resource.getProtocol())) {
+            return null;
+        }
+        try (InputStream in = resource.openStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            logger.warn("Failed to read class file {}", resource, e);
+            return null;
+        }
+    }
+
+    /**
+     * Names of the classes a class file refers to: class constants and the types in field and method descriptors
+     */
+    private static Set<String> referencedClasses(byte[] classFile) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+        in.skipBytes(8);
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        List<Integer> classNames = new ArrayList<>();
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7:
+                    classNames.add(in.readUnsignedShort());
+                    break;
+                case 8: case 16: case 19: case 20:
+                    in.skipBytes(2);
+                    break;
+                case 15:
+                    in.skipBytes(3);
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    in.skipBytes(4);
+                    break;
+                case 5: case 6:
+                    // Long and double constants take two slots
+                    in.skipBytes(8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        Set<String> names = new LinkedHashSet<>();
+        for (int index : classNames) {
+            String name = utf8[index];
+            if (name != null && !name.startsWith("[")) {
+                names.add(name);
+            }
+        }
+        for (String value : utf8) {
+            if (value != null) {
+                Matcher matcher = TYPE_DESCRIPTOR.matcher(value);
+                while (matcher.find()) {
+                    names.add(matcher.group(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    private static String hashSite(String url) {
+        Duration timeout = Duration.ofSeconds(ConfigReader.getPageLoadTimeout());
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        try {
+            URI base = URI.create(url);
+            String page = fetch(client, base, timeout);
+            MessageDigest digest = sha256();
+            digest.update(page.getBytes(StandardCharsets.UTF_8));
+
+            Set<URI> scripts = new LinkedHashSet<>();
+            Matcher matcher = SCRIPT_SOURCE.matcher(page);
+            while (matcher.find()) {
+                URI script = base.resolve(matcher.group(1).trim());
+                if (base.getHost() != null && base.getHost().equalsIgnoreCase(script.getHost())) {
+                    scripts.add(script);
+                }
+            }
+            for (URI script : scripts) {
+                digest.update(script.toString().getBytes(StandardCharsets.UTF_8));
+                digest.update(fetch(client, script, timeout).getBytes(StandardCharsets.UTF_8));
+            }
+            String fingerprint = toHex(digest.digest());
+            logger.info("Site fingerprint of {} over page and {} scripts: {}", url, scripts.size(), fingerprint);
+            return fingerprint;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not fingerprint site {}: {}", url, e.getMessage());
+            return "";
+        }
+    }
+
+    private static String fetch(HttpClient client, URI uri, Duration timeout) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IOException(uri + " answered HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] hash) {
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            hex.append(String.format("%02x", hash[i]));
+        }
+        return hex.toString();
+    }
+}
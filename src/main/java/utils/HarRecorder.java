@@ -0,0 +1,332 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the network traffic of one browser session as a HAR 1.2 log, from CDP Network events.
+ *
+ * Only raw CDP methods are used, so recording does not depend on the devtools version Selenium ships for the
+ * browser. Response bodies up to har.body.max.kb are fetched as soon as a response has finished loading, on a
+ * separate thread so the CDP event thread is never blocked; text bodies are kept as text, others base64.
+ * See HarReplayServer for serving the recorded responses.
+ */
+public final class HarRecorder {
+    private static final Logger logger = LogManager.getLogger(HarRecorder.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final DevTools devTools;
+    private final Path file;
+    private final long maxBodyBytes;
+    private final Map<String, Exchange> pending = new HashMap<>();
+    private final List<Exchange> exchanges = new ArrayList<>();
+    private final ExecutorService bodyFetcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "har-body-fetcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * One request with its response, as CDP reported them
+     */
+    private static final class Exchange {
+        private Map<String, Object> request;
+        private Map<String, Object> response;
+        private String resourceType;
+        private double wallTime;
+        private double startTimestamp;
+        private double endTimestamp;
+        private long encodedDataLength;
+        private String errorText;
+        private String body;
+        private boolean base64Body;
+    }
+
+    private HarRecorder(DevTools devTools, Path file) {
+        this.devTools = devTools;
+        this.file = file;
+        this.maxBodyBytes = Long.parseLong(ConfigReader.getProperty("har.body.max.kb", "2048")) * 1024;
+    }
+
+    /**
+     * Start recording a session into a HAR file; null when the browser has no CDP (Firefox)
+     *
+     * @param driver the undecorated driver of the session
+     */
+    public static HarRecorder start(WebDriver driver, Path file) {
+        Optional<DevTools> devTools = driver instanceof HasDevTools
+                ? ((HasDevTools) driver).maybeGetDevTools() : Optional.empty();
+        if (!devTools.isPresent()) {
+            logger.warn("Browser does not support CDP, not recording a HAR of this session");
+            return null;
+        }
+        HarRecorder recorder = new HarRecorder(devTools.get(), file);
+        try {
+            recorder.attach();
+        } catch (Exception e) {
+            logger.warn("Could not start HAR recording: {}", e.getMessage());
+            return null;
+        }
+        return recorder;
+    }
+
+    private void attach() {
+        devTools.createSessionIfThereIsNotOne();
+        devTools.addListener(event("Network.requestWillBeSent"), this::onRequestWillBeSent);
+        devTools.addListener(event("Network.responseReceived"), this::onResponseReceived);
+        devTools.addListener(event("Network.loadingFinished"), this::onLoadingFinished);
+        devTools.addListener(event("Network.loadingFailed"), this::onLoadingFailed);
+        devTools.send(new Command<>("Network.enable", Collections.emptyMap()));
+    }
+
+    private static Event<Map<String, Object>> event(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    private synchronized void onRequestWillBeSent(Map<String, Object> params) {
+        String requestId = (String) params.get("requestId");
+        Exchange redirected = pending.remove(requestId);
+        if (redirected != null && params.get("redirectResponse") != null) {
+            redirected.response = map(params.get("redirectResponse"));
+            redirected.endTimestamp = number(params.get("timestamp"));
+        }
+        Map<String, Object> request = map(params.get("request"));
+        if (String.valueOf(request.get("url")).startsWith("data:")) {
+            return;
+        }
+        Exchange exchange = new Exchange();
+        exchange.request = request;
+        exchange.resourceType = (String) params.get("type");
+        exchange.wallTime = number(params.get("wallTime"));
+        exchange.startTimestamp = number(params.get("timestamp"));
+        pending.put(requestId, exchange);
+        exchanges.add(exchange);
+    }
+
+    private synchronized void onResponseReceived(Map<String, Object> params) {
+        Exchange exchange = pending.get((String) params.get("requestId"));
+        if (exchange != null) {
+            exchange.response = map(params.get("response"));
+        }
+    }
+
+    private synchronized void onLoadingFinished(Map<String, Object> params) {
+        String requestId = (String) params.get("requestId");
+        Exchange exchange = pending.remove(requestId);
+        if (exchange == null) {
+            return;
+        }
+        exchange.endTimestamp = number(params.get("timestamp"));
+        exchange.encodedDataLength = (long) number(params.get("encodedDataLength"));
+        if (exchange.encodedDataLength <= maxBodyBytes && !bodyFetcher.isShutdown()) {
+            bodyFetcher.execute(() -> fetchBody(requestId, exchange));
+        }
+    }
+
+    private synchronized void onLoadingFailed(Map<String, Object> params) {
+        Exchange exchange = pending.remove((String) params.get("requestId"));
+        if (exchange != null) {
+            exchange.endTimestamp = number(params.get("timestamp"));
+            exchange.errorText = (String) params.get("errorText");
+        }
+    }
+
+    private void fetchBody(String requestId, Exchange exchange) {
+        try {
+            Map<String, Object> result = devTools.send(new Command<Map<String, Object>>("Network.getResponseBody",
+                    Collections.<String, Object>singletonMap("requestId", requestId), Json.MAP_TYPE));
+            synchronized (this) {
+                exchange.body = (String) result.get("body");
+                exchange.base64Body = Boolean.TRUE.equals(result.get("base64Encoded"));
+            }
+        } catch (Exception e) {
+            // Redirects, cached and evicted responses have no body to fetch
+            logger.debug("No body for {}: {}", exchange.request.get("url"), e.getMessage());
+        }
+    }
+
+    /**
+     * Stop recording and write the HAR; failures are logged, never thrown
+     */
+    public void stop() {
+        synchronized (this) {
+            bodyFetcher.shutdown();
+        }
+        try {
+            if (!bodyFetcher.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Response bodies still loading, writing HAR without them");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            devTools.clearListeners();
+        } catch (Exception e) {
+            logger.debug("Could not detach HAR recorder: {}", e.getMessage());
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            objectMapper.writeValue(file.toFile(), toHar());
+            logger.info("HAR with {} requests written to {}", exchanges.size(), file);
+        } catch (IOException e) {
+            logger.warn("Failed to write HAR to {}", file, e);
+        }
+    }
+
+    private synchronized ObjectNode toHar() {
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode log = root.putObject("log");
+        log.put("version", "1.2");
+        log.putObject("creator").put("name", "demoblaze-ui-tests").put("version", "1.0");
+        ArrayNode entries = log.putArray("entries");
+        for (Exchange exchange : exchanges) {
+            if (exchange.response != null || exchange.errorText != null) {
+                addEntry(entries.addObject(), exchange);
+            }
+        }
+        return root;
+    }
+
+    private static void addEntry(ObjectNode entry, Exchange exchange) {
+        Map<String, Object> request = exchange.request;
+        Map<String, Object> response = exchange.response != null ? exchange.response : Collections.emptyMap();
+        String url = String.valueOf(request.get("url"));
+        String protocol = response.containsKey("protocol") ? String.valueOf(response.get("protocol")) : "http/1.1";
+
+        entry.put("startedDateTime", Instant.ofEpochMilli((long) (exchange.wallTime * 1000)).toString());
+        entry.put("_resourceType", exchange.resourceType);
+
+        ObjectNode harRequest = entry.putObject("request");
+        harRequest.put("method", String.valueOf(request.get("method")));
+        harRequest.put("url", url);
+        harRequest.put("httpVersion", protocol);
+        Map<String, Object> requestHeaders = map(request.get("headers"));
+        addHeaders(harRequest.putArray("headers"), requestHeaders);
+        harRequest.putArray("cookies");
+        ArrayNode queryString = harRequest.putArray("queryString");
+        int query = url.indexOf('?');
+        if (query >= 0) {
+            for (String pair : url.substring(query + 1).replaceAll("#.*", "").split("&")) {
+                String[] nameValue = pair.split("=", 2);
+                queryString.addObject().put("name", nameValue[0]).put("value", nameValue.length > 1 ? nameValue[1] : "");
+            }
+        }
+        Object postData = request.get("postData");
+        harRequest.put("headersSize", -1);
+        harRequest.put("bodySize", postData != null ? postData.toString().length() : 0);
+        if (postData != null) {
+            harRequest.putObject("postData").put("mimeType", header(requestHeaders, "Content-Type", ""))
+                    .put("text", postData.toString());
+        }
+
+        ObjectNode harResponse = entry.putObject("response");
+        harResponse.put("status", exchange.errorText != null && exchange.response == null ? 0
+                : (long) number(response.get("status")));
+        harResponse.put("statusText", exchange.errorText != null && exchange.response == null
+                ? exchange.errorText : String.valueOf(response.getOrDefault("statusText", "")));
+        harResponse.put("httpVersion", protocol);
+        Map<String, Object> responseHeaders = map(response.get("headers"));
+        addHeaders(harResponse.putArray("headers"), responseHeaders);
+        harResponse.putArray("cookies");
+        ObjectNode content = harResponse.putObject("content");
+        content.put("size", exchange.body != null && !exchange.base64Body ? exchange.body.length() : exchange.encodedDataLength);
+        content.put("mimeType", String.valueOf(response.getOrDefault("mimeType", "")));
+        if (exchange.body != null) {
+            content.put("text", exchange.body);
+            if (exchange.base64Body) {
+                content.put("encoding", "base64");
+            }
+        }
+        harResponse.put("redirectURL", header(responseHeaders, "Location", ""));
+        harResponse.put("headersSize", -1);
+        harResponse.put("bodySize", exchange.encodedDataLength);
+        if (exchange.errorText != null) {
+            entry.put("_error", exchange.errorText);
+        }
+
+        entry.putObject("cache");
+        addTimings(entry, exchange, map(response.get("timing")));
+        if (response.get("remoteIPAddress") != null) {
+            entry.put("serverIPAddress", String.valueOf(response.get("remoteIPAddress")));
+        }
+    }
+
+    /**
+     * HAR timings from CDP ResourceTiming (ms offsets from requestTime, -1 when not applicable)
+     */
+    private static void addTimings(ObjectNode entry, Exchange exchange, Map<String, Object> timing) {
+        double total = Math.max(0, (exchange.endTimestamp - exchange.startTimestamp) * 1000);
+        ObjectNode timings = entry.putObject("timings");
+        if (timing.isEmpty()) {
+            timings.put("send", 0).put("wait", total).put("receive", 0);
+            entry.put("time", total);
+            return;
+        }
+        double requestTime = number(timing.get("requestTime"));
+        double blocked = Math.max(0, (requestTime - exchange.startTimestamp) * 1000);
+        double dns = span(timing, "dnsStart", "dnsEnd");
+        double connect = span(timing, "connectStart", "connectEnd");
+        double ssl = span(timing, "sslStart", "sslEnd");
+        double send = Math.max(0, number(timing.get("sendEnd")) - number(timing.get("sendStart")));
+        double wait = Math.max(0, number(timing.get("receiveHeadersEnd")) - number(timing.get("sendEnd")));
+        double receive = Math.max(0, (exchange.endTimestamp - requestTime) * 1000 - number(timing.get("receiveHeadersEnd")));
+        timings.put("blocked", blocked).put("dns", dns).put("connect", connect).put("ssl", ssl)
+                .put("send", send).put("wait", wait).put("receive", receive);
+        // ssl is part of connect in HAR, so it is not added again
+        entry.put("time", blocked + Math.max(0, dns) + Math.max(0, connect) + send + wait + receive);
+    }
+
+    private static double span(Map<String, Object> timing, String start, String end) {
+        double startValue = number(timing.get(start));
+        return startValue < 0 || !timing.containsKey(start) ? -1 : number(timing.get(end)) - startValue;
+    }
+
+    private static void addHeaders(ArrayNode array, Map<String, Object> headers) {
+        headers.forEach((name, value) -> {
+            // CDP joins repeated headers with newlines
+            for (String line : String.valueOf(value).split("\n")) {
+                array.addObject().put("name", name).put("value", line);
+            }
+        });
+    }
+
+    private static String header(Map<String, Object> headers, String name, String defaultValue) {
+        for (Map.Entry<String, Object> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return String.valueOf(header.getValue());
+            }
+        }
+        return defaultValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+}
@@ -0,0 +1,332 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Local HTTP server replaying responses recorded by {@link HarRecorder}, for network-free runs.
+ *
+ * The site origin (har.replay.origin) is served at the root; every other recorded origin under
+ * /_origin/&lt;host&gt;, e.g. the backend at /_origin/api.demoblaze.com. Recorded origins in text bodies are
+ * rewritten to these local URLs, so pages call the replayed backend instead of the real one. A request is
+ * answered with a recording of the same method, URL and body, else with the recordings of the same method
+ * and URL in turn; anything else gets a 404. Responses are sent at once, without the recorded latency.
+ */
+public final class HarReplayServer implements LocalServer {
+    private static final Logger logger = LogManager.getLogger(HarReplayServer.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String ORIGIN_PREFIX = "/_origin/";
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+            "content-length", "content-encoding", "transfer-encoding", "connection", "keep-alive", "date");
+
+    private final String siteOrigin;
+    private final Map<String, String> origins = new LinkedHashMap<>();
+    private final Map<String, Recording> byBody = new HashMap<>();
+    private final Map<String, List<Recording>> byUrl = new HashMap<>();
+    private final Map<String, AtomicInteger> nextRecording = new ConcurrentHashMap<>();
+    private final LongAdder served = new LongAdder();
+    private final Set<String> misses = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+    private String baseUrl;
+
+    /**
+     * Recorded response
+     */
+    private static final class Recording {
+        private final int status;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+        private final boolean text;
+
+        private Recording(int status, Map<String, List<String>> headers, byte[] body, boolean text) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Load the recordings of a HAR file or of every .har file in a directory
+     *
+     * @param siteOrigin origin served at the root, e.g. https://www.demoblaze.com
+     */
+    public HarReplayServer(Path source, String siteOrigin) {
+        this.siteOrigin = LocalServer.stripSlash(siteOrigin);
+        List<Path> files;
+        try (Stream<Path> paths = Files.isDirectory(source) ? Files.list(source) : Stream.of(source)) {
+            files = paths.filter(path -> path.toString().endsWith(".har")).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list HAR files in " + source, e);
+        }
+        if (files.isEmpty()) {
+            throw new IllegalStateException("No HAR files in " + source + "; record some with har.enabled=true first");
+        }
+        int loaded = 0;
+        for (Path file : files) {
+            loaded += load(file);
+        }
+        logger.info("Loaded {} recorded responses from {} HAR file(s) in {}", loaded, files.size(), source);
+    }
+
+    private int load(Path file) {
+        JsonNode entries;
+        try {
+            entries = objectMapper.readTree(file.toFile()).path("log").path("entries");
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read HAR " + file, e);
+        }
+        int loaded = 0;
+        for (JsonNode entry : entries) {
+            JsonNode request = entry.path("request");
+            JsonNode response = entry.path("response");
+            int status = response.path("status").asInt();
+            // Failed requests and redirects resolved by the browser are not worth replaying
+            if (status < 200 || (status >= 300 && status < 400 && status != 304)) {
+                continue;
+            }
+            URI uri = URI.create(request.path("url").asText());
+            String origin = uri.getScheme() + "://" + uri.getRawAuthority();
+            if (!origin.equals(siteOrigin)) {
+                origins.putIfAbsent(origin, uri.getRawAuthority());
+            }
+            String method = request.path("method").asText();
+            String url = urlKey(method, origin + pathAndQuery(uri));
+            Recording recording = toRecording(status == 304 ? 200 : status, response);
+            if (recording == null) {
+                continue;
+            }
+            byUrl.computeIfAbsent(url, key -> new ArrayList<>()).add(recording);
+            byBody.putIfAbsent(url + '\n' + request.path("postData").path("text").asText(""), recording);
+            loaded++;
+        }
+        return loaded;
+    }
+
+    private static Recording toRecording(int status, JsonNode response) {
+        JsonNode content = response.path("content");
+        if (!content.has("text")) {
+            return null;
+        }
+        String mimeType = content.path("mimeType").asText("").toLowerCase(Locale.ROOT);
+        boolean base64 = "base64".equals(content.path("encoding").asText());
+        byte[] body = base64 ? Base64.getDecoder().decode(content.path("text").asText())
+                : content.path("text").asText().getBytes(StandardCharsets.UTF_8);
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (JsonNode header : response.path("headers")) {
+            String name = header.path("name").asText();
+            if (!SKIPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.computeIfAbsent(name, key -> new ArrayList<>()).add(header.path("value").asText());
+            }
+        }
+        boolean text = !base64 && (mimeType.startsWith("text/") || mimeType.contains("javascript")
+                || mimeType.contains("json") || mimeType.contains("xml"));
+        return new Recording(status, headers, body, text);
+    }
+
+    /**
+     * Start serving on a port (0 for any free port)
+     */
+    @Override
+    public synchronized void start(int port) {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not start HAR replay server on port " + port, e);
+        }
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "har-replay");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        logger.info("Replaying {} at {}, {} at {}", siteOrigin, baseUrl, origins.keySet(), baseUrl + ORIGIN_PREFIX + "<host>");
+    }
+
+    /**
+     * Stop serving and log what could not be replayed
+     */
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        server = null;
+        logger.info("HAR replay served {} responses, {} requests had no recording", served.sum(), misses.size());
+        if (!misses.isEmpty()) {
+            logger.warn("Not recorded: {}", misses.stream().sorted().limit(20).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Local URL of the site, e.g. http://localhost:8090
+     */
+    @Override
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Local URL of another recorded origin, e.g. http://localhost:8090/_origin/api.demoblaze.com
+     */
+    public String getOriginUrl(String origin) {
+        String recorded = origins.get(LocalServer.stripSlash(origin));
+        return recorded != null ? baseUrl + ORIGIN_PREFIX + recorded : null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            String requestBody = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getRawPath();
+            String query = exchange.getRequestURI().getRawQuery();
+            String origin = siteOrigin;
+            if (path.startsWith(ORIGIN_PREFIX)) {
+                int end = path.indexOf('/', ORIGIN_PREFIX.length());
+                String authority = path.substring(ORIGIN_PREFIX.length(), end < 0 ? path.length() : end);
+                origin = originOf(authority);
+                path = end < 0 ? "/" : path.substring(end);
+            }
+            String url = origin + path + (query != null ? "?" + query : "");
+
+            if ("OPTIONS".equals(method)) {
+                // Preflights are same-origin against the replay server, but answer them for pages that still ask
+                exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+                exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "*");
+                exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "*");
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+            Recording recording = find(method, url, requestBody);
+            if (recording == null) {
+                misses.add(method + " " + url);
+                logger.debug("No recording for {} {}", method, url);
+                send(exchange, 404, Map.of(), ("Not recorded: " + method + " " + url).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            served.increment();
+            send(exchange, recording.status, recording.headers, recording.text ? rewrite(recording.body) : recording.body);
+        } catch (RuntimeException e) {
+            logger.warn("HAR replay failed for {}", exchange.getRequestURI(), e);
+            send(exchange, 500, Map.of(), String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private String originOf(String authority) {
+        for (Map.Entry<String, String> origin : origins.entrySet()) {
+            if (origin.getValue().equals(authority)) {
+                return origin.getKey();
+            }
+        }
+        return "https://" + authority;
+    }
+
+    private Recording find(String method, String url, String requestBody) {
+        for (String candidate : candidates(url)) {
+            String key = urlKey(method, candidate);
+            Recording exact = byBody.get(key + '\n' + requestBody);
+            if (exact != null) {
+                return exact;
+            }
+            List<Recording> recordings = byUrl.get(key);
+            if (recordings != null) {
+                int next = nextRecording.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+                return recordings.get(Math.floorMod(next, recordings.size()));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The site root and index.html are the same page
+     */
+    private static List<String> candidates(String url) {
+        List<String> candidates = new ArrayList<>();
+        candidates.add(url);
+        String withoutQuery = url.replaceAll("\\?.*", "");
+        if (withoutQuery.endsWith("/index.html")) {
+            candidates.add(url.replace("/index.html", "/"));
+        } else if (withoutQuery.endsWith("/")) {
+            candidates.add(url.replaceFirst("/(\\?|$)", "/index.html$1"));
+        }
+        return candidates;
+    }
+
+    private byte[] rewrite(byte[] body) {
+        String text = new String(body, StandardCharsets.UTF_8);
+        // Longer origins first, so an origin that prefixes another is not rewritten inside it
+        List<String> recorded = new ArrayList<>(origins.keySet());
+        recorded.add(siteOrigin);
+        recorded.sort(Comparator.comparingInt(String::length).reversed());
+        for (String origin : recorded) {
+            String local = origin.equals(siteOrigin) ? baseUrl : baseUrl + ORIGIN_PREFIX + origins.get(origin);
+            text = text.replace(origin, local);
+        }
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, Map<String, List<String>> headers, byte[] body)
+            throws IOException {
+        headers.forEach((name, values) -> exchange.getResponseHeaders().put(name, values));
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String urlKey(String method, String url) {
+        return method.toUpperCase(Locale.ROOT) + " " + url.replaceAll("#.*", "");
+    }
+
+    private static String pathAndQuery(URI uri) {
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        return uri.getRawQuery() != null ? path + "?" + uri.getRawQuery() : path;
+    }
+
+    /**
+     * Serve recorded HARs until killed: HarReplayServer [HAR file or directory] [port]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Path source = Paths.get(args.length > 0 ? args[0] : ConfigReader.getProperty("har.directory", "test-output/har"));
+        int port = args.length > 1 ? Integer.parseInt(args[1])
+                : Integer.parseInt(ConfigReader.getProperty("har.replay.port", "8090"));
+        HarReplayServer replay = new HarReplayServer(source,
+                ConfigReader.getProperty("har.replay.origin", "https://www.demoblaze.com"));
+        replay.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(replay::stop, "har-replay-stop"));
+        System.out.println("Run the suite with -Dbase.url=" + replay.getBaseUrl() + " -Dapi.url="
+                + replay.getOriginUrl(ConfigReader.getProperty("har.replay.api.origin", "https://api.demoblaze.com")));
+        Thread.currentThread().join();
+    }
+}
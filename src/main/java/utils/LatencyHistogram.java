@@ -0,0 +1,136 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram, in microseconds.
+ *
+ * Values below 256 have their own bucket; above that every power of two is split into 128 linear sub-buckets,
+ * so a recorded value is off by less than 1% (two significant digits) from 1 us up to about 71 minutes. Larger
+ * values count as the maximum. Recording is lock-free and safe from any thread.
+ */
+public class LatencyHistogram {
+    private static final int LINEAR_LIMIT = 256;
+    private static final int SUB_BUCKETS = 128;
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final long HIGHEST_TRACKABLE = (1L << 32) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(indexOf(HIGHEST_TRACKABLE) + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record one latency in microseconds
+     */
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(indexOf(Math.min(value, HIGHEST_TRACKABLE)));
+        total.add(value);
+        min.accumulate(value);
+        max.accumulate(value);
+        count.incrementAndGet();
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long recorded = getCount();
+        return recorded == 0 ? 0 : (double) getTotal() / recorded;
+    }
+
+    /**
+     * Get value at a percentile (0-100): the highest value of the bucket holding that rank, capped at the maximum
+     */
+    public long getValueAtPercentile(double percentile) {
+        long recorded = getCount();
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * recorded));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Get number of recorded values up to a bound (values sharing the bound's bucket count as below it)
+     */
+    public long getCountAtOrBelow(long micros) {
+        if (micros < 0) {
+            return 0;
+        }
+        int last = indexOf(Math.min(micros, HIGHEST_TRACKABLE));
+        long below = 0;
+        for (int i = 0; i <= last; i++) {
+            below += counts.get(i);
+        }
+        return below;
+    }
+
+    /**
+     * Visit non-empty buckets as (lowest value of the bucket, count), in ascending order
+     */
+    public void forEachBucket(BucketVisitor visitor) {
+        for (int i = 0; i < counts.length(); i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount > 0) {
+                visitor.visit(lowestValueAt(i), bucketCount);
+            }
+        }
+    }
+
+    /**
+     * Receives one histogram bucket
+     */
+    public interface BucketVisitor {
+        void visit(long lowestValue, long count);
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) ((value >> shift) - SUB_BUCKETS);
+    }
+
+    private static long lowestValueAt(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        return ((long) SUB_BUCKETS + (index - LINEAR_LIMIT) % SUB_BUCKETS) << shift;
+    }
+
+    private static long highestValueAt(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        return lowestValueAt(index) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,168 @@
+package utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms of page actions and WebDriver commands, tagged by action, page, browser and throttling profile.
+ *
+ * Actions are timed by the timing subclasses of the action classes (see actions.ActionInstrumentation), which
+ * also keep a per-thread stack of running actions; commands are tagged with the innermost action running on
+ * their thread, or "-" for commands outside any action (e.g. setUp navigation).
+ */
+public class LatencyRecorder {
+    public static final String ACTION = "action";
+    public static final String COMMAND = "command";
+    public static final String NO_ACTION = "-";
+
+    private static final Map<String, Series> series = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Deque<String[]>> runningActions = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final List<ActionListener> actionListeners = new CopyOnWriteArrayList<>();
+    private static final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("latency.enabled", "true"));
+
+    /**
+     * Notified on the thread running an action when it starts and ends
+     */
+    public interface ActionListener {
+        void onActionStart(String page, String action);
+
+        /**
+         * @param error what the action threw, or null
+         */
+        void onActionEnd(String page, String action, long nanos, Throwable error);
+    }
+
+    /**
+     * Histogram of one kind of call with its tags
+     */
+    public static final class Series {
+        private final String kind;
+        private final String name;
+        private final String page;
+        private final String action;
+        private final String browser;
+        private final String profile;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Series(String kind, String name, String page, String action, String browser, String profile) {
+            this.kind = kind;
+            this.name = name;
+            this.page = page;
+            this.action = action;
+            this.browser = browser;
+            this.profile = profile;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPage() {
+            return page;
+        }
+
+        /**
+         * Action a command ran in; for actions, the action itself
+         */
+        public String getAction() {
+            return action;
+        }
+
+        public String getBrowser() {
+            return browser;
+        }
+
+        /**
+         * Throttling profile the browser ran with ("none" when unthrottled)
+         */
+        public String getProfile() {
+            return profile;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+    }
+
+    /**
+     * Check whether action and command latencies are recorded (latency.enabled)
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Mark start of an action on this thread
+     */
+    public static void enterAction(String page, String action) {
+        runningActions.get().push(new String[]{page, action});
+        for (ActionListener listener : actionListeners) {
+            listener.onActionStart(page, action);
+        }
+    }
+
+    /**
+     * Mark end of the innermost action on this thread and record its latency
+     */
+    public static void exitAction(long startNanos, Throwable error) {
+        String[] action = runningActions.get().poll();
+        if (action != null) {
+            long nanos = System.nanoTime() - startNanos;
+            record(ACTION, action[1], action[0], action[1], nanos);
+            for (ActionListener listener : actionListeners) {
+                listener.onActionEnd(action[0], action[1], nanos, error);
+            }
+        }
+    }
+
+    /**
+     * Record latency of a WebDriver command, tagged with the action running on this thread
+     */
+    public static void recordCommand(String command, long nanos) {
+        String[] action = runningActions.get().peek();
+        record(COMMAND, command, action != null ? action[0] : NO_ACTION, action != null ? action[1] : NO_ACTION, nanos);
+    }
+
+    /**
+     * Register listener notified of every timed action
+     */
+    public static void registerActionListener(ActionListener listener) {
+        actionListeners.add(listener);
+    }
+
+    public static void unregisterActionListener(ActionListener listener) {
+        actionListeners.remove(listener);
+    }
+
+    /**
+     * Get all recorded series
+     */
+    public static List<Series> getSeries() {
+        return new ArrayList<>(series.values());
+    }
+
+    /**
+     * Forget all recorded latencies
+     */
+    public static void clear() {
+        series.clear();
+    }
+
+    private static void record(String kind, String name, String page, String action, long nanos) {
+        String browser = DriverManager.getCurrentBrowser();
+        String profile = DriverManager.getCurrentThrottlingProfile();
+        String key = kind + '\u0000' + name + '\u0000' + page + '\u0000' + action + '\u0000' + browser + '\u0000' + profile;
+        series.computeIfAbsent(key, k -> new Series(kind, name, page, action, browser, profile))
+                .histogram.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+}
@@ -0,0 +1,29 @@
+package utils;
+
+/**
+ * Local HTTP server a suite can run against instead of the real site, e.g. {@link DemoBlazeStandIn} or
+ * {@link HarReplayServer}
+ */
+public interface LocalServer {
+    /**
+     * Start serving on a port (0 for any free port)
+     */
+    void start(int port);
+
+    /**
+     * Stop serving; does nothing when not started
+     */
+    void stop();
+
+    /**
+     * Local URL of the site, e.g. http://localhost:8091; null until started
+     */
+    String getBaseUrl();
+
+    /**
+     * URL without a trailing slash
+     */
+    static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,415 @@
+package utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Opt-in front-end performance of page loads (perf.enabled), captured from the browser's Performance API and kept
+ * per page type ("home", "category", "product", ...).
+ *
+ * A full navigation is captured from its Navigation Timing entry; an in-page load such as a category switch
+ * from a mark taken before it, counting only what happened after the mark. Both wait until no new resource
+ * has started for perf.settle.millis (capped at perf.settle.max.millis), so XHR-driven content is included.
+ * Every sample is checked against budgets perf.budget.&lt;page type&gt;.&lt;metric&gt;, falling back to
+ * perf.budget.&lt;metric&gt;; metrics the browser does not report (e.g. LCP and CLS outside Chromium) are skipped.
+ * Loads under a throttling profile (see DriverManager.setThrottlingProfile) only have the budgets of that profile,
+ * perf.budget.&lt;profile&gt;.&lt;page type&gt;.&lt;metric&gt; or perf.budget.&lt;profile&gt;.&lt;metric&gt;.
+ */
+public class PagePerformance {
+    private static final Logger logger = LogManager.getLogger(PagePerformance.class);
+
+    public static final String TTFB = "ttfb";
+    public static final String DOM_CONTENT_LOADED = "domContentLoaded";
+    public static final String LOAD = "load";
+    public static final String DURATION = "duration";
+    public static final String FCP = "fcp";
+    public static final String LCP = "lcp";
+    public static final String CLS = "cls";
+    public static final String RESOURCES = "resources";
+    public static final String TRANSFER_BYTES = "transferBytes";
+    public static final List<String> METRICS = Collections.unmodifiableList(Arrays.asList(
+            TTFB, DOM_CONTENT_LOADED, LOAD, DURATION, FCP, LCP, CLS, RESOURCES, TRANSFER_BYTES));
+    public static final String NO_TEST = "-";
+
+    private static final int SLOWEST_RESOURCES = 3;
+    private static final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("perf.enabled", "false"));
+
+    // Waits for the resources to settle, then reads navigation, paint, LCP and layout-shift entries after the mark
+    private static final String CAPTURE_SCRIPT = String.join("\n",
+            "var since = arguments[0], settle = arguments[1], limit = arguments[2], done = arguments[arguments.length - 1];",
+            "var started = performance.now(), lastCount = -1, quietSince = started;",
+            "function resources() {",
+            "  return performance.getEntriesByType('resource').filter(function (e) { return e.startTime >= since; });",
+            "}",
+            "function observed(type) {",
+            "  return new Promise(function (resolve) {",
+            "    try {",
+            "      var entries = [];",
+            "      var observer = new PerformanceObserver(function (list) { entries = entries.concat(list.getEntries()); });",
+            "      observer.observe({type: type, buffered: true});",
+            "      setTimeout(function () {",
+            "        entries = entries.concat(observer.takeRecords());",
+            "        observer.disconnect();",
+            "        resolve(entries);",
+            "      }, 0);",
+            "    } catch (e) {",
+            "      resolve(null);",
+            "    }",
+            "  });",
+            "}",
+            "function collect() {",
+            "  Promise.all([observed('largest-contentful-paint'), observed('layout-shift')]).then(function (observedEntries) {",
+            "    var nav = since === 0 ? performance.getEntriesByType('navigation')[0] : null;",
+            "    var fcp = performance.getEntriesByType('paint').filter(function (e) {",
+            "      return e.name === 'first-contentful-paint' && e.startTime >= since;",
+            "    })[0];",
+            "    var lcp = observedEntries[0] && observedEntries[0].filter(function (e) { return e.startTime >= since; });",
+            "    var shifts = observedEntries[1] && observedEntries[1].filter(function (e) {",
+            "      return e.startTime >= since && !e.hadRecentInput;",
+            "    });",
+            "    done({",
+            "      url: location.href,",
+            "      ttfb: nav ? nav.responseStart : null,",
+            "      domContentLoaded: nav ? nav.domContentLoadedEventEnd : null,",
+            "      load: nav ? nav.loadEventEnd : null,",
+            "      documentBytes: nav ? nav.transferSize || 0 : 0,",
+            "      fcp: fcp ? fcp.startTime - since : null,",
+            "      lcp: lcp && lcp.length ? lcp[lcp.length - 1].startTime - since : null,",
+            "      cls: shifts ? shifts.reduce(function (sum, e) { return sum + e.value; }, 0) : null,",
+            "      resources: resources().map(function (e) {",
+            "        return {name: e.name, start: e.startTime - since, end: e.responseEnd - since, size: e.transferSize || 0};",
+            "      })",
+            "    });",
+            "  });",
+            "}",
+            "function poll() {",
+            "  var count = resources().length, now = performance.now();",
+            "  if (count !== lastCount) {",
+            "    lastCount = count;",
+            "    quietSince = now;",
+            "  }",
+            "  if (now - quietSince >= settle || now - started >= limit) {",
+            "    collect();",
+            "  } else {",
+            "    setTimeout(poll, 50);",
+            "  }",
+            "}",
+            "poll();");
+
+    private static final Map<String, List<Sample>> pages = new ConcurrentHashMap<>();
+    private static final ThreadLocal<String> currentTest = new ThreadLocal<>();
+    private static final ThreadLocal<List<Sample>> testSamples = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * Performance of one page load
+     */
+    public static final class Sample {
+        private final String pageType;
+        private final String url;
+        private final String test;
+        private final String browser;
+        private final String profile;
+        private final Map<String, Double> metrics;
+        private final Map<String, Double> slowestResources;
+        private final List<String> violations;
+
+        private Sample(String pageType, String url, String test, String browser, String profile,
+                       Map<String, Double> metrics, Map<String, Double> slowestResources, List<String> violations) {
+            this.pageType = pageType;
+            this.url = url;
+            this.test = test;
+            this.browser = browser;
+            this.profile = profile;
+            this.metrics = metrics;
+            this.slowestResources = slowestResources;
+            this.violations = violations;
+        }
+
+        public String getPageType() {
+            return pageType;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getTest() {
+            return test;
+        }
+
+        public String getBrowser() {
+            return browser;
+        }
+
+        /**
+         * Throttling profile the browser ran with ("none" when unthrottled)
+         */
+        public String getProfile() {
+            return profile;
+        }
+
+        /**
+         * Metrics the browser reported: times in ms from navigation start (or the mark), CLS unitless
+         */
+        public Map<String, Double> getMetrics() {
+            return metrics;
+        }
+
+        public Double getMetric(String metric) {
+            return metrics.get(metric);
+        }
+
+        /**
+         * Slowest resources loaded, URL to time in ms
+         */
+        public Map<String, Double> getSlowestResources() {
+            return slowestResources;
+        }
+
+        /**
+         * Budgets this load exceeded, e.g. "category duration 3412 > 3000"
+         */
+        public List<String> getViolations() {
+            return violations;
+        }
+    }
+
+    /**
+     * Check whether page loads are captured (perf.enabled)
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Check whether tests loading a page over budget fail (perf.budget.enforce), rather than only being reported
+     */
+    public static boolean isEnforced() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("perf.budget.enforce", "false"));
+    }
+
+    /**
+     * Page type of a DemoBlaze URL: "product" (prod.html), "cart" (cart.html) or "home"
+     */
+    public static String pageTypeOf(String url) {
+        String path = url == null ? "" : url.replaceAll("[?#].*", "");
+        if (path.endsWith("prod.html")) {
+            return "product";
+        }
+        if (path.endsWith("cart.html")) {
+            return "cart";
+        }
+        return "home";
+    }
+
+    /**
+     * Mark the start of an in-page load; NaN when capture is disabled or unsupported
+     */
+    public static double mark(WebDriver driver) {
+        if (!enabled || !(driver instanceof JavascriptExecutor)) {
+            return Double.NaN;
+        }
+        try {
+            Object now = ((JavascriptExecutor) driver).executeScript("return performance.now()");
+            return now instanceof Number ? ((Number) now).doubleValue() : Double.NaN;
+        } catch (Exception e) {
+            logger.debug("Could not mark page performance: {}", e.getMessage());
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Capture the navigation that loaded the current document
+     */
+    public static Sample captureNavigation(WebDriver driver, String pageType) {
+        return capture(driver, pageType, 0);
+    }
+
+    /**
+     * Capture an in-page load started at a mark; nothing when the mark is NaN
+     */
+    public static Sample captureSince(WebDriver driver, String pageType, double since) {
+        return Double.isNaN(since) ? null : capture(driver, pageType, since);
+    }
+
+    /**
+     * Charge page loads of this thread to a test (e.g. tests.ProductTests.testAllCategoriesAndDisplay) until endTest()
+     */
+    public static void startTest(String testKey) {
+        currentTest.set(testKey);
+        testSamples.remove();
+    }
+
+    public static void endTest() {
+        currentTest.remove();
+        testSamples.remove();
+    }
+
+    /**
+     * Get page loads captured on this thread since startTest()
+     */
+    public static List<Sample> getTestSamples() {
+        return new ArrayList<>(testSamples.get());
+    }
+
+    /**
+     * Get page loads of this thread's test of one page type
+     */
+    public static List<Sample> getTestSamples(String pageType) {
+        List<Sample> samples = new ArrayList<>();
+        for (Sample sample : testSamples.get()) {
+            if (sample.getPageType().equals(pageType)) {
+                samples.add(sample);
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Get budget violations of some page loads
+     */
+    public static List<String> getViolations(List<Sample> samples) {
+        List<String> violations = new ArrayList<>();
+        for (Sample sample : samples) {
+            violations.addAll(sample.getViolations());
+        }
+        return violations;
+    }
+
+    /**
+     * Get all captured page loads by page type
+     */
+    public static Map<String, List<Sample>> getPages() {
+        Map<String, List<Sample>> copy = new TreeMap<>();
+        pages.forEach((pageType, samples) -> copy.put(pageType, new ArrayList<>(samples)));
+        return copy;
+    }
+
+    /**
+     * Get budget of a page type for a metric under a throttling profile, or null if it has none
+     */
+    public static Double getBudget(String profile, String pageType, String metric) {
+        String prefix = ThrottlingProfile.NONE.equals(profile) ? "perf.budget." : "perf.budget." + profile + ".";
+        String budget = ConfigReader.getProperty(prefix + pageType + "." + metric,
+                ConfigReader.getProperty(prefix + metric, null));
+        if (budget == null || budget.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(budget.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring invalid performance budget {}.{}: {}", pageType, metric, budget);
+            return null;
+        }
+    }
+
+    /**
+     * Forget all captured page loads
+     */
+    public static void clear() {
+        pages.clear();
+    }
+
+    private static Sample capture(WebDriver driver, String pageType, double since) {
+        if (!enabled || !(driver instanceof JavascriptExecutor)) {
+            return null;
+        }
+        Object result;
+        try {
+            result = ((JavascriptExecutor) driver).executeAsyncScript(CAPTURE_SCRIPT, since,
+                    Long.parseLong(ConfigReader.getProperty("perf.settle.millis", "300")),
+                    Long.parseLong(ConfigReader.getProperty("perf.settle.max.millis", "5000")));
+        } catch (Exception e) {
+            logger.warn("Could not capture {} page performance: {}", pageType, e.getMessage().split("\n")[0]);
+            return null;
+        }
+        if (!(result instanceof Map)) {
+            return null;
+        }
+        Sample sample = toSample(pageType, (Map<?, ?>) result);
+        pages.computeIfAbsent(pageType, key -> new CopyOnWriteArrayList<>()).add(sample);
+        testSamples.get().add(sample);
+        if (sample.getViolations().isEmpty()) {
+            logger.debug("{} page performance: {}", pageType, sample.getMetrics());
+        } else {
+            logger.warn("{} page over budget: {}", pageType, String.join("; ", sample.getViolations()));
+        }
+        return sample;
+    }
+
+    private static Sample toSample(String pageType, Map<?, ?> result) {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        putIfPresent(metrics, TTFB, result.get(TTFB));
+        putIfPresent(metrics, DOM_CONTENT_LOADED, result.get(DOM_CONTENT_LOADED));
+        putIfPresent(metrics, LOAD, result.get(LOAD));
+
+        double end = metrics.getOrDefault(LOAD, 0.0);
+        double transferBytes = number(result.get("documentBytes"));
+        List<double[]> timings = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        Object resources = result.get(RESOURCES);
+        List<?> entries = resources instanceof List ? (List<?>) resources : Collections.emptyList();
+        for (Object entry : entries) {
+            Map<?, ?> resource = (Map<?, ?>) entry;
+            double start = number(resource.get("start"));
+            double resourceEnd = number(resource.get("end"));
+            end = Math.max(end, resourceEnd);
+            transferBytes += number(resource.get("size"));
+            timings.add(new double[]{resourceEnd - start, names.size()});
+            names.add(String.valueOf(resource.get("name")));
+        }
+        metrics.put(DURATION, end);
+        putIfPresent(metrics, FCP, result.get(FCP));
+        putIfPresent(metrics, LCP, result.get(LCP));
+        putIfPresent(metrics, CLS, result.get(CLS));
+        metrics.put(RESOURCES, (double) entries.size());
+        metrics.put(TRANSFER_BYTES, transferBytes);
+
+        timings.sort((first, second) -> Double.compare(second[0], first[0]));
+        Map<String, Double> slowest = new LinkedHashMap<>();
+        for (double[] timing : timings.subList(0, Math.min(SLOWEST_RESOURCES, timings.size()))) {
+            slowest.put(names.get((int) timing[1]), timing[0]);
+        }
+
+        String profile = DriverManager.getCurrentThrottlingProfile();
+        String throttled = ThrottlingProfile.NONE.equals(profile) ? "" : " (" + profile + ")";
+        List<String> violations = new ArrayList<>();
+        metrics.forEach((metric, value) -> {
+            Double budget = getBudget(profile, pageType, metric);
+            if (budget != null && value > budget) {
+                violations.add(String.format(Locale.ROOT, "%s %s %s > %s%s",
+                        pageType, metric, format(value), format(budget), throttled));
+            }
+        });
+        String test = currentTest.get();
+        return new Sample(pageType, String.valueOf(result.get("url")), test != null ? test : NO_TEST,
+                DriverManager.getCurrentBrowser(), profile, Collections.unmodifiableMap(metrics),
+                Collections.unmodifiableMap(slowest), Collections.unmodifiableList(violations));
+    }
+
+    private static void putIfPresent(Map<String, Double> metrics, String metric, Object value) {
+        if (value instanceof Number) {
+            metrics.put(metric, ((Number) value).doubleValue());
+        }
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,66 @@
+package utils;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting limit on concurrent browser sessions that can be raised or lowered while sessions are held.
+ * Lowering the limit never interrupts running sessions; it only delays new ones until enough are released.
+ */
+final class SessionLimiter {
+    private final AdjustableSemaphore permits;
+    private int limit;
+
+    /**
+     * Semaphore exposing permit reduction, which Semaphore only offers to subclasses
+     */
+    private static final class AdjustableSemaphore extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        private AdjustableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        private void reduce(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+
+    SessionLimiter(int limit) {
+        this.limit = Math.max(1, limit);
+        this.permits = new AdjustableSemaphore(this.limit);
+    }
+
+    boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    boolean acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        return permits.tryAcquire(timeout, unit);
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    synchronized void setLimit(int newLimit) {
+        int target = Math.max(1, newLimit);
+        if (target > limit) {
+            permits.release(target - limit);
+        } else if (target < limit) {
+            permits.reduce(limit - target);
+        }
+        limit = target;
+    }
+
+    synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Threads currently waiting for a session
+     */
+    int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+}
@@ -0,0 +1,135 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Merges the shard-N-of-M.json files written by {@link listeners.ShardSelector} into one summary and checks
+ * that the shards agree: all shards present, identical plans, and no method run by two shards (data-driven
+ * methods excepted: every shard runs them on its share of the rows).
+ *
+ * Usage: ShardResultMerger [shardsDirectory] [outputFile]. Exits with status 1 if the shards are inconsistent.
+ * Allure results need no merging; copy every shard's allure-results into one directory and generate the report.
+ */
+public class ShardResultMerger {
+    private static final Logger logger = LogManager.getLogger(ShardResultMerger.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "test-output/shards");
+        Path output = args.length > 1 ? Paths.get(args[1]) : directory.resolve("merged.json");
+        List<String> problems = merge(directory, output);
+        problems.forEach(problem -> logger.error("Shard merge problem: {}", problem));
+        if (!problems.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Merge shard result files of a directory into the output file and return any consistency problems
+     */
+    public static List<String> merge(Path directory, Path output) throws IOException {
+        List<JsonNode> shards = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().matches("shard-\\d+-of-\\d+\\.json"))
+                    .sorted().collect(Collectors.toList())) {
+                shards.add(objectMapper.readTree(file.toFile()));
+            }
+        }
+
+        List<String> problems = new ArrayList<>();
+        if (shards.isEmpty()) {
+            problems.add("No shard result files in " + directory);
+            return problems;
+        }
+
+        int shardCount = shards.get(0).path("shardCount").asInt();
+        TreeSet<Integer> seenShards = new TreeSet<>();
+        Map<String, String> planHashes = new HashMap<>();
+        Map<String, Integer> owners = new TreeMap<>();
+        ObjectNode merged = objectMapper.createObjectNode();
+        ArrayNode shardSummaries = merged.putArray("shards");
+        ArrayNode results = merged.putArray("results");
+        Map<String, Integer> statusCounts = new TreeMap<>();
+        long slowestMillis = 0;
+        long fastestMillis = Long.MAX_VALUE;
+
+        for (JsonNode shard : shards) {
+            int index = shard.path("shardIndex").asInt();
+            if (shard.path("shardCount").asInt() != shardCount) {
+                problems.add("Shard " + index + " ran with shard count " + shard.path("shardCount").asInt()
+                        + ", expected " + shardCount);
+            }
+            if (!seenShards.add(index)) {
+                problems.add("Shard " + index + " reported more than once");
+            }
+
+            shard.path("plans").fields().forEachRemaining(plan -> {
+                String hash = plan.getValue().path("planHash").asText();
+                String previous = planHashes.putIfAbsent(plan.getKey(), hash);
+                if (previous != null && !previous.equals(hash)) {
+                    problems.add("Shard " + index + " planned '" + plan.getKey() + "' differently ("
+                            + hash + " vs " + previous + "); shards did not share the same timing history");
+                }
+                plan.getValue().path("assigned").forEach(name -> {
+                    Integer owner = owners.putIfAbsent(plan.getKey() + "/" + name.asText(), index);
+                    if (owner != null && owner != index) {
+                        problems.add(name.asText() + " ran on shards " + owner + " and " + index);
+                    }
+                });
+            });
+
+            long wallMillis = shard.path("stopMillis").asLong() - shard.path("startMillis").asLong();
+            slowestMillis = Math.max(slowestMillis, wallMillis);
+            fastestMillis = Math.min(fastestMillis, wallMillis);
+            shardSummaries.addObject()
+                    .put("shardIndex", index)
+                    .put("wallMillis", wallMillis)
+                    .put("results", shard.path("results").size());
+            for (JsonNode result : shard.path("results")) {
+                ObjectNode copy = result.deepCopy();
+                copy.put("shardIndex", index);
+                results.add(copy);
+                statusCounts.merge(result.path("status").asText(), 1, Integer::sum);
+            }
+        }
+
+        for (int index = 0; index < shardCount; index++) {
+            if (!seenShards.contains(index)) {
+                problems.add("Shard " + index + " of " + shardCount + " has no results");
+            }
+        }
+
+        merged.put("shardCount", shardCount);
+        merged.put("makespanMillis", slowestMillis);
+        merged.put("imbalanceMillis", slowestMillis - fastestMillis);
+        ObjectNode counts = merged.putObject("statusCounts");
+        statusCounts.forEach(counts::put);
+        ArrayNode problemNode = merged.putArray("problems");
+        problems.forEach(problemNode::add);
+
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), merged);
+        logger.info("Merged {} shard(s) into {}: {} results {}, makespan {} ms, imbalance {} ms",
+                shards.size(), output, results.size(), statusCounts, slowestMillis, slowestMillis - fastestMillis);
+        return problems;
+    }
+}
@@ -1,53 +1,67 @@
 package utils;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import data.CustomerProfile;
+import data.JsonRecordStream;
+import data.TestDataSet;
+import data.UniqueDataGenerator;
+import data.UserCredentials;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.Random;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Test Data Provider class for managing test data
  */
 public class TestDataProvider {
-    private static final System.Logger logger = System.getLogger(TestDataProvider.class.getName());
-    private static JsonNode testData;
+    private static final Logger logger = LogManager.getLogger(TestDataProvider.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
-    private static final Random random = new Random();
-
-    static {
-        loadTestData();
-    }
+    // Bound once; immutable and safe to share across parallel test threads
+    private static final TestDataSet dataSet = loadTestData();
 
     /**
-     * Load test data from JSON file
+     * Load test data from JSON file and bind it into the typed model
      */
-    private static void loadTestData() {
+    private static TestDataSet loadTestData() {
         try {
             String testDataFile = ConfigReader.getTestDataFile();
             InputStream inputStream = TestDataProvider.class.getClassLoader().getResourceAsStream(testDataFile);
 
             if (inputStream != null) {
-                testData = objectMapper.readTree(inputStream);
-                System.out.println("Test data loaded successfully from: " + testDataFile);
+                try (InputStream in = inputStream) {
+                    TestDataSet loaded = TestDataSet.fromJson(objectMapper.readTree(in));
+                    System.out.println("Test data loaded successfully from: " + testDataFile);
+                    return loaded;
+                }
             } else {
                 System.out.println("Test data file '" + testDataFile + "' not found. Creating default test data.");
-                createDefaultTestData();
+                return createDefaultTestData();
             }
         } catch (Exception e) {
             System.err.println("Error loading test data: " + e.getMessage());
-            createDefaultTestData();
+            return createDefaultTestData();
         }
     }
 
     /**
      * Create default test data if file is not found
      */
-    private static void createDefaultTestData() {
+    private static TestDataSet createDefaultTestData() {
         try {
             // Create a simple default data structure
             String defaultJson = createDefaultJsonString();
-            testData = objectMapper.readTree(defaultJson);
+            TestDataSet defaults = TestDataSet.fromJson(objectMapper.readTree(defaultJson));
             System.out.println("Default test data created");
+            return defaults;
         } catch (Exception e) {
             System.err.println("Error creating default test data: " + e.getMessage());
             throw new RuntimeException("Failed to initialize test data", e);
@@ -90,54 +104,110 @@ public class TestDataProvider {
         return json.toString();
     }
 
+    /**
+     * Get the typed test data model
+     */
+    public static TestDataSet getDataSet() {
+        return dataSet;
+    }
+
     /**
      * Get test data by path (e.g., "users.validUser.username")
      */
     public static String getTestData(String path) {
-        try {
-            String[] pathParts = path.split("\\.");
-            JsonNode current = testData;
-
-            for (String part : pathParts) {
-                current = current.get(part);
-                if (current == null) {
-                    System.out.println("WARNING: Test data path '" + path + "' not found");
-                    return "";
-                }
-            }
-
-            return current.asText();
-        } catch (Exception e) {
-            System.err.println("Error getting test data for path: " + path + " - " + e.getMessage());
+        String value = dataSet.getValue(path);
+        if (value == null) {
+            System.out.println("WARNING: Test data path '" + path + "' not found");
             return "";
         }
+        return value;
+    }
+
+    /**
+     * Get valid user
+     */
+    public static UserCredentials getValidUser() {
+        return dataSet.getUser("validUser");
+    }
+
+    /**
+     * Get invalid user
+     */
+    public static UserCredentials getInvalidUser() {
+        return dataSet.getUser("invalidUser");
     }
 
     /**
      * Get valid user credentials
      */
     public static String[] getValidUserCredentials() {
-        String username = getTestData("users.validUser.username");
-        String password = getTestData("users.validUser.password");
-        return new String[]{username, password};
+        return getValidUser().toArray();
     }
 
     /**
      * Get invalid user credentials
      */
     public static String[] getInvalidUserCredentials() {
-        String username = getTestData("users.invalidUser.username");
-        String password = getTestData("users.invalidUser.password");
-        return new String[]{username, password};
+        return getInvalidUser().toArray();
+    }
+
+    /**
+     * Stream records from a JSON array or NDJSON file as TestNG data provider rows.
+     * Rows are bound lazily and restricted to this worker's shard (data.shard.index / data.shard.count),
+     * which is the JVM shard (shard.index / shard.count) unless set.
+     */
+    public static <T> Iterator<Object[]> streamRecords(String source, Function<JsonNode, T> binder) {
+        int shardCount = Integer.parseInt(getDataShardProperty("data.shard.count", "shard.count", "1"));
+        int shardIndex = Integer.parseInt(getDataShardProperty("data.shard.index", "shard.index", "0"));
+        return streamRecords(source, binder, shardIndex, shardCount);
+    }
+
+    private static String getDataShardProperty(String key, String jvmShardKey, String defaultValue) {
+        String value = ConfigReader.getProperty(key, "");
+        return value.isEmpty() ? ConfigReader.getProperty(jvmShardKey, defaultValue) : value;
+    }
+
+    /**
+     * Stream records of an explicit shard as TestNG data provider rows
+     */
+    public static <T> Iterator<Object[]> streamRecords(String source, Function<JsonNode, T> binder,
+                                                       int shardIndex, int shardCount) {
+        JsonRecordStream<T> records = new JsonRecordStream<>(openDataSource(source), binder, shardIndex, shardCount);
+        logger.info("Streaming test data from: {} (shard {} of {})", source, shardIndex, shardCount);
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return records.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return new Object[]{records.next()};
+            }
+        };
+    }
+
+    /**
+     * Open data file from the classpath, falling back to a filesystem path (large files are usually not bundled)
+     */
+    private static InputStream openDataSource(String source) {
+        InputStream inputStream = TestDataProvider.class.getClassLoader().getResourceAsStream(source);
+        if (inputStream != null) {
+            return inputStream;
+        }
+        Path path = Paths.get(source);
+        try {
+            return Files.newInputStream(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Test data source not found on classpath or disk: " + source, e);
+        }
     }
 
     /**
      * Generate unique username
      */
     public static String generateUniqueUsername() {
-        long timestamp = System.currentTimeMillis();
-        int randomNum = random.nextInt(1000);
-        String username = "user_" + timestamp + "_" + randomNum;
+        String username = UniqueDataGenerator.uniqueUsername();
         System.out.println("Generated unique username: " + username);
         return username;
     }
@@ -146,8 +216,7 @@ public class TestDataProvider {
      * Generate unique password
      */
     public static String generateUniquePassword() {
-        long timestamp = System.currentTimeMillis();
-        String password = "pass_" + timestamp;
+        String password = UniqueDataGenerator.uniquePassword();
         System.out.println("Generated unique password");
         return password;
     }
@@ -156,51 +225,42 @@ public class TestDataProvider {
      * Get random product name by category
      */
     public static String getRandomProduct(String category) {
-        try {
-            JsonNode products = testData.get("products").get(category.toLowerCase());
-            if (products != null && products.isArray()) {
-                int randomIndex = random.nextInt(products.size());
-                String product = products.get(randomIndex).asText();
-                System.out.println("Selected random " + category + " product: " + product);
-                return product;
-            }
-        } catch (Exception e) {
-            System.err.println("Error getting random product for category: " + category + " - " + e.getMessage());
+        List<String> products = dataSet.getProducts(category);
+        if (products.isEmpty()) {
+            System.err.println("No products found for category: " + category);
+            return "";
         }
-        return "";
+        String product = products.get(UniqueDataGenerator.nextInt(products.size()));
+        System.out.println("Selected random " + category + " product: " + product);
+        return product;
+    }
+
+    /**
+     * Get default customer profile for checkout
+     */
+    public static CustomerProfile getCustomerProfile() {
+        return getCustomerProfile("customerInfo");
+    }
+
+    /**
+     * Get customer profile by key (e.g. "alternateCustomer")
+     */
+    public static CustomerProfile getCustomerProfile(String profileKey) {
+        return dataSet.getCustomerProfile(profileKey);
     }
 
     /**
      * Get customer information for checkout
      */
     public static String[] getCustomerInfo() {
-        String name = getTestData("checkout.customerInfo.name");
-        String country = getTestData("checkout.customerInfo.country");
-        String city = getTestData("checkout.customerInfo.city");
-        String creditCard = getTestData("checkout.customerInfo.creditCard");
-        String month = getTestData("checkout.customerInfo.month");
-        String year = getTestData("checkout.customerInfo.year");
-
-        return new String[]{name, country, city, creditCard, month, year};
+        return getCustomerProfile().toArray();
     }
 
     /**
      * Get all available categories
      */
     public static String[] getCategories() {
-        try {
-            JsonNode categories = testData.get("categories");
-            if (categories != null && categories.isArray()) {
-                String[] categoryArray = new String[categories.size()];
-                for (int i = 0; i < categories.size(); i++) {
-                    categoryArray[i] = categories.get(i).asText();
-                }
-                return categoryArray;
-            }
-        } catch (Exception e) {
-            System.err.println("Error getting categories: " + e.getMessage());
-        }
-        return new String[0];
+        return dataSet.getCategories().toArray(new String[0]);
     }
 
     /**
@@ -209,7 +269,7 @@ public class TestDataProvider {
     public static String getRandomCategory() {
         String[] categories = getCategories();
         if (categories.length > 0) {
-            String category = categories[random.nextInt(categories.length)];
+            String category = categories[UniqueDataGenerator.nextInt(categories.length)];
             System.out.println("Selected random category: " + category);
             return category;
         }
@@ -220,19 +280,13 @@ public class TestDataProvider {
      * Generate random email
      */
     public static String generateRandomEmail() {
-        long timestamp = System.currentTimeMillis();
-        int randomNum = random.nextInt(1000);
-        return "test_" + timestamp + "_" + randomNum + "@test.com";
+        return UniqueDataGenerator.uniqueEmail();
     }
 
     /**
      * Generate random phone number
      */
     public static String generateRandomPhoneNumber() {
-        StringBuilder phone = new StringBuilder("+1");
-        for (int i = 0; i < 10; i++) {
-            phone.append(random.nextInt(10));
-        }
-        return phone.toString();
+        return UniqueDataGenerator.randomPhoneNumber();
     }
 }
\ No newline at end of file
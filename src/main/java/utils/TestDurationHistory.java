@@ -0,0 +1,164 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Historical test method durations, keyed by qualified method name (e.g. "tests.CartTests.testAddProductToCart").
+ *
+ * Durations are kept as an exponentially weighted moving average in timing.history.file. When that store
+ * does not exist yet, history is seeded from the result files in allure.results.directory.
+ */
+public class TestDurationHistory {
+    private static final Logger logger = LogManager.getLogger(TestDurationHistory.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Weight of the newest run; older runs decay so the estimate follows real changes quickly
+    private static final double EWMA_ALPHA = 0.3;
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>(load());
+
+    /**
+     * Smoothed duration of one test method
+     */
+    private static final class Entry {
+        private final long expectedMillis;
+        private final long lastMillis;
+        private final int samples;
+
+        private Entry(long expectedMillis, long lastMillis, int samples) {
+            this.expectedMillis = expectedMillis;
+            this.lastMillis = lastMillis;
+            this.samples = samples;
+        }
+
+        private Entry update(long millis) {
+            long smoothed = Math.round(EWMA_ALPHA * millis + (1 - EWMA_ALPHA) * expectedMillis);
+            return new Entry(smoothed, millis, samples + 1);
+        }
+    }
+
+    /**
+     * Get expected duration of a test method in milliseconds, or -1 if it has never been timed
+     */
+    public static long getExpectedMillis(String qualifiedName) {
+        Entry entry = entries.get(qualifiedName);
+        return entry != null ? entry.expectedMillis : -1;
+    }
+
+    /**
+     * Get expected durations of all known test methods
+     */
+    public static Map<String, Long> getExpectedDurations() {
+        Map<String, Long> durations = new TreeMap<>();
+        entries.forEach((name, entry) -> durations.put(name, entry.expectedMillis));
+        return durations;
+    }
+
+    /**
+     * Get median expected duration over all known methods, or the default if there is no history
+     */
+    public static long getMedianMillis(long defaultMillis) {
+        List<Long> durations = new ArrayList<>(getExpectedDurations().values());
+        if (durations.isEmpty()) {
+            return defaultMillis;
+        }
+        Collections.sort(durations);
+        return durations.get(durations.size() / 2);
+    }
+
+    /**
+     * Fold the total duration of one test method in this run into its history
+     */
+    public static void record(String qualifiedName, long millis) {
+        entries.merge(qualifiedName, new Entry(millis, millis, 1), (current, fresh) -> current.update(millis));
+    }
+
+    /**
+     * Write history to the timing store (atomically, so a killed run never leaves a half-written file)
+     */
+    public static synchronized void save() {
+        Path file = getHistoryFile();
+        ObjectNode root = objectMapper.createObjectNode();
+        new TreeMap<>(entries).forEach((name, entry) -> root.putObject(name)
+                .put("expectedMillis", entry.expectedMillis)
+                .put("lastMillis", entry.lastMillis)
+                .put("samples", entry.samples));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(tempFile.toFile(), root);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Saved durations of {} test methods to {}", entries.size(), file);
+        } catch (IOException e) {
+            logger.error("Failed to save test duration history to {}", file, e);
+        }
+    }
+
+    /**
+     * Get timing store location
+     */
+    public static Path getHistoryFile() {
+        return Paths.get(ConfigReader.getProperty("timing.history.file", "test-output/timings/durations.json"));
+    }
+
+    private static Map<String, Entry> load() {
+        Path file = getHistoryFile();
+        if (Files.isRegularFile(file)) {
+            try {
+                Map<String, Entry> loaded = new HashMap<>();
+                objectMapper.readTree(file.toFile()).fields().forEachRemaining(field -> {
+                    JsonNode node = field.getValue();
+                    loaded.put(field.getKey(), new Entry(node.path("expectedMillis").asLong(),
+                            node.path("lastMillis").asLong(), node.path("samples").asInt(1)));
+                });
+                logger.info("Loaded durations of {} test methods from {}", loaded.size(), file);
+                return loaded;
+            } catch (IOException e) {
+                logger.warn("Unreadable test duration history {}, falling back to Allure results", file, e);
+            }
+        }
+        return loadFromAllureResults();
+    }
+
+    /**
+     * Seed history from Allure result files, oldest first so the newest runs weigh most
+     */
+    private static Map<String, Entry> loadFromAllureResults() {
+        List<JsonNode> results = new ArrayList<>();
+        for (JsonNode result : AllureResults.readResults()) {
+            if (!"skipped".equals(result.path("status").asText())) {
+                results.add(result);
+            }
+        }
+
+        Map<String, Entry> loaded = new HashMap<>();
+        for (JsonNode result : results) {
+            long millis = Math.max(0, result.path("stop").asLong() - result.path("start").asLong());
+            loaded.merge(result.get("fullName").asText(), new Entry(millis, millis, 1),
+                    (current, fresh) -> current.update(millis));
+        }
+        if (!loaded.isEmpty()) {
+            logger.info("Seeded durations of {} test methods from {} Allure results in {}",
+                    loaded.size(), results.size(), AllureResults.getDirectory());
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,802 @@
+package utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Static test impact analysis: finds the test methods affected by the changes since a git revision.
+ *
+ * Java sources are parsed into members (methods, fields, locator constants) with their line ranges, and every
+ * member gets an edge to the members it uses: test methods to the action methods they call through
+ * loginActions() etc., action methods to the locator constants and helper methods they use. Locators are
+ * String constants that javac inlines, hence source rather than bytecode. Changed lines from git diff mark
+ * members as changed; a test is affected when it reaches a changed member, directly or through the
+ * @Before/@After methods of its class hierarchy. Types are resolved from declarations and return types only,
+ * so calls through lambdas or untyped expressions are missed; the nightly full run covers those.
+ *
+ * The whole suite is selected when a change cannot be mapped safely: non-Java files (testng.xml, test data,
+ * pom.xml) unless matched by impact.ignore, deleted sources, or classes no test reaches (e.g. listeners).
+ *
+ * Usage: TestImpactAnalyzer [baseRevision] prints the affected tests.
+ */
+public class TestImpactAnalyzer {
+    private static final Logger logger = LogManager.getLogger(TestImpactAnalyzer.class);
+    private static final Pattern PACKAGE = Pattern.compile("\\bpackage\\s+([\\w.]+)\\s*;");
+    private static final Pattern TYPE_HEADER = Pattern.compile("\\b(?:class|interface|enum)\\s+(\\w+)(?:\\s*<[^{]*?>)?(?:\\s+extends\\s+(\\w+))?");
+    private static final Pattern METHOD_HEADER = Pattern.compile("(?:([\\w.]+)(?:<[^()]*>)?(?:\\[\\])*\\s+)?(\\w+)\\s*\\($");
+    private static final Pattern FIELD_DECLARATION = Pattern.compile("([\\w.]+)(?:<[^=]*>)?(?:\\[\\])*\\s+(\\w+)\\s*(?:=|$)");
+    private static final Pattern DATA_PROVIDER = Pattern.compile("dataProvider\\s*=\\s*\"(\\w+)\"");
+    private static final Pattern HUNK = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+(\\d+)(?:,(\\d+))? @@");
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "if", "for", "while", "switch", "catch", "return", "new", "throw", "synchronized", "else", "try",
+            "do", "case", "instanceof", "this", "super", "null", "true", "false"));
+
+    // Type of a parenthesis that is not a call into project code
+    private static final SourceClass NO_TYPE = new SourceClass("", null, "");
+
+    private final Map<String, SourceClass> classes = new LinkedHashMap<>();
+    private final Map<String, SourceClass> classesByFile = new HashMap<>();
+
+    /**
+     * Result of an analysis: affected test methods, or the reasons the whole suite has to run
+     */
+    public static final class Impact {
+        private final Set<String> affectedTests;
+        private final List<String> runAllReasons;
+        private final Set<String> changedFiles;
+        private final Set<String> changedMembers;
+
+        private Impact(Set<String> affectedTests, List<String> runAllReasons, Set<String> changedFiles,
+                       Set<String> changedMembers) {
+            this.affectedTests = affectedTests;
+            this.runAllReasons = runAllReasons;
+            this.changedFiles = changedFiles;
+            this.changedMembers = changedMembers;
+        }
+
+        /**
+         * Qualified names of the affected test methods (e.g. "tests.CheckoutTests.testCompleteCheckout")
+         */
+        public Set<String> getAffectedTests() {
+            return affectedTests;
+        }
+
+        public boolean isRunAll() {
+            return !runAllReasons.isEmpty();
+        }
+
+        public List<String> getRunAllReasons() {
+            return runAllReasons;
+        }
+
+        public Set<String> getChangedFiles() {
+            return changedFiles;
+        }
+
+        public Set<String> getChangedMembers() {
+            return changedMembers;
+        }
+    }
+
+    /**
+     * A top-level source class with its members
+     */
+    private static final class SourceClass {
+        private final String name;
+        private final String superName;
+        private final String file;
+        private final Map<String, Member> members = new LinkedHashMap<>();
+        private String[] maskedLines = new String[0];
+
+        private SourceClass(String name, String superName, String file) {
+            this.name = name;
+            this.superName = superName;
+            this.file = file;
+        }
+    }
+
+    /**
+     * Method, constructor, field or nested type of a class; overloads share one member
+     */
+    private static final class Member {
+        private final SourceClass owner;
+        private final String name;
+        private final String type;
+        private final List<int[]> lines = new ArrayList<>();
+        private final List<String> headers = new ArrayList<>();
+        private final List<String> rawHeaders = new ArrayList<>();
+        private final List<String> texts = new ArrayList<>();
+        private final Set<Member> uses = new HashSet<>();
+
+        private Member(SourceClass owner, String name, String type) {
+            this.owner = owner;
+            this.name = name;
+            this.type = type;
+        }
+
+        private String id() {
+            return owner.name + "." + name;
+        }
+
+        private boolean hasAnnotation(String prefix) {
+            for (String header : headers) {
+                if (header.contains("@" + prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String base = args.length > 0 ? args[0] : ConfigReader.getProperty("impact.base", "origin/main");
+        long start = System.nanoTime();
+        TestImpactAnalyzer analyzer = fromConfiguration();
+        Impact impact = analyzer.analyze(base);
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (impact.isRunAll()) {
+            System.out.println("ALL " + String.join("; ", impact.getRunAllReasons()));
+        } else {
+            impact.getAffectedTests().forEach(System.out::println);
+        }
+        logger.info("Impact analysis against {} took {} ms: {} changed files, {} changed members, {}", base, millis,
+                impact.getChangedFiles().size(), impact.getChangedMembers().size(),
+                impact.isRunAll() ? "full suite" : impact.getAffectedTests().size() + " affected tests");
+    }
+
+    /**
+     * Analyzer over the source roots of impact.source.roots
+     */
+    public static TestImpactAnalyzer fromConfiguration() throws IOException {
+        TestImpactAnalyzer analyzer = new TestImpactAnalyzer();
+        for (String root : ConfigReader.getProperty("impact.source.roots", "src/main/java,src/test/java").split("\\s*,\\s*")) {
+            analyzer.addSourceRoot(Paths.get(root));
+        }
+        analyzer.link();
+        return analyzer;
+    }
+
+    /**
+     * Parse every .java file under a source root
+     */
+    public void addSourceRoot(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(path -> path.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            parse(file, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Find the test methods affected by changes between a git revision (its merge base with HEAD) and the working tree,
+     * including files git does not track yet
+     */
+    public Impact analyze(String baseRevision) throws IOException {
+        String mergeBase = git("merge-base", baseRevision, "HEAD").trim();
+        StringBuilder diff = new StringBuilder(
+                git("diff", "--no-color", "--no-renames", "-U0", mergeBase.isEmpty() ? baseRevision : mergeBase));
+        for (String file : git("ls-files", "--others", "--exclude-standard").split("\n")) {
+            if (!file.trim().isEmpty()) {
+                diff.append(addedFileDiff(file.trim()));
+            }
+        }
+        return analyzeDiff(diff.toString());
+    }
+
+    /**
+     * Diff header and hunk marking every line of an untracked file as added
+     */
+    private static String addedFileDiff(String file) throws IOException {
+        byte[] content = Files.readAllBytes(Paths.get(file));
+        int lines = 0;
+        for (byte b : content) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+        if (content.length > 0 && content[content.length - 1] != '\n') {
+            lines++;
+        }
+        return "\n--- /dev/null\n+++ b/" + file + "\n@@ -0,0 +1," + Math.max(1, lines) + " @@\n";
+    }
+
+    /**
+     * Find the test methods affected by the changes of a unified diff (paths relative to the working directory)
+     */
+    public Impact analyzeDiff(String diff) {
+        Map<String, List<int[]>> changedLines = new LinkedHashMap<>();
+        Set<String> deletedFiles = new TreeSet<>();
+        String oldFile = null;
+        String currentFile = null;
+        for (String line : diff.split("\n")) {
+            if (line.startsWith("--- ")) {
+                oldFile = stripPrefix(line.substring(4));
+            } else if (line.startsWith("+++ ")) {
+                currentFile = stripPrefix(line.substring(4));
+                if (currentFile == null && oldFile != null) {
+                    deletedFiles.add(oldFile);
+                } else if (currentFile != null) {
+                    changedLines.computeIfAbsent(currentFile, file -> new ArrayList<>());
+                }
+            } else if (currentFile != null) {
+                Matcher hunk = HUNK.matcher(line);
+                if (hunk.find()) {
+                    int start = Integer.parseInt(hunk.group(1));
+                    int count = hunk.group(2) != null ? Integer.parseInt(hunk.group(2)) : 1;
+                    // A pure deletion is reported after the line it follows; mark that line and the next
+                    changedLines.get(currentFile).add(count == 0
+                            ? new int[]{start, start + 1, 1} : new int[]{start, start + count - 1, 0});
+                }
+            }
+        }
+
+        List<String> runAllReasons = new ArrayList<>();
+        PathMatcher ignored = ignoreMatcher();
+        Set<Member> changed = new LinkedHashSet<>();
+        for (String file : deletedFiles) {
+            if (classesByFile.containsKey(normalize(file)) || file.endsWith(".java")) {
+                runAllReasons.add("deleted source " + file);
+            } else if (!ignored.matches(Paths.get(file))) {
+                runAllReasons.add("deleted " + file);
+            }
+        }
+        changedLines.forEach((file, ranges) -> {
+            SourceClass source = classesByFile.get(normalize(file));
+            if (source == null) {
+                if (!ignored.matches(Paths.get(file))) {
+                    runAllReasons.add("changed " + file);
+                }
+                return;
+            }
+            changed.addAll(changedMembers(source, ranges));
+        });
+
+        Map<Member, Set<Member>> usedBy = new HashMap<>();
+        for (SourceClass source : classes.values()) {
+            for (Member member : source.members.values()) {
+                for (Member used : member.uses) {
+                    usedBy.computeIfAbsent(used, key -> new HashSet<>()).add(member);
+                }
+            }
+        }
+        Set<Member> reached = new HashSet<>(changed);
+        Deque<Member> pending = new ArrayDeque<>(changed);
+        while (!pending.isEmpty()) {
+            for (Member user : usedBy.getOrDefault(pending.poll(), new HashSet<>())) {
+                if (reached.add(user)) {
+                    pending.add(user);
+                }
+            }
+        }
+
+        Set<String> affected = new TreeSet<>();
+        Set<Member> testRoots = new HashSet<>();
+        for (SourceClass source : classes.values()) {
+            Set<Member> lifecycle = new HashSet<>();
+            for (SourceClass type = source; type != null; type = classes.get(qualify(type, type.superName))) {
+                for (Member member : type.members.values()) {
+                    if (member.hasAnnotation("Before") || member.hasAnnotation("After")) {
+                        lifecycle.add(member);
+                    }
+                }
+            }
+            boolean lifecycleChanged = lifecycle.stream().anyMatch(reached::contains);
+            for (Member member : source.members.values()) {
+                if (!member.hasAnnotation("Test")) {
+                    continue;
+                }
+                testRoots.add(member);
+                testRoots.addAll(lifecycle);
+                if (lifecycleChanged || reached.contains(member)) {
+                    affected.add(qualifiedName(source, member));
+                }
+            }
+        }
+        Set<SourceClass> reachedByTests = classesUsedFrom(testRoots);
+        for (Member member : changed) {
+            if (!reachedByTests.contains(member.owner)) {
+                runAllReasons.add("changed " + member.owner.name + " is not used by any test");
+            }
+        }
+
+        Set<String> changedIds = changed.stream().map(Member::id).collect(Collectors.toCollection(TreeSet::new));
+        return new Impact(affected, new ArrayList<>(new LinkedHashSet<>(runAllReasons)),
+                new TreeSet<>(changedLines.keySet()), changedIds);
+    }
+
+    /**
+     * Members whose lines overlap the changed ranges; a change outside any member (imports, class header,
+     * field initializers spanning blocks) marks the whole class
+     */
+    private static Set<Member> changedMembers(SourceClass source, List<int[]> ranges) {
+        Set<Member> changed = new LinkedHashSet<>();
+        for (int[] range : ranges) {
+            boolean matched = false;
+            for (Member member : source.members.values()) {
+                for (int[] lines : member.lines) {
+                    if (range[0] <= lines[1] && range[1] >= lines[0]) {
+                        changed.add(member);
+                        matched = true;
+                    }
+                }
+            }
+            if (!matched && !isBlankOrComment(source, range)) {
+                changed.addAll(source.members.values());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Changed lines between members that hold only whitespace and comments; a pure deletion never counts,
+     * since the deleted lines may have held code
+     */
+    private static boolean isBlankOrComment(SourceClass source, int[] range) {
+        if (range[2] == 1) {
+            return false;
+        }
+        for (int line = range[0]; line <= range[1] && line <= source.maskedLines.length; line++) {
+            if (!source.maskedLines[line - 1].trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<SourceClass> classesUsedFrom(Set<Member> roots) {
+        Set<SourceClass> reachedClasses = new HashSet<>();
+        Set<Member> seen = new HashSet<>();
+        Deque<Member> pending = new ArrayDeque<>(roots);
+        while (!pending.isEmpty()) {
+            Member current = pending.poll();
+            if (seen.add(current)) {
+                reachedClasses.add(current.owner);
+                pending.addAll(current.uses);
+            }
+        }
+        return reachedClasses;
+    }
+
+    private static String qualifiedName(SourceClass source, Member member) {
+        return source.name + "." + member.name;
+    }
+
+    // ---- parsing ----
+
+    private void parse(Path file, String text) {
+        String masked = mask(text);
+        Matcher packageMatcher = PACKAGE.matcher(masked);
+        String packageName = packageMatcher.find() ? packageMatcher.group(1) + "." : "";
+        Matcher header = TYPE_HEADER.matcher(masked);
+        if (!header.find()) {
+            return;
+        }
+        int open = masked.indexOf('{', header.end());
+        if (open < 0) {
+            return;
+        }
+
+        SourceClass source = new SourceClass(packageName + header.group(1),
+                header.group(2) != null ? header.group(2) : null, normalize(file.toString()));
+        int[] lineStarts = lineStarts(masked);
+        int segmentStart = open + 1;
+        int depth = 1;
+        int i = open + 1;
+        while (i < masked.length() && depth > 0) {
+            char c = masked.charAt(i);
+            if (c == '}') {
+                depth--;
+                i++;
+                segmentStart = i;
+            } else if (c == ';') {
+                addField(source, masked, text, segmentStart, i, lineStarts);
+                i++;
+                segmentStart = i;
+            } else if (c == '(') {
+                // Annotation arguments may hold braces (dependsOnMethods = {...}); parameter lists never do
+                i = matching(masked, i, '(', ')') + 1;
+            } else if (c == '{') {
+                String segmentHeader = masked.substring(segmentStart, i);
+                int close = matching(masked, i, '{', '}');
+                int end = close;
+                if (stripAnnotationsAndModifiers(segmentHeader).contains("=")) {
+                    // Field with an array initializer: the declaration ends at the next ';'
+                    end = masked.indexOf(';', close);
+                    end = end < 0 ? close : end;
+                    addField(source, masked, text, segmentStart, end, lineStarts);
+                } else {
+                    addBlock(source, masked, text, segmentStart, i, end, lineStarts);
+                }
+                i = end + 1;
+                segmentStart = i;
+            } else {
+                i++;
+            }
+        }
+        source.maskedLines = masked.split("\n", -1);
+        classes.put(source.name, source);
+        classesByFile.put(source.file, source);
+    }
+
+    private void addField(SourceClass source, String masked, String text, int start, int end, int[] lineStarts) {
+        String declaration = masked.substring(start, end).trim();
+        int equals = declaration.indexOf('=');
+        String left = stripAnnotationsAndModifiers(equals >= 0 ? declaration.substring(0, equals) : declaration).trim();
+        if (left.isEmpty() || left.contains("(")) {
+            return;
+        }
+        Matcher matcher = FIELD_DECLARATION.matcher(left);
+        if (!matcher.find()) {
+            return;
+        }
+        addMember(source, matcher.group(2), matcher.group(1), masked, text, start, end, end, lineStarts);
+    }
+
+    private void addBlock(SourceClass source, String masked, String text, int start, int open, int close, int[] lineStarts) {
+        String header = masked.substring(start, open);
+        Matcher nested = TYPE_HEADER.matcher(header);
+        if (nested.find()) {
+            addMember(source, nested.group(1), nested.group(1), masked, text, start, open, close, lineStarts);
+            return;
+        }
+        String declaration = stripAnnotationsAndModifiers(header);
+        int paren = declaration.indexOf('(');
+        if (paren < 0) {
+            // Instance or static initializer
+            addMember(source, "<init>", null, masked, text, start, open, close, lineStarts);
+            return;
+        }
+        Matcher method = METHOD_HEADER.matcher(declaration.substring(0, paren + 1).trim());
+        if (!method.find()) {
+            return;
+        }
+        String simpleName = source.name.substring(source.name.lastIndexOf('.') + 1);
+        String name = method.group(2).equals(simpleName) ? "<init>" : method.group(2);
+        addMember(source, name, method.group(1), masked, text, start, open, close, lineStarts);
+    }
+
+    private void addMember(SourceClass source, String name, String type, String masked, String text,
+                           int start, int bodyStart, int end, int[] lineStarts) {
+        while (start < end && Character.isWhitespace(masked.charAt(start))) {
+            start++;
+        }
+        Member member = source.members.computeIfAbsent(name, key -> new Member(source, key, type));
+        member.lines.add(new int[]{lineOf(lineStarts, start), lineOf(lineStarts, end)});
+        member.headers.add(masked.substring(start, bodyStart));
+        member.rawHeaders.add(text.substring(start, bodyStart));
+        member.texts.add(masked.substring(start, Math.min(masked.length(), end + 1)));
+    }
+
+    /**
+     * Resolve the members each member uses, once all sources are parsed
+     */
+    public void link() {
+        for (SourceClass source : classes.values()) {
+            for (Member member : source.members.values()) {
+                for (int i = 0; i < member.texts.size(); i++) {
+                    linkText(source, member, member.texts.get(i));
+                    Matcher provider = DATA_PROVIDER.matcher(member.rawHeaders.get(i));
+                    while (provider.find()) {
+                        addUse(member, resolve(source, provider.group(1)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Walk the tokens of a member tracking the type of the expression before each '.', so
+     * checkoutActions().clickPurchaseButton() resolves through the return type of checkoutActions()
+     */
+    private void linkText(SourceClass self, Member member, String text) {
+        List<String> tokens = tokenize(text);
+        Map<String, SourceClass> locals = new HashMap<>();
+        Deque<SourceClass> callTypes = new ArrayDeque<>();
+        SourceClass current = null;
+        SourceClass pendingCall = null;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            String previous = i > 0 ? tokens.get(i - 1) : "";
+            String next = i + 1 < tokens.size() ? tokens.get(i + 1) : "";
+
+            if (isIdentifier(token)) {
+                SourceClass typeOfToken = findClass(self, token);
+                if (typeOfToken != null && isIdentifier(next) && !KEYWORDS.contains(next)) {
+                    // Declaration "CheckoutPageActions checkout" (field, parameter or local)
+                    locals.put(next, typeOfToken);
+                }
+                SourceClass resolvedType = null;
+                if ("new".equals(previous)) {
+                    if (typeOfToken != null) {
+                        addUse(member, typeOfToken.members.get("<init>"));
+                        resolvedType = typeOfToken;
+                    }
+                } else if (".".equals(previous)) {
+                    Member used = current != null ? resolve(current, token) : null;
+                    addUse(member, used);
+                    resolvedType = used != null ? findClass(used.owner, used.type) : null;
+                } else if (!KEYWORDS.contains(token)) {
+                    if ("(".equals(next)) {
+                        Member used = resolve(self, token);
+                        addUse(member, used);
+                        resolvedType = used != null ? findClass(used.owner, used.type) : null;
+                    } else if (locals.containsKey(token)) {
+                        resolvedType = locals.get(token);
+                    } else if (typeOfToken != null) {
+                        resolvedType = typeOfToken;
+                    } else {
+                        Member used = resolve(self, token);
+                        addUse(member, used);
+                        resolvedType = used != null ? findClass(used.owner, used.type) : null;
+                    }
+                }
+                if ("(".equals(next)) {
+                    // The call's type applies after its closing parenthesis
+                    pendingCall = resolvedType;
+                    current = null;
+                } else {
+                    current = resolvedType;
+                }
+            } else if ("(".equals(token)) {
+                callTypes.push(pendingCall != null ? pendingCall : NO_TYPE);
+                pendingCall = null;
+                current = null;
+            } else if (")".equals(token)) {
+                SourceClass type = callTypes.isEmpty() ? NO_TYPE : callTypes.pop();
+                current = type == NO_TYPE ? null : type;
+            } else if (!".".equals(token)) {
+                current = null;
+            }
+        }
+    }
+
+    private static void addUse(Member member, Member used) {
+        if (used != null && used != member) {
+            member.uses.add(used);
+        }
+    }
+
+    /**
+     * Find member by name in a class or its superclasses
+     */
+    private Member resolve(SourceClass type, String name) {
+        for (SourceClass current = type; current != null; current = classes.get(qualify(current, current.superName))) {
+            Member member = current.members.get(name);
+            if (member != null) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find project class by simple or qualified name as seen from a class (same package, or any package when unique)
+     */
+    private SourceClass findClass(SourceClass from, String name) {
+        if (name == null || name.isEmpty() || !Character.isUpperCase(name.charAt(name.lastIndexOf('.') + 1))) {
+            return null;
+        }
+        SourceClass exact = classes.get(name);
+        if (exact != null) {
+            return exact;
+        }
+        SourceClass samePackage = classes.get(qualify(from, name));
+        if (samePackage != null) {
+            return samePackage;
+        }
+        SourceClass match = null;
+        for (SourceClass candidate : classes.values()) {
+            if (candidate.name.endsWith("." + name) || candidate.name.equals(name)) {
+                if (match != null) {
+                    return null;
+                }
+                match = candidate;
+            }
+        }
+        return match;
+    }
+
+    private String qualify(SourceClass from, String simpleName) {
+        if (simpleName == null) {
+            return null;
+        }
+        SourceClass resolved = simpleName.contains(".") ? classes.get(simpleName) : null;
+        if (resolved != null) {
+            return resolved.name;
+        }
+        int dot = from.name.lastIndexOf('.');
+        String samePackage = (dot >= 0 ? from.name.substring(0, dot + 1) : "") + simpleName;
+        if (classes.containsKey(samePackage)) {
+            return samePackage;
+        }
+        for (String name : classes.keySet()) {
+            if (name.endsWith("." + simpleName)) {
+                return name;
+            }
+        }
+        return samePackage;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < text.length() && Character.isJavaIdentifierPart(text.charAt(i))) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i));
+            } else if (Character.isDigit(c)) {
+                while (i < text.length() && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add("0");
+            } else if (c == '@') {
+                // Annotation: skip its name so it is not taken for a reference
+                i++;
+                while (i < text.length() && (Character.isJavaIdentifierPart(text.charAt(i)) || text.charAt(i) == '.')) {
+                    i++;
+                }
+            } else if (!Character.isWhitespace(c)) {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isIdentifier(String token) {
+        return !token.isEmpty() && Character.isJavaIdentifierStart(token.charAt(0));
+    }
+
+    /**
+     * Blank out comments and the contents of string and character literals, keeping offsets and line breaks
+     */
+    private static String mask(String text) {
+        StringBuilder masked = new StringBuilder(text);
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            char next = i + 1 < text.length() ? text.charAt(i + 1) : 0;
+            if (c == '/' && next == '/') {
+                while (i < text.length() && text.charAt(i) != '\n') {
+                    masked.setCharAt(i++, ' ');
+                }
+            } else if (c == '/' && next == '*') {
+                int end = text.indexOf("*/", i + 2);
+                end = end < 0 ? text.length() : end + 2;
+                for (; i < end; i++) {
+                    if (text.charAt(i) != '\n') {
+                        masked.setCharAt(i, ' ');
+                    }
+                }
+            } else if (c == '"' || c == '\'') {
+                i++;
+                while (i < text.length() && text.charAt(i) != c && text.charAt(i) != '\n') {
+                    if (text.charAt(i) == '\\') {
+                        masked.setCharAt(i++, ' ');
+                    }
+                    if (i < text.length()) {
+                        masked.setCharAt(i++, ' ');
+                    }
+                }
+                i++;
+            } else {
+                i++;
+            }
+        }
+        return masked.toString();
+    }
+
+    private static String stripAnnotationsAndModifiers(String declaration) {
+        String stripped = declaration.replaceAll("@[\\w.]+(\\s*\\([^)]*\\))?", " ");
+        return stripped.replaceAll("\\b(public|protected|private|static|final|abstract|synchronized|transient|volatile|default|native|strictfp)\\b", " ")
+                .replaceAll("<[^<>]*>\\s*(?=[\\w.]+\\s*\\()", " ");
+    }
+
+    private static int matching(String text, int open, char opening, char closing) {
+        int depth = 0;
+        for (int i = open; i < text.length(); i++) {
+            if (text.charAt(i) == opening) {
+                depth++;
+            } else if (text.charAt(i) == closing && --depth == 0) {
+                return i;
+            }
+        }
+        return text.length() - 1;
+    }
+
+    private static int[] lineStarts(String text) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                starts.add(i + 1);
+            }
+        }
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int lineOf(int[] lineStarts, int offset) {
+        int index = Arrays.binarySearch(lineStarts, offset);
+        return (index >= 0 ? index : -index - 2) + 1;
+    }
+
+    private static PathMatcher ignoreMatcher() {
+        List<PathMatcher> matchers = new ArrayList<>();
+        for (String glob : ConfigReader.getProperty("impact.ignore", "**.md").split("\\s*,\\s*")) {
+            if (!glob.isEmpty()) {
+                matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+            }
+        }
+        return path -> matchers.stream().anyMatch(matcher -> matcher.matches(path));
+    }
+
+    private static String stripPrefix(String path) {
+        String trimmed = path.trim();
+        if ("/dev/null".equals(trimmed)) {
+            return null;
+        }
+        return trimmed.startsWith("a/") || trimmed.startsWith("b/") ? trimmed.substring(2) : trimmed;
+    }
+
+    private static String normalize(String path) {
+        return Paths.get(path).normalize().toString().replace('\\', '/');
+    }
+
+    private static String git(String... arguments) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(arguments));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output;
+        try (InputStream in = process.getInputStream()) {
+            output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try {
+            if (process.waitFor() != 0) {
+                throw new IOException(String.join(" ", command) + " failed: " + output.trim());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running git", e);
+        }
+        return output;
+    }
+}
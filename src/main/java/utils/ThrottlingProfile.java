@@ -0,0 +1,163 @@
+package utils;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Named network and CPU emulation profile, applied to Chromium browsers over CDP by DriverManager.
+ *
+ * Built-in profiles follow the Chrome DevTools presets: none, fast-3g, slow-3g, cpu-4x and cpu-6x. More can be
+ * defined as throttling.profile.&lt;name&gt;=latency=400,download=1600,upload=750,cpu=2 (latency in ms,
+ * throughput in kbit/s, omitted parts unthrottled). Names joined with "+" combine a network and a CPU profile,
+ * e.g. "slow-3g+cpu-4x".
+ */
+public final class ThrottlingProfile {
+    public static final String NONE = "none";
+
+    private static final Map<String, ThrottlingProfile> builtIn = new LinkedHashMap<>();
+
+    static {
+        register(new ThrottlingProfile(NONE, 0, -1, -1, 1));
+        register(new ThrottlingProfile("fast-3g", 563, 1475, 675, 1));
+        register(new ThrottlingProfile("slow-3g", 2000, 400, 400, 1));
+        register(new ThrottlingProfile("cpu-4x", 0, -1, -1, 4));
+        register(new ThrottlingProfile("cpu-6x", 0, -1, -1, 6));
+    }
+
+    private final String name;
+    private final long latencyMillis;
+    private final double downloadKbps;
+    private final double uploadKbps;
+    private final double cpuSlowdown;
+
+    private ThrottlingProfile(String name, long latencyMillis, double downloadKbps, double uploadKbps, double cpuSlowdown) {
+        this.name = name;
+        this.latencyMillis = latencyMillis;
+        this.downloadKbps = downloadKbps;
+        this.uploadKbps = uploadKbps;
+        this.cpuSlowdown = cpuSlowdown;
+    }
+
+    private static void register(ThrottlingProfile profile) {
+        builtIn.put(profile.name, profile);
+    }
+
+    /**
+     * Resolve a profile by name; blank means none
+     *
+     * @throws IllegalArgumentException if a name is neither built in nor configured
+     */
+    public static ThrottlingProfile forName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return builtIn.get(NONE);
+        }
+        String[] parts = name.trim().toLowerCase(Locale.ROOT).split("\\s*\\+\\s*");
+        ThrottlingProfile combined = single(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            ThrottlingProfile next = single(parts[i]);
+            combined = new ThrottlingProfile(combined.name + "+" + next.name,
+                    Math.max(combined.latencyMillis, next.latencyMillis),
+                    slowest(combined.downloadKbps, next.downloadKbps),
+                    slowest(combined.uploadKbps, next.uploadKbps),
+                    Math.max(combined.cpuSlowdown, next.cpuSlowdown));
+        }
+        return combined;
+    }
+
+    private static ThrottlingProfile single(String name) {
+        String definition = ConfigReader.getProperty("throttling.profile." + name, null);
+        if (definition != null) {
+            return parse(name, definition);
+        }
+        ThrottlingProfile profile = builtIn.get(name);
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown throttling profile '" + name + "', expected one of "
+                    + builtIn.keySet() + " or a throttling.profile." + name + " definition");
+        }
+        return profile;
+    }
+
+    private static ThrottlingProfile parse(String name, String definition) {
+        long latency = 0;
+        double download = -1;
+        double upload = -1;
+        double cpu = 1;
+        for (String setting : definition.split(",")) {
+            String[] keyValue = setting.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Invalid throttling profile " + name + ": " + definition);
+            }
+            String value = keyValue[1].trim();
+            switch (keyValue[0].trim().toLowerCase(Locale.ROOT)) {
+                case "latency":
+                    latency = Long.parseLong(value);
+                    break;
+                case "download":
+                    download = Double.parseDouble(value);
+                    break;
+                case "upload":
+                    upload = Double.parseDouble(value);
+                    break;
+                case "cpu":
+                    cpu = Double.parseDouble(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid throttling profile " + name + ": " + definition);
+            }
+        }
+        return new ThrottlingProfile(name, latency, download, upload, cpu);
+    }
+
+    private static double slowest(double first, double second) {
+        if (first < 0) {
+            return second;
+        }
+        return second < 0 ? first : Math.min(first, second);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Added round-trip latency in ms
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * Download throughput in kbit/s, -1 for unthrottled
+     */
+    public double getDownloadKbps() {
+        return downloadKbps;
+    }
+
+    /**
+     * Upload throughput in kbit/s, -1 for unthrottled
+     */
+    public double getUploadKbps() {
+        return uploadKbps;
+    }
+
+    /**
+     * CPU slowdown factor, 1 for none
+     */
+    public double getCpuSlowdown() {
+        return cpuSlowdown;
+    }
+
+    public boolean throttlesNetwork() {
+        return latencyMillis > 0 || downloadKbps >= 0 || uploadKbps >= 0;
+    }
+
+    public boolean isNone() {
+        return !throttlesNetwork() && cpuSlowdown <= 1;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,199 @@
+package utils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accounting of the time tests spend waiting (wait.accounting.enabled), per call site and per test.
+ *
+ * Every {@link AccountedWait} and {@link #sleep(long)} is recorded with the time requested, the time actually
+ * waited and whether it timed out. The call site is the first frame outside Selenium, the shared wait helpers
+ * (BaseActions, methods named waitFor...) and the generated timing subclasses, so a helper such as
+ * isElementVisible is charged to the action that called it; the innermost helper is kept as "via". A fixed
+ * sleep always burns its full time. Waits nested inside another wait's condition count towards their call
+ * site but not again towards the test.
+ */
+public class WaitAccounting {
+    public static final String NO_TEST = "-";
+
+    private static final String BASE_ACTIONS = "actions.BaseActions";
+    private static final StackWalker stackWalker = StackWalker.getInstance();
+    private static final boolean enabled = Boolean.parseBoolean(ConfigReader.getProperty("wait.accounting.enabled", "true"));
+
+    private static final Map<String, Totals> sites = new ConcurrentHashMap<>();
+    private static final Map<String, Totals> tests = new ConcurrentHashMap<>();
+    private static final ThreadLocal<int[]> waitDepth = ThreadLocal.withInitial(() -> new int[1]);
+    private static final ThreadLocal<String> currentTest = new ThreadLocal<>();
+
+    /**
+     * Waits and sleeps of one call site or test
+     */
+    public static final class Totals {
+        private final LongAdder waits = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder sleeps = new LongAdder();
+        private final LongAdder requestedMillis = new LongAdder();
+        private final LongAdder waitedMillis = new LongAdder();
+        private final LongAdder timedOutMillis = new LongAdder();
+        private final LongAdder sleptMillis = new LongAdder();
+        private final LongAccumulator maxWaitedMillis = new LongAccumulator(Math::max, 0);
+
+        private void add(long requested, long waited, boolean timedOut, boolean sleep) {
+            if (sleep) {
+                sleeps.increment();
+                sleptMillis.add(waited);
+            } else {
+                waits.increment();
+                requestedMillis.add(requested);
+                waitedMillis.add(waited);
+                if (timedOut) {
+                    timeouts.increment();
+                    timedOutMillis.add(waited);
+                }
+            }
+            maxWaitedMillis.accumulate(waited);
+        }
+
+        public long getWaits() {
+            return waits.sum();
+        }
+
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+
+        public long getSleeps() {
+            return sleeps.sum();
+        }
+
+        public long getRequestedMillis() {
+            return requestedMillis.sum();
+        }
+
+        public long getWaitedMillis() {
+            return waitedMillis.sum();
+        }
+
+        public long getTimedOutMillis() {
+            return timedOutMillis.sum();
+        }
+
+        public long getSleptMillis() {
+            return sleptMillis.sum();
+        }
+
+        public long getMaxWaitedMillis() {
+            return maxWaitedMillis.get();
+        }
+
+        /**
+         * Time that bought nothing: waits that timed out plus fixed sleeps
+         */
+        public long getWastedMillis() {
+            return getTimedOutMillis() + getSleptMillis();
+        }
+    }
+
+    /**
+     * Check whether waits are accounted (wait.accounting.enabled)
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sleep for a fixed time and account it as wasted wait time
+     */
+    public static void sleep(long millis) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            Thread.sleep(millis);
+        } finally {
+            if (enabled) {
+                record(millis, (System.nanoTime() - start) / 1_000_000, false, true);
+            }
+        }
+    }
+
+    /**
+     * Charge waits of this thread to a test (e.g. tests.CartTests.testEmptyCartState) until endTest()
+     */
+    public static void startTest(String testKey) {
+        currentTest.set(testKey);
+    }
+
+    public static void endTest() {
+        currentTest.remove();
+    }
+
+    /**
+     * Get totals per call site, e.g. "CartPageActions.removeProduct:55 via isElementVisible"
+     */
+    public static Map<String, Totals> getSites() {
+        return new TreeMap<>(sites);
+    }
+
+    /**
+     * Get totals per test, outermost waits only
+     */
+    public static Map<String, Totals> getTests() {
+        return new TreeMap<>(tests);
+    }
+
+    /**
+     * Forget all accounted waits
+     */
+    public static void clear() {
+        sites.clear();
+        tests.clear();
+    }
+
+    static void enterWait() {
+        waitDepth.get()[0]++;
+    }
+
+    static void exitWait(long requestedMillis, long waitedMillis, boolean timedOut) {
+        int[] depth = waitDepth.get();
+        depth[0]--;
+        record(requestedMillis, waitedMillis, timedOut, false, depth[0] > 0);
+    }
+
+    private static void record(long requestedMillis, long waitedMillis, boolean timedOut, boolean sleep) {
+        record(requestedMillis, waitedMillis, timedOut, sleep, waitDepth.get()[0] > 0);
+    }
+
+    private static void record(long requestedMillis, long waitedMillis, boolean timedOut, boolean sleep, boolean nested) {
+        sites.computeIfAbsent(callSite(sleep), site -> new Totals()).add(requestedMillis, waitedMillis, timedOut, sleep);
+        if (!nested) {
+            String test = currentTest.get();
+            tests.computeIfAbsent(test != null ? test : NO_TEST, key -> new Totals())
+                    .add(requestedMillis, waitedMillis, timedOut, sleep);
+        }
+    }
+
+    private static String callSite(boolean sleep) {
+        String[] via = {sleep ? "sleep" : null};
+        Optional<StackWalker.StackFrame> site = stackWalker.walk(frames -> frames
+                .filter(frame -> {
+                    String className = frame.getClassName();
+                    if (className.startsWith("org.openqa.selenium.") || className.equals(WaitAccounting.class.getName())
+                            || className.equals(AccountedWait.class.getName()) || className.endsWith("$Timed")) {
+                        return false;
+                    }
+                    boolean helper = className.equals(BASE_ACTIONS) || frame.getMethodName().startsWith("waitFor")
+                            || frame.getMethodName().startsWith("lambda$");
+                    if (helper && via[0] == null && !frame.getMethodName().startsWith("lambda$")) {
+                        via[0] = frame.getMethodName();
+                    }
+                    return !helper;
+                })
+                .findFirst());
+        String location = site.map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                + "." + frame.getMethodName() + ":" + frame.getLineNumber()).orElse("unknown");
+        return via[0] != null ? location + " via " + via[0] : location;
+    }
+}
@@ -0,0 +1,294 @@
+// Storefront of the local DemoBlaze stand-in (utils.DemoBlazeStandIn): same markup and flows, in-memory backend.
+var API_URL = '/api';
+var PAGE_SIZE = 9;
+var lastKey = null;
+
+function api(path, body) {
+  var options = body === undefined ? {} : {
+    method: 'POST',
+    headers: {'Content-Type': 'application/json'},
+    body: JSON.stringify(body)
+  };
+  return fetch(API_URL + path, options).then(function (response) {
+    return response.json().then(function (json) {
+      if (!response.ok) {
+        throw new Error(json && json.errorMessage ? json.errorMessage : 'HTTP ' + response.status);
+      }
+      return json;
+    });
+  });
+}
+
+function getCookie(name) {
+  var match = document.cookie.match(new RegExp('(?:^|; )' + name + '=([^;]*)'));
+  return match ? decodeURIComponent(match[1]) : null;
+}
+
+function setCookie(name, value) {
+  document.cookie = name + '=' + encodeURIComponent(value) + '; path=/';
+}
+
+function deleteCookie(name) {
+  document.cookie = name + '=; path=/; expires=Thu, 01 Jan 1970 00:00:00 GMT';
+}
+
+function uuid() {
+  return 'xxxxxxxx-xxxx-4xxx-yxxx-xxxxxxxxxxxx'.replace(/[xy]/g, function (c) {
+    var r = Math.random() * 16 | 0;
+    return (c === 'x' ? r : (r & 0x3 | 0x8)).toString(16);
+  });
+}
+
+// Carts belong to the logged-in user (token) or to an anonymous browser cookie
+function cartOwner() {
+  var token = getCookie('tokenp_');
+  if (token) {
+    return {cookie: token, flag: true};
+  }
+  var user = getCookie('user');
+  if (!user) {
+    user = uuid();
+    setCookie('user', user);
+  }
+  return {cookie: user, flag: false};
+}
+
+function escapeHtml(text) {
+  return String(text).replace(/[&<>"']/g, function (c) {
+    return {'&': '&amp;', '<': '&lt;', '>': '&gt;', '"': '&quot;', "'": '&#39;'}[c];
+  });
+}
+
+function showModal(id) {
+  var modal = document.getElementById(id);
+  if (!modal) {
+    return;
+  }
+  modal.className = 'modal fade show';
+  modal.style.display = 'block';
+  if (!document.querySelector('.modal-backdrop')) {
+    var backdrop = document.createElement('div');
+    backdrop.className = 'modal-backdrop fade show';
+    document.body.appendChild(backdrop);
+  }
+  if (id === 'orderModal') {
+    document.getElementById('totalm').textContent = 'Total: ' + (document.getElementById('totalp').textContent || '0');
+  }
+}
+
+function hideModals() {
+  var modals = document.querySelectorAll('.modal');
+  for (var i = 0; i < modals.length; i++) {
+    modals[i].className = 'modal fade';
+    modals[i].style.display = 'none';
+  }
+  var backdrop = document.querySelector('.modal-backdrop');
+  if (backdrop) {
+    backdrop.parentNode.removeChild(backdrop);
+  }
+}
+
+document.addEventListener('click', function (event) {
+  var target = event.target.closest('[data-toggle="modal"], [data-dismiss="modal"]');
+  if (!target) {
+    return;
+  }
+  event.preventDefault();
+  if (target.getAttribute('data-dismiss')) {
+    hideModals();
+  } else {
+    showModal(target.getAttribute('data-target').substring(1));
+  }
+});
+
+function renderCards(items) {
+  var html = '';
+  items.forEach(function (item) {
+    html += '<div class="col-lg-4 col-md-6 mb-4"><div class="card h-100">'
+      + '<a href="prod.html?idp_=' + item.id + '"><img class="card-img-top img-fluid" src="' + item.img + '" alt=""></a>'
+      + '<div class="card-block">'
+      + '<h4 class="card-title"><a href="prod.html?idp_=' + item.id + '" class="hrefch">' + escapeHtml(item.title) + '</a></h4>'
+      + '<h5>$' + item.price + '</h5>'
+      + '<p class="card-text" id="article">' + escapeHtml(item.desc) + '</p>'
+      + '</div></div></div>';
+  });
+  document.getElementById('tbodyid').innerHTML = html;
+}
+
+function showPaging(prev, next) {
+  document.getElementById('prev2').style.display = prev ? '' : 'none';
+  document.getElementById('next2').style.display = next ? '' : 'none';
+}
+
+function loadEntries() {
+  return api('/entries').then(function (data) {
+    lastKey = data.LastEvaluatedKey ? data.LastEvaluatedKey.id : null;
+    renderCards(data.Items);
+    showPaging(false, lastKey !== null);
+  });
+}
+
+function nextPage() {
+  if (lastKey === null) {
+    return;
+  }
+  api('/pagination', {id: lastKey}).then(function (data) {
+    renderCards(data.Items);
+    showPaging(true, false);
+  });
+}
+
+function prevPage() {
+  loadEntries();
+}
+
+function byCat(cat) {
+  api('/bycat', {cat: cat}).then(function (data) {
+    renderCards(data.Items);
+    showPaging(false, false);
+  });
+}
+
+function slide(step) {
+  var items = document.querySelectorAll('.carousel-item');
+  var indicators = document.querySelectorAll('.carousel-indicators li');
+  var current = 0;
+  for (var i = 0; i < items.length; i++) {
+    if (items[i].className.indexOf('active') >= 0) {
+      current = i;
+    }
+  }
+  var next = (current + step + items.length) % items.length;
+  items[current].className = 'carousel-item';
+  items[next].className = 'carousel-item active';
+  indicators[current].className = '';
+  indicators[next].className = 'active';
+}
+
+function loadProduct() {
+  var id = new URLSearchParams(window.location.search).get('idp_');
+  api('/view', {id: id}).then(function (item) {
+    document.querySelector('h2.name').textContent = item.title;
+    document.querySelector('h3.price-container').innerHTML = '$' + item.price + ' <small>*includes tax</small>';
+    document.querySelector('#tbodyid img').src = item.img;
+    document.querySelector('#more-information p').textContent = item.desc;
+    document.querySelector('a.btn-success').setAttribute('onclick', 'addToCart(' + item.id + ')');
+  });
+}
+
+function addToCart(id) {
+  var owner = cartOwner();
+  api('/addtocart', {id: uuid(), cookie: owner.cookie, prod_id: id, flag: owner.flag}).then(function () {
+    alert('Product added');
+  });
+  return false;
+}
+
+function loadCart() {
+  var owner = cartOwner();
+  api('/viewcart', {cookie: owner.cookie, flag: owner.flag}).then(function (cart) {
+    return Promise.all(cart.Items.map(function (entry) {
+      return api('/view', {id: entry.prod_id}).then(function (item) {
+        return {entry: entry, item: item};
+      });
+    }));
+  }).then(function (rows) {
+    var html = '';
+    var total = 0;
+    rows.forEach(function (row) {
+      total += row.item.price;
+      html += '<tr class="success"><td><img width="100" height="100" src="' + row.item.img + '"></td>'
+        + '<td>' + escapeHtml(row.item.title) + '</td><td>' + row.item.price + '</td>'
+        + '<td><a href="#" onclick="deleteItem(\'' + row.entry.id + '\')">Delete</a></td></tr>';
+    });
+    document.getElementById('tbodyid').innerHTML = html;
+    document.getElementById('totalp').textContent = rows.length ? String(total) : '';
+  });
+}
+
+function deleteItem(id) {
+  api('/deleteitem', {id: id}).then(loadCart);
+  return false;
+}
+
+function purchaseOrder() {
+  var name = document.getElementById('name').value;
+  var card = document.getElementById('card').value;
+  if (!name || !card) {
+    alert('Please fill out Name and Creditcard.');
+    return;
+  }
+  var owner = cartOwner();
+  api('/order', {
+    cookie: owner.cookie,
+    flag: owner.flag,
+    name: name,
+    country: document.getElementById('country').value,
+    city: document.getElementById('city').value,
+    card: card,
+    month: document.getElementById('month').value,
+    year: document.getElementById('year').value
+  }).then(function (order) {
+    hideModals();
+    var alertBox = document.createElement('div');
+    alertBox.className = 'sweet-alert show-sweet-alert visible';
+    alertBox.innerHTML = '<h2>Thank you for your purchase!</h2>'
+      + '<p class="lead text-muted">Id: ' + order.id + '<br>Amount: ' + order.amount + ' USD<br>Card Number: '
+      + escapeHtml(card) + '<br>Name: ' + escapeHtml(name) + '<br>Date: ' + order.date + '</p>'
+      + '<div class="sa-button-container"><button class="confirm btn btn-lg btn-primary">OK</button></div>';
+    alertBox.querySelector('button').onclick = function () {
+      window.location.href = 'index.html';
+    };
+    document.body.appendChild(alertBox);
+  });
+}
+
+function register() {
+  var username = document.getElementById('sign-username').value;
+  var password = document.getElementById('sign-password').value;
+  api('/signup', {username: username, password: btoa(password)}).then(function (response) {
+    if (response && response.errorMessage) {
+      alert(response.errorMessage);
+      return;
+    }
+    alert('Sign up successful.');
+    hideModals();
+  });
+}
+
+function logIn() {
+  var username = document.getElementById('loginusername').value;
+  var password = document.getElementById('loginpassword').value;
+  api('/login', {username: username, password: btoa(password)}).then(function (response) {
+    if (response && response.errorMessage) {
+      alert(response.errorMessage);
+      return;
+    }
+    setCookie('tokenp_', response.replace('Auth_token: ', ''));
+    window.location.href = 'index.html';
+  });
+}
+
+function logOut() {
+  deleteCookie('tokenp_');
+  window.location.href = 'index.html';
+}
+
+(function checkSession() {
+  var token = getCookie('tokenp_');
+  if (!token) {
+    return;
+  }
+  api('/check', {token: token}).then(function (response) {
+    if (!response || !response.Item) {
+      deleteCookie('tokenp_');
+      return;
+    }
+    document.getElementById('login2').style.display = 'none';
+    document.getElementById('signin2').style.display = 'none';
+    document.getElementById('logout2').style.display = 'block';
+    var welcome = document.getElementById('nameofuser');
+    welcome.textContent = 'Welcome ' + response.Item.username;
+    welcome.style.display = 'block';
+  });
+})();
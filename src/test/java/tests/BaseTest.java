@@ -1,15 +1,23 @@
 package tests;
 
 import actions.*;
+import data.AccountPool;
+import data.CustomerProfile;
+import data.UserCredentials;
+import data.UniqueDataGenerator;
 import utils.TestDataProvider;
+import utils.AccountedWait;
+import utils.AuthTokenService;
 import utils.ConfigReader;
 import utils.DriverManager;
 import utils.TestDataProvider;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.testng.ITestContext;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
 import io.qameta.allure.Attachment;
+import java.lang.reflect.Method;
 import java.util.List;
 import java.util.ArrayList;
 import org.openqa.selenium.JavascriptExecutor;
@@ -24,30 +32,56 @@ import java.time.Duration;
 public class BaseTest {
     protected static final Logger logger = LogManager.getLogger(BaseTest.class);
 
-    // Action classes
-    protected LoginPageActions loginActions;
-    protected HomePageActions homeActions;
-    protected ProductPageActions productActions;
-    protected CartPageActions cartActions;
-    protected CheckoutPageActions checkoutActions;
+    // Action classes, confined to the thread running the test so parallel methods never share them
+    private final ThreadLocal<PageActions> pageActions = new ThreadLocal<>();
 
-    // Test data
+    // Pooled accounts borrowed by the running test, handed back in tearDown
+    private final ThreadLocal<List<UserCredentials>> borrowedAccounts = ThreadLocal.withInitial(ArrayList::new);
+
+    // Test data (set once per class, read-only afterwards)
     protected String baseUrl;
     protected String browser;
 
+    /**
+     * Action classes bound to one thread's WebDriver
+     */
+    private static final class PageActions {
+        private final LoginPageActions login;
+        private final HomePageActions home;
+        private final ProductPageActions product;
+        private final CartPageActions cart;
+        private final CheckoutPageActions checkout;
+
+        private PageActions(WebDriver driver) {
+            // Timed subclasses when latency recording is on (see ActionInstrumentation)
+            login = ActionInstrumentation.create(LoginPageActions.class, driver);
+            home = ActionInstrumentation.create(HomePageActions.class, driver);
+            product = ActionInstrumentation.create(ProductPageActions.class, driver);
+            cart = ActionInstrumentation.create(CartPageActions.class, driver);
+            checkout = ActionInstrumentation.create(CheckoutPageActions.class, driver);
+        }
+    }
+
     @BeforeClass
-    public void setUpClass() {
+    public void setUpClass(ITestContext context) {
         logger.info("Setting up test class: {}", this.getClass().getSimpleName());
+        // TestNG parameters (suite or <test> level) are the highest configuration layer
+        ConfigReader.bindTestParameters(context.getCurrentXmlTest().getAllParameters());
         baseUrl = ConfigReader.getBaseUrl();
         browser = ConfigReader.getBrowser();
         logger.info("Base URL: {}, Browser: {}", baseUrl, browser);
     }
 
     @BeforeMethod
-    public void setUp() {
+    public void setUp(Method method, ITestContext context) {
         logger.info("Setting up test method");
 
         try {
+            ConfigReader.bindTestParameters(context.getCurrentXmlTest().getAllParameters());
+
+            // Reproducible random data per test (see data.seed)
+            UniqueDataGenerator.reseedForTest(method.getDeclaringClass().getName() + "." + method.getName());
+
             // Initialize WebDriver
             DriverManager.initializeDriver(browser);
 
@@ -65,18 +99,44 @@ public class BaseTest {
     }
 
     /**
-     * Initialize all action classes
+     * Initialize all action classes for the current thread
      */
     private void initializeActions() {
-        loginActions = new LoginPageActions(DriverManager.getDriver());
-        homeActions = new HomePageActions(DriverManager.getDriver());
-        productActions = new ProductPageActions(DriverManager.getDriver());
-        cartActions = new CartPageActions(DriverManager.getDriver());
-        checkoutActions = new CheckoutPageActions(DriverManager.getDriver());
-
+        pageActions.set(new PageActions(DriverManager.getDriver()));
         logger.info("Action classes initialized");
     }
 
+    /**
+     * Get action classes of the current thread
+     */
+    private PageActions currentActions() {
+        PageActions actions = pageActions.get();
+        if (actions == null) {
+            throw new IllegalStateException("Action classes are not initialized for this thread. Was setUp() run?");
+        }
+        return actions;
+    }
+
+    protected LoginPageActions loginActions() {
+        return currentActions().login;
+    }
+
+    protected HomePageActions homeActions() {
+        return currentActions().home;
+    }
+
+    protected ProductPageActions productActions() {
+        return currentActions().product;
+    }
+
+    protected CartPageActions cartActions() {
+        return currentActions().cart;
+    }
+
+    protected CheckoutPageActions checkoutActions() {
+        return currentActions().checkout;
+    }
+
     @AfterMethod
     public void tearDown(ITestResult result) {
         logger.info("Tearing down test method: {}", result.getMethod().getMethodName());
@@ -94,8 +154,12 @@ public class BaseTest {
         } catch (Exception e) {
             logger.error("Error during test teardown", e);
         } finally {
-            // Quit WebDriver
-            DriverManager.quitDriver();
+            // Quit WebDriver (or keep it warm, see session.reuse) and release thread-bound state
+            DriverManager.releaseDriver();
+            pageActions.remove();
+            borrowedAccounts.get().forEach(AccountPool::giveBack);
+            borrowedAccounts.remove();
+            ConfigReader.clearTestParameters();
             logger.info("Test teardown completed");
         }
     }
@@ -105,6 +169,12 @@ public class BaseTest {
         logger.info("Tearing down test class: {}", this.getClass().getSimpleName());
     }
 
+    @AfterSuite(alwaysRun = true)
+    public void tearDownSuite() {
+        // Safety net for sessions whose teardown never ran (e.g. killed worker threads)
+        DriverManager.quitAllDrivers();
+    }
+
     /**
      * Take screenshot on test failure
      */
@@ -151,6 +221,25 @@ public class BaseTest {
         return new String[]{username, password};
     }
 
+    /**
+     * Helper method to get a registered account for this test alone: one from the account pool,
+     * or a newly registered one that joins the pool when the test ends
+     */
+    protected UserCredentials borrowAccount() {
+        UserCredentials account = AccountPool.borrow();
+        if (account == null) {
+            String[] userCredentials = generateUniqueUser();
+            account = new UserCredentials(userCredentials[0], userCredentials[1]);
+            AuthTokenService.registerUser(account.getUsername(), account.getPassword());
+            AccountPool.addBorrowed(account);
+            logger.info("Registered pooled account: {}", account.getUsername());
+        } else {
+            logger.info("Borrowed pooled account: {}", account.getUsername());
+        }
+        borrowedAccounts.get().add(account);
+        return account;
+    }
+
     /**
      * Helper method to get valid user credentials
      */
@@ -165,6 +254,22 @@ public class BaseTest {
         return TestDataProvider.getInvalidUserCredentials();
     }
 
+    /**
+     * Helper method to log in without the login modal (for tests not covering the login flow)
+     */
+    protected void loginWithToken(String username, String password) {
+        loginActions().loginWithToken(username, password);
+    }
+
+    /**
+     * Helper method to start a test logged in as a customer of its own, without the sign-up or login modal
+     */
+    protected UserCredentials loginAsCustomer() {
+        UserCredentials account = borrowAccount();
+        loginWithToken(account.getUsername(), account.getPassword());
+        return account;
+    }
+
     /**
      * Helper method to get customer info for checkout
      */
@@ -172,6 +277,13 @@ public class BaseTest {
         return TestDataProvider.getCustomerInfo();
     }
 
+    /**
+     * Helper method to get typed customer profile for checkout
+     */
+    protected CustomerProfile getCustomerProfile() {
+        return TestDataProvider.getCustomerProfile();
+    }
+
     /**
      * Helper method to get random product by category
      */
@@ -185,7 +297,7 @@ public class BaseTest {
     protected void waitForPageLoad() {
         try {
             // Wait for document ready state to be complete
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(3));
+            WebDriverWait wait = new AccountedWait(DriverManager.getDriver(), Duration.ofSeconds(3));
             wait.until(webDriver ->
                     ((JavascriptExecutor) webDriver).executeScript("return document.readyState").equals("complete"));
             
@@ -219,8 +331,8 @@ public class BaseTest {
         logger.info("BaseTest: Navigating to home page");
         try {
             // Method 1: Try using HomePageActions if available
-            if (homeActions != null) {
-                homeActions.navigateToHome();
+            if (pageActions.get() != null) {
+                homeActions().navigateToHome();
                 return;
             }
             
@@ -231,7 +343,7 @@ public class BaseTest {
                 logger.info("Navigated to home via base URL: {}", baseUrl);
             } else {
                 // Fallback URL
-                String fallbackUrl = "https://www.demoblaze.com";
+                String fallbackUrl = ConfigReader.getBaseUrl();
                 DriverManager.navigateToUrl(fallbackUrl);
                 waitForPageLoad();
                 logger.info("Navigated to home via fallback URL: {}", fallbackUrl);
@@ -248,16 +360,16 @@ public class BaseTest {
     protected void clickCategoryByName(String category) {
         switch (category.toLowerCase()) {
             case "phones":
-                homeActions.clickPhonesCategory();
+                homeActions().clickPhonesCategory();
                 break;
             case "laptops":
-                homeActions.clickLaptopsCategory();
+                homeActions().clickLaptopsCategory();
                 break;
             case "monitors":
-                homeActions.clickMonitorsCategory();
+                homeActions().clickMonitorsCategory();
                 break;
             default:
-                homeActions.clickPhonesCategory(); // Default to phones
+                homeActions().clickPhonesCategory(); // Default to phones
         }
     }
 }
\ No newline at end of file
@@ -4,7 +4,10 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 import io.qameta.allure.*;
 import java.util.List;
+import data.CatalogCache;
+import utils.AccountedWait;
 import utils.DriverManager;
+import utils.WaitAccounting;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.WebDriverWait;
@@ -16,28 +19,28 @@ import java.time.Duration;
 @Feature("Shopping Cart Management")
 public class CartTests extends BaseTest {
 
-    
-    private static String workingProduct = null;
-    private static boolean productCached = false;
+    // Known-good product is shared through the concurrent catalog cache, not mutable statics
+    private static final String CART_CATEGORY = "phones";
 
 
     private String addProductOnce() {
-        if (productCached && workingProduct != null) {
-            return addCachedProduct();
+        String cachedProduct = CatalogCache.getWorkingProduct(CART_CATEGORY);
+        if (cachedProduct != null) {
+            return addCachedProduct(cachedProduct);
         }
 
         try {
             navigateToHome();
-            homeActions.clickPhonesCategory();
+            homeActions().clickPhonesCategory();
             
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(3));
+            WebDriverWait wait = new AccountedWait(DriverManager.getDriver(), Duration.ofSeconds(3));
             wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath("//h4[@class='card-title']//a")));
             
            
             WebElement firstProductLink = DriverManager.getDriver().findElement(
                 By.xpath("//h4[@class='card-title']//a"));
             
-            workingProduct = firstProductLink.getText().trim();
+            String product = firstProductLink.getText().trim();
             firstProductLink.click();
             
            
@@ -53,8 +56,8 @@ public class CartTests extends BaseTest {
                 
             }
             
-            productCached = true;
-            return workingProduct;
+            CatalogCache.putWorkingProduct(CART_CATEGORY, product);
+            return product;
             
         } catch (Exception e) {
             throw new RuntimeException("Quick add failed: " + e.getMessage());
@@ -62,12 +65,12 @@ public class CartTests extends BaseTest {
     }
 
     // Use cached product 
-    private String addCachedProduct() {
+    private String addCachedProduct(String workingProduct) {
         try {
             navigateToHome();
-            homeActions.clickPhonesCategory();
+            homeActions().clickPhonesCategory();
             
-            WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(2));
+            WebDriverWait wait = new AccountedWait(DriverManager.getDriver(), Duration.ofSeconds(2));
             
             WebElement productLink = wait.until(ExpectedConditions.elementToBeClickable(
                 By.xpath("//h4[@class='card-title']//a[contains(text(),'" + workingProduct + "')]")));
@@ -88,8 +91,7 @@ public class CartTests extends BaseTest {
             
         } catch (Exception e) {
            
-            productCached = false;
-            workingProduct = null;
+            CatalogCache.invalidateWorkingProduct(CART_CATEGORY, workingProduct);
             return addProductOnce();
         }
     }
@@ -106,9 +108,9 @@ public class CartTests extends BaseTest {
             String product = addProductOnce();
             
             // Verify in cart
-            cartActions.navigateToCart();
-            Assert.assertFalse(cartActions.isCartEmpty(), "Cart should not be empty");
-            Assert.assertTrue(cartActions.getCartItemCount() > 0, "Should have items");
+            cartActions().navigateToCart();
+            Assert.assertFalse(cartActions().isCartEmpty(), "Cart should not be empty");
+            Assert.assertTrue(cartActions().getCartItemCount() > 0, "Should have items");
             
             logger.info("Essential cart test passed with product: {}", product);
             
@@ -127,19 +129,19 @@ public class CartTests extends BaseTest {
         
         try {
           
-            cartActions.navigateToCart();
-            boolean hasItems = cartActions.getCartItemCount() > 0;
+            cartActions().navigateToCart();
+            boolean hasItems = cartActions().getCartItemCount() > 0;
             
             if (!hasItems) {
                 
                 addProductOnce();
-                cartActions.navigateToCart();
+                cartActions().navigateToCart();
             }
             
           
             navigateToHome();
-            cartActions.navigateToCart();
-            Assert.assertFalse(cartActions.isCartEmpty(), "Cart should persist");
+            cartActions().navigateToCart();
+            Assert.assertFalse(cartActions().isCartEmpty(), "Cart should persist");
             
             logger.info("Cart persistence test passed");
             
@@ -158,18 +160,18 @@ public class CartTests extends BaseTest {
         
         try {
            
-            cartActions.navigateToCart();
-            cartActions.clearCart();
+            cartActions().navigateToCart();
+            cartActions().clearCart();
             
            
             try {
-                Thread.sleep(1000);
+                WaitAccounting.sleep(1000);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
             
             
-            int itemCount = cartActions.getCartItemCount();
+            int itemCount = cartActions().getCartItemCount();
             Assert.assertTrue(itemCount <= 1, "Cart should be mostly clear");
             
             logger.info("Cart clearing test passed");
@@ -1,8 +1,13 @@
 package tests;
 
+import data.CustomerProfile;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import io.qameta.allure.*;
+import utils.ConfigReader;
+import utils.TestDataProvider;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -17,27 +22,28 @@ public class CheckoutTests extends BaseTest {
     @Description("Test Case 7: Verify that the user can complete a purchase and receive an order confirmation")
     @Severity(SeverityLevel.CRITICAL)
     public void testCompleteCheckoutProcess() {
-        
-        homeActions.navigateToHome();
-        homeActions.clickPhonesCategory();
-        List<String> products = homeActions.getAllProductTitles();
+        // Orders are placed by a signed-in customer; the login flow itself is covered by LoginTests
+        loginAsCustomer();
+        homeActions().navigateToHome();
+        homeActions().clickPhonesCategory();
+        List<String> products = homeActions().getAllProductTitles();
         Assert.assertFalse(products.isEmpty(), "Should have products available");
 
      
-        homeActions.clickProductByName(products.get(0));
-        productActions.addProductToCartWithVerification();
-        cartActions.navigateToCart();
-        cartActions.clickPlaceOrder();
+        homeActions().clickProductByName(products.get(0));
+        productActions().addProductToCartWithVerification();
+        cartActions().navigateToCart();
+        cartActions().clickPlaceOrder();
 
       
-        String[] customerInfo = getCustomerInfo();
-        checkoutActions.fillCheckoutFormFast(customerInfo[0], customerInfo[1], customerInfo[2],
-                customerInfo[3], customerInfo[4], customerInfo[5]);
-        checkoutActions.clickPurchaseButton();
+        CustomerProfile customer = getCustomerProfile();
+        checkoutActions().fillCheckoutFormFast(customer.getName(), customer.getCountry(), customer.getCity(),
+                customer.getCreditCard(), customer.getMonth(), customer.getYear());
+        checkoutActions().clickPurchaseButton();
 
        
-        Assert.assertTrue(checkoutActions.isOrderCompletedFast(), "Order should be completed");
-        checkoutActions.clickOkFast();
+        Assert.assertTrue(checkoutActions().isOrderCompletedFast(), "Order should be completed");
+        checkoutActions().clickOkFast();
     }
 
     @Test(priority = 2)
@@ -46,28 +52,28 @@ public class CheckoutTests extends BaseTest {
     @Severity(SeverityLevel.NORMAL)
     public void testCheckoutWithMultipleProducts() {
       
-        homeActions.navigateToHome();
-        homeActions.clickPhonesCategory();
-        List<String> products = homeActions.getAllProductTitles();
+        homeActions().navigateToHome();
+        homeActions().clickPhonesCategory();
+        List<String> products = homeActions().getAllProductTitles();
         
      
-        homeActions.clickProductByName(products.get(0));
-        productActions.addProductToCartWithVerification();
-        homeActions.navigateToHome();
-        homeActions.clickPhonesCategory();
-        homeActions.clickProductByName(products.size() > 1 ? products.get(1) : products.get(0));
-        productActions.addProductToCartWithVerification();
+        homeActions().clickProductByName(products.get(0));
+        productActions().addProductToCartWithVerification();
+        homeActions().navigateToHome();
+        homeActions().clickPhonesCategory();
+        homeActions().clickProductByName(products.size() > 1 ? products.get(1) : products.get(0));
+        productActions().addProductToCartWithVerification();
 
       
-        cartActions.navigateToCart();
-        cartActions.clickPlaceOrder();
-        String[] customerInfo = getCustomerInfo();
-        checkoutActions.fillCheckoutFormFast(customerInfo[0], customerInfo[1], customerInfo[2],
-                customerInfo[3], customerInfo[4], customerInfo[5]);
-        checkoutActions.clickPurchaseButton();
-
-        Assert.assertTrue(checkoutActions.isOrderCompletedFast(), "Multi-product order should be completed");
-        checkoutActions.clickOkFast();
+        cartActions().navigateToCart();
+        cartActions().clickPlaceOrder();
+        CustomerProfile customer = getCustomerProfile();
+        checkoutActions().fillCheckoutFormFast(customer.getName(), customer.getCountry(), customer.getCity(),
+                customer.getCreditCard(), customer.getMonth(), customer.getYear());
+        checkoutActions().clickPurchaseButton();
+
+        Assert.assertTrue(checkoutActions().isOrderCompletedFast(), "Multi-product order should be completed");
+        checkoutActions().clickOkFast();
     }
 
 
@@ -78,20 +84,20 @@ public class CheckoutTests extends BaseTest {
     @Severity(SeverityLevel.MINOR)
     public void testCheckoutModalFunctionality() {
        
-        homeActions.navigateToHome();
-        homeActions.clickPhonesCategory();
-        List<String> products = homeActions.getAllProductTitles();
-        homeActions.clickProductByName(products.get(0));
-        productActions.addProductToCartWithVerification();
-
-        cartActions.navigateToCart();
-        cartActions.clickPlaceOrder();
+        homeActions().navigateToHome();
+        homeActions().clickPhonesCategory();
+        List<String> products = homeActions().getAllProductTitles();
+        homeActions().clickProductByName(products.get(0));
+        productActions().addProductToCartWithVerification();
+
+        cartActions().navigateToCart();
+        cartActions().clickPlaceOrder();
         
        
-        Assert.assertTrue(checkoutActions.isModalDisplayedFast(), "Modal should open");
-        String orderTotal = checkoutActions.getOrderTotal();
+        Assert.assertTrue(checkoutActions().isModalDisplayedFast(), "Modal should open");
+        String orderTotal = checkoutActions().getOrderTotal();
         Assert.assertFalse(orderTotal.isEmpty(), "Order total should be displayed");
-        checkoutActions.closePlaceOrderModal();
+        checkoutActions().closePlaceOrderModal();
     }
 
     @Test(priority = 4)
@@ -99,24 +105,25 @@ public class CheckoutTests extends BaseTest {
     @Description("Verify order confirmation details")
     @Severity(SeverityLevel.NORMAL)
     public void testOrderConfirmationDetails() {
-      
-        homeActions.navigateToHome();
-        homeActions.clickPhonesCategory();
-        List<String> products = homeActions.getAllProductTitles();
-        homeActions.clickProductByName(products.get(0));
-        productActions.addProductToCartWithVerification();
-
-        cartActions.navigateToCart();
-        cartActions.clickPlaceOrder();
-
-        String[] customerInfo = getCustomerInfo();
-        checkoutActions.fillCheckoutFormFast(customerInfo[0], customerInfo[1], customerInfo[2],
-                customerInfo[3], customerInfo[4], customerInfo[5]);
-        checkoutActions.clickPurchaseButton();
+        // Orders are placed by a signed-in customer; the login flow itself is covered by LoginTests
+        loginAsCustomer();
+        homeActions().navigateToHome();
+        homeActions().clickPhonesCategory();
+        List<String> products = homeActions().getAllProductTitles();
+        homeActions().clickProductByName(products.get(0));
+        productActions().addProductToCartWithVerification();
+
+        cartActions().navigateToCart();
+        cartActions().clickPlaceOrder();
+
+        CustomerProfile customer = getCustomerProfile();
+        checkoutActions().fillCheckoutFormFast(customer.getName(), customer.getCountry(), customer.getCity(),
+                customer.getCreditCard(), customer.getMonth(), customer.getYear());
+        checkoutActions().clickPurchaseButton();
 
        
-        Assert.assertTrue(checkoutActions.isOrderCompletedFast(), "Order should be completed");
-        checkoutActions.clickOkFast();
+        Assert.assertTrue(checkoutActions().isOrderCompletedFast(), "Order should be completed");
+        checkoutActions().clickOkFast();
     }
 
     @Test(priority = 5)
@@ -125,17 +132,51 @@ public class CheckoutTests extends BaseTest {
     @Severity(SeverityLevel.MINOR)
     public void testCheckoutFromEmptyCart() {
       
-        cartActions.navigateToCart();
-        cartActions.clearCart();
-        Assert.assertTrue(cartActions.isCartEmpty(), "Cart should be empty");
+        cartActions().navigateToCart();
+        cartActions().clearCart();
+        Assert.assertTrue(cartActions().isCartEmpty(), "Cart should be empty");
 
         try {
-            cartActions.clickPlaceOrder();
-            if (checkoutActions.isModalDisplayedFast()) {
-                checkoutActions.closePlaceOrderModal();
+            cartActions().clickPlaceOrder();
+            if (checkoutActions().isModalDisplayedFast()) {
+                checkoutActions().closePlaceOrderModal();
             }
         } catch (Exception e) {
            
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Customer profiles streamed lazily from checkout.customers.file (JSON array or NDJSON)
+     */
+    @DataProvider(name = "customerProfiles", parallel = true)
+    public Iterator<Object[]> customerProfiles() {
+        return TestDataProvider.streamRecords(
+                ConfigReader.getProperty("checkout.customers.file", "checkout-customers.ndjson"),
+                CustomerProfile::fromJson);
+    }
+
+    @Test(priority = 6, dataProvider = "customerProfiles")
+    @Story("Checkout Process")
+    @Description("Data-driven checkout across streamed customer profiles")
+    @Severity(SeverityLevel.NORMAL)
+    public void testCheckoutForCustomerProfile(CustomerProfile customer) {
+
+        homeActions().navigateToHome();
+        homeActions().clickPhonesCategory();
+        List<String> products = homeActions().getAllProductTitles();
+        Assert.assertFalse(products.isEmpty(), "Should have products available");
+
+        homeActions().clickProductByName(products.get(0));
+        productActions().addProductToCartWithVerification();
+        cartActions().navigateToCart();
+        cartActions().clickPlaceOrder();
+
+        checkoutActions().fillCheckoutFormFast(customer.getName(), customer.getCountry(), customer.getCity(),
+                customer.getCreditCard(), customer.getMonth(), customer.getYear());
+        checkoutActions().clickPurchaseButton();
+
+        Assert.assertTrue(checkoutActions().isOrderCompletedFast(), "Order should be completed for " + customer);
+        checkoutActions().clickOkFast();
+    }
+}
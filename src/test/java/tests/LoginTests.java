@@ -19,21 +19,21 @@ public class LoginTests extends BaseTest {
         
         String[] userCredentials = generateUniqueUser();
         String username = userCredentials[0];
-        String password = userCredentials[0];
+        String password = userCredentials[1];
 
       
-        loginActions.registerUser(username, password);
+        loginActions().registerUser(username, password);
 
       
         waitForPageLoad();
-        loginActions.loginUser(username, password);
+        loginActions().loginUser(username, password);
 
         
         waitForPageLoad();
-        Assert.assertTrue(loginActions.isUserLoggedIn(),
+        Assert.assertTrue(loginActions().isUserLoggedIn(),
                 "User should be logged in after successful registration and login");
 
-        String loggedInUser = loginActions.getLoggedInUsername();
+        String loggedInUser = loginActions().getLoggedInUsername();
         Assert.assertEquals(loggedInUser, username,
                 "Logged in username should match registered username");
 
@@ -53,25 +53,25 @@ public class LoginTests extends BaseTest {
         String password = userCredentials[1];
 
      
-        loginActions.registerUser(username, password);
+        loginActions().registerUser(username, password);
         waitForPageLoad();
 
      
-        if (loginActions.isUserLoggedIn()) {
-            loginActions.logoutUser();
+        if (loginActions().isUserLoggedIn()) {
+            loginActions().logoutUser();
             waitForPageLoad();
         }
 
        
-        loginActions.loginUser(username, password);
+        loginActions().loginUser(username, password);
 
        
         waitForPageLoad();
-        Assert.assertTrue(loginActions.isUserLoggedIn(),
+        Assert.assertTrue(loginActions().isUserLoggedIn(),
                 "User should be logged in with valid credentials");
 
         
-        String loggedInUser = loginActions.getLoggedInUsername();
+        String loggedInUser = loginActions().getLoggedInUsername();
         Assert.assertEquals(loggedInUser, username,
                 "Displayed username should match login username");
 
@@ -96,21 +96,21 @@ public class LoginTests extends BaseTest {
         String password = userCredentials[1];
 
  
-        loginActions.registerUser(username, password);
+        loginActions().registerUser(username, password);
         waitForPageLoad();
-        loginActions.loginUser(username, password);
+        loginActions().loginUser(username, password);
 
         
         waitForPageLoad();
-        Assert.assertTrue(loginActions.isUserLoggedIn(),
+        Assert.assertTrue(loginActions().isUserLoggedIn(),
                 "User should be logged in before logout test");
 
        
-        loginActions.logoutUser();
+        loginActions().logoutUser();
         waitForPageLoad();
 
    
-        Assert.assertFalse(loginActions.isUserLoggedIn(),
+        Assert.assertFalse(loginActions().isUserLoggedIn(),
                 "User should be logged out after clicking logout");
 
         logger.info("✅ User logout test completed successfully");
@@ -3,6 +3,7 @@ package tests;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import io.qameta.allure.*;
+import utils.PagePerformance;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -31,7 +32,7 @@ public class ProductTests extends BaseTest {
             clickCategoryByName(category);
             
             
-            List<String> products = homeActions.getAllProductTitles();
+            List<String> products = homeActions().getAllProductTitles();
             
             
             Assert.assertFalse(products.isEmpty(), 
@@ -39,7 +40,7 @@ public class ProductTests extends BaseTest {
             
             
             String firstProduct = products.get(0);
-            String productPrice = homeActions.getProductPriceByName(firstProduct);
+            String productPrice = homeActions().getProductPriceByName(firstProduct);
             
             Assert.assertFalse(productPrice.isEmpty(), 
                               "Product price should be displayed for " + category);
@@ -47,18 +48,18 @@ public class ProductTests extends BaseTest {
                             "Product price should contain currency for " + category);
             
             
-            boolean isVisible = homeActions.isProductDisplayed(firstProduct);
+            boolean isVisible = homeActions().isProductDisplayed(firstProduct);
             if (!isVisible) {
                 
                 logger.warn("First product {} not visible in {}, checking product count instead", firstProduct, category);
-                int productCount = homeActions.getProductCount();
+                int productCount = homeActions().getProductCount();
                 Assert.assertTrue(productCount > 0, "Should have visible products in " + category);
             } else {
                 Assert.assertTrue(isVisible, "Product should be visible in " + category);
             }
             
             
-            int productCount = homeActions.getProductCount();
+            int productCount = homeActions().getProductCount();
             Assert.assertTrue(productCount > 0, "Product count should be > 0 for: " + category);
             
             logger.info("Category {} tested successfully with {} products", category, products.size());
@@ -76,8 +77,8 @@ public class ProductTests extends BaseTest {
         
 
         navigateToHome();
-        homeActions.clickPhonesCategory();
-        List<String> allPhoneProducts = homeActions.getAllProductTitles();
+        homeActions().clickPhonesCategory();
+        List<String> allPhoneProducts = homeActions().getAllProductTitles();
         
         Assert.assertFalse(allPhoneProducts.isEmpty(), "Should have phone products for search testing");
         
@@ -104,7 +105,7 @@ public class ProductTests extends BaseTest {
                 
                 
                 try {
-                    List<String> uiSearchResults = homeActions.searchProductsByText(searchTerm);
+                    List<String> uiSearchResults = homeActions().searchProductsByText(searchTerm);
                    
                     logger.info("UI search for '{}' returned {} results", searchTerm, uiSearchResults.size());
                 } catch (Exception e) {
@@ -129,8 +130,8 @@ public class ProductTests extends BaseTest {
         
         
         navigateToHome();
-        homeActions.clickPhonesCategory();
-        List<String> products = homeActions.getAllProductTitles();
+        homeActions().clickPhonesCategory();
+        List<String> products = homeActions().getAllProductTitles();
         
         Assert.assertFalse(products.isEmpty(), "Should have products for workflow testing");
         
@@ -138,30 +139,30 @@ public class ProductTests extends BaseTest {
         logger.info("Testing workflow with product: {}", selectedProduct);
         
         
-        homeActions.clickProductByName(selectedProduct);
+        homeActions().clickProductByName(selectedProduct);
 
    
-        String productName = productActions.getProductName();
-        String productPrice = productActions.getProductPrice();
+        String productName = productActions().getProductName();
+        String productPrice = productActions().getProductPrice();
         
         Assert.assertFalse(productName.isEmpty(), "Product name should be displayed");
         Assert.assertFalse(productPrice.isEmpty(), "Product price should be displayed");
-        Assert.assertTrue(productActions.isAddToCartButtonVisible(), "Add to Cart button should be visible");
+        Assert.assertTrue(productActions().isAddToCartButtonVisible(), "Add to Cart button should be visible");
         
    
-        boolean addToCartSuccess = productActions.addProductToCartWithVerification();
+        boolean addToCartSuccess = productActions().addProductToCartWithVerification();
         Assert.assertTrue(addToCartSuccess, "Should successfully add product to cart");
         
       
-        cartActions.navigateToCart();
-        Assert.assertTrue(cartActions.isItemInCart(selectedProduct), "Product should appear in cart");
-        Assert.assertFalse(cartActions.isCartEmpty(), "Cart should not be empty");
+        cartActions().navigateToCart();
+        Assert.assertTrue(cartActions().isItemInCart(selectedProduct), "Product should appear in cart");
+        Assert.assertFalse(cartActions().isCartEmpty(), "Cart should not be empty");
         
-        double cartTotal = cartActions.getNumericCartTotal();
+        double cartTotal = cartActions().getNumericCartTotal();
         Assert.assertTrue(cartTotal > 0, "Cart total should be greater than 0");
         
        
-        cartActions.clearCart();
+        cartActions().clearCart();
         
         logger.info("Complete workflow test passed for product: {}", selectedProduct);
     }
@@ -175,14 +176,13 @@ public class ProductTests extends BaseTest {
         
         long startTime = System.currentTimeMillis();
         
-        
         String[] categories = {"phones", "laptops", "monitors", "phones"};
         List<List<String>> allCategoryProducts = new ArrayList<>();
         
         for (String category : categories) {
             navigateToHome();
             clickCategoryByName(category);
-            List<String> products = homeActions.getAllProductTitles();
+            List<String> products = homeActions().getAllProductTitles();
             
        
             Assert.assertFalse(products.isEmpty(), "Category should have products: " + category);
@@ -196,14 +196,23 @@ public class ProductTests extends BaseTest {
             allCategoryProducts.add(products);
         }
         
-        long endTime = System.currentTimeMillis();
-        long duration = endTime - startTime;
-        
+        long duration = System.currentTimeMillis() - startTime;
         logger.info("Category switching and validation completed in {}ms", duration);
-        
-     
         Assert.assertTrue(duration < 20000, "Category operations should complete within 20 seconds");
         
+        if (PagePerformance.isEnabled()) {
+            List<PagePerformance.Sample> categoryLoads = PagePerformance.getTestSamples("category");
+            Assert.assertEquals(categoryLoads.size(), categories.length, "Every category switch should be captured");
+            for (PagePerformance.Sample categoryLoad : categoryLoads) {
+                logger.info("Category load took {}ms over {} requests", categoryLoad.getMetric(PagePerformance.DURATION),
+                        categoryLoad.getMetric(PagePerformance.RESOURCES).intValue());
+            }
+            if (PagePerformance.isEnforced()) {
+                List<String> violations = PagePerformance.getViolations(categoryLoads);
+                Assert.assertTrue(violations.isEmpty(), "Category switches should stay within budget: " + violations);
+            }
+        }
+        
    
         Assert.assertTrue(allCategoryProducts.get(0).size() >= 1, "Phones should have products");
         Assert.assertTrue(allCategoryProducts.get(1).size() >= 1, "Laptops should have products");
@@ -211,13 +220,13 @@ public class ProductTests extends BaseTest {
         
        
         navigateToHome();
-        homeActions.clickPhonesCategory();
-        List<String> phoneProducts = homeActions.getAllProductTitles();
+        homeActions().clickPhonesCategory();
+        List<String> phoneProducts = homeActions().getAllProductTitles();
         
         int samplesToTest = Math.min(3, phoneProducts.size());
         for (int i = 0; i < samplesToTest; i++) {
             String product = phoneProducts.get(i);
-            String price = homeActions.getProductPriceByName(product);
+            String price = homeActions().getProductPriceByName(product);
             Assert.assertFalse(price.isEmpty(), "Price should be available for: " + product);
             Assert.assertTrue(price.contains("$"), "Price should contain currency for: " + product);
         }
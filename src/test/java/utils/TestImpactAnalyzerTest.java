@@ -0,0 +1,97 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Impact analysis of unified diffs over the fixture sources in resources/impact: a locator class, the actions
+ * using it, a base spec with a @BeforeMethod and two spec classes
+ */
+public class TestImpactAnalyzerTest {
+    private static final Path FIXTURES = Paths.get("src/test/java/resources/impact");
+
+    private Path root;
+    private TestImpactAnalyzer analyzer;
+
+    @BeforeClass
+    public void parseFixtures() throws IOException {
+        root = Files.createTempDirectory("impact-fixtures");
+        List<Path> fixtures;
+        try (Stream<Path> walk = Files.walk(FIXTURES)) {
+            fixtures = walk.filter(path -> path.toString().endsWith(".java.txt")).collect(Collectors.toList());
+        }
+        for (Path fixture : fixtures) {
+            String relative = FIXTURES.relativize(fixture).toString();
+            Path source = root.resolve(relative.substring(0, relative.length() - ".txt".length()));
+            Files.createDirectories(source.getParent());
+            Files.copy(fixture, source);
+        }
+        analyzer = new TestImpactAnalyzer();
+        analyzer.addSourceRoot(root);
+        analyzer.link();
+    }
+
+    @Test
+    public void testCommentOnlyEditAffectsNothing() {
+        TestImpactAnalyzer.Impact impact = analyzer.analyzeDiff(modified("pages/LoginLocators.java", 7, 1));
+
+        Assert.assertFalse(impact.isRunAll(), "Comment edit should not run the suite: " + impact.getRunAllReasons());
+        Assert.assertTrue(impact.getChangedMembers().isEmpty(), "Changed members: " + impact.getChangedMembers());
+        Assert.assertTrue(impact.getAffectedTests().isEmpty(), "Affected tests: " + impact.getAffectedTests());
+    }
+
+    @Test
+    public void testLocatorChangeAffectsTestsUsingIt() {
+        TestImpactAnalyzer.Impact impact = analyzer.analyzeDiff(modified("pages/LoginLocators.java", 8, 1));
+
+        Assert.assertFalse(impact.isRunAll(), "Locator change should be mapped: " + impact.getRunAllReasons());
+        Assert.assertEquals(impact.getChangedMembers(), set("pages.LoginLocators.USERNAME"));
+        Assert.assertEquals(impact.getAffectedTests(), set("specs.LoginSpec.testUsername"));
+    }
+
+    @Test
+    public void testLifecycleChangeAffectsEveryTestOfSubclasses() {
+        TestImpactAnalyzer.Impact impact = analyzer.analyzeDiff(modified("specs/BaseSpec.java", 11, 1));
+
+        Assert.assertFalse(impact.isRunAll(), "Setup change should be mapped: " + impact.getRunAllReasons());
+        Assert.assertEquals(impact.getAffectedTests(),
+                set("specs.HomeSpec.testHome", "specs.LoginSpec.testPassword", "specs.LoginSpec.testUsername"));
+    }
+
+    @Test
+    public void testDeletedSourceRunsWholeSuite() {
+        String file = root.resolve("specs/HomeSpec.java").toString();
+        String diff = "diff --git a/" + file + " b/" + file + "\n"
+                + "deleted file mode 100644\n"
+                + "--- " + file + "\n"
+                + "+++ /dev/null\n"
+                + "@@ -1,10 +0,0 @@\n";
+
+        TestImpactAnalyzer.Impact impact = analyzer.analyzeDiff(diff);
+
+        Assert.assertTrue(impact.isRunAll(), "Deleted source should run the suite");
+        Assert.assertTrue(impact.getRunAllReasons().contains("deleted source " + file), "Reasons: " + impact.getRunAllReasons());
+    }
+
+    private String modified(String fixture, int line, int count) {
+        String file = root.resolve(fixture).toString();
+        return "--- " + file + "\n"
+                + "+++ " + file + "\n"
+                + "@@ -" + line + "," + count + " +" + line + "," + count + " @@\n";
+    }
+
+    private static Set<String> set(String... values) {
+        return new TreeSet<>(Arrays.asList(values));
+    }
+}